@@ -0,0 +1,127 @@
+package org.example.dictionarysuggestionsystem.benchmark;
+
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.example.dictionarysuggestionsystem.repository.JsonDictionaryRepository;
+import org.example.dictionarysuggestionsystem.service.DictionaryService;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Từ điển tổng hợp giống tiếng Việt: mỗi từ là hai âm tiết (phụ âm đầu + vần + thanh), không trùng nhau;
+ * nghĩa là 3..14 âm tiết lấy theo phân phối Zipf để TF-IDF có cả từ phổ biến lẫn từ hiếm. Cùng size luôn
+ * sinh cùng dữ liệu (seed cố định) nên kết quả giữa các lần chạy so sánh được.
+ */
+final class Corpus {
+    private static final String[] ONSETS = {
+        "", "b", "c", "ch", "d", "đ", "g", "gi", "h", "k", "kh", "l", "m", "n", "ng", "nh", "ph", "qu", "s", "t", "th", "tr", "v", "x"
+    };
+    private static final String[] RHYMES = {
+        "a", "ai", "am", "an", "ang", "anh", "ao", "at", "au", "ay", "ăn", "âm", "ân", "âu", "e", "em", "en", "eo", "ê", "êm",
+        "i", "iên", "inh", "o", "oi", "om", "on", "ong", "ô", "ôi", "ông", "ơ", "ơi", "ơn", "u", "ua", "uc", "um", "ung",
+        "uôc", "uông", "ư", "ưa", "ưng", "ương", "uy"
+    };
+    // Không dấu, huyền, sắc, ngã, hỏi, nặng (dấu kết hợp, ghép lại bằng NFC)
+    private static final String[] TONES = {"", "̀", "́", "̃", "̉", "̣"};
+    static final String[] SYLLABLES = syllables();
+
+    private Corpus() {}
+
+    static List<DictionaryEntry> entries(int size) {
+        long space = (long) SYLLABLES.length * SYLLABLES.length;
+        if (size > space) throw new IllegalArgumentException("At most " + space + " distinct words");
+        double[] zipf = zipfCumulative(SYLLABLES.length);
+        Random rnd = new Random(size);
+        List<DictionaryEntry> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StringBuilder meaning = new StringBuilder();
+            int len = 3 + rnd.nextInt(12);
+            for (int j = 0; j < len; j++) {
+                if (j > 0) meaning.append(' ');
+                meaning.append(SYLLABLES[sample(rnd, zipf)]);
+            }
+            out.add(new DictionaryEntry(word(i, space), meaning.toString(), rnd.nextInt(1000), List.of()));
+        }
+        return out;
+    }
+
+    /** Mẫu ngẫu nhiên (có lặp) lấy từ corpus, dùng làm query cho các benchmark. */
+    static String[] sample(List<DictionaryEntry> entries, int n, long seed) {
+        Random rnd = new Random(seed);
+        String[] out = new String[n];
+        for (int i = 0; i < n; i++) out[i] = entries.get(rnd.nextInt(entries.size())).getWord();
+        return out;
+    }
+
+    /**
+     * Ghi entries ra file rồi mở DictionaryService (tắt SymSpell). Lần mở đầu được đóng ngay để ghi snapshot
+     * nhị phân và dọn nhật ký, nên service trả về đã nạp từ snapshot như một lần khởi động bình thường.
+     */
+    static DictionaryService service(File file, List<DictionaryEntry> entries) throws IOException {
+        new JsonDictionaryRepository(file).saveAll(entries);
+        new DictionaryService(file, 0, DictionaryService.DEFAULT_SYMSPELL_PREFIX_LENGTH).close();
+        return new DictionaryService(file, 0, DictionaryService.DEFAULT_SYMSPELL_PREFIX_LENGTH);
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+
+    /** Đổi một ký tự (lỗi gõ) ở vị trí ngẫu nhiên, để query gần đúng không khớp chính xác. */
+    static String typo(String word, Random rnd) {
+        char[] c = word.toCharArray();
+        c[rnd.nextInt(c.length)] = (char) ('a' + rnd.nextInt(26));
+        return new String(c);
+    }
+
+    // Nhân với số nguyên tố cùng nhau với space: i -> k là hoán vị, nên từ không trùng mà vẫn trộn đều âm tiết
+    private static String word(int i, long space) {
+        long k = i * 2_654_435_761L % space;
+        return SYLLABLES[(int) (k / SYLLABLES.length)] + " " + SYLLABLES[(int) (k % SYLLABLES.length)];
+    }
+
+    private static String[] syllables() {
+        List<String> out = new ArrayList<>();
+        for (String onset : ONSETS) {
+            for (String rhyme : RHYMES) {
+                for (String tone : TONES) {
+                    int vowel = firstVowel(rhyme);
+                    String s = onset + rhyme.substring(0, vowel + 1) + tone + rhyme.substring(vowel + 1);
+                    out.add(Normalizer.normalize(s, Normalizer.Form.NFC));
+                }
+            }
+        }
+        return out.stream().distinct().toArray(String[]::new);
+    }
+
+    private static int firstVowel(String rhyme) {
+        for (int i = 0; i < rhyme.length(); i++) {
+            if ("aăâeêioôơuưy".indexOf(rhyme.charAt(i)) >= 0) return i;
+        }
+        return 0;
+    }
+
+    private static double[] zipfCumulative(int n) {
+        double[] c = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) c[i] = sum += 1.0 / (i + 1);
+        for (int i = 0; i < n; i++) c[i] /= sum;
+        return c;
+    }
+
+    private static int sample(Random rnd, double[] cumulative) {
+        int i = Arrays.binarySearch(cumulative, rnd.nextDouble());
+        return Math.min(cumulative.length - 1, i >= 0 ? i : -i - 1);
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.dictionarysuggestionsystem.benchmark;
+
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.example.dictionarysuggestionsystem.service.DictionaryService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** DictionaryService.suggestByLevenshteinFiltered (khoảng cách 2) với query là từ trong corpus có một lỗi gõ. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DictionaryServiceBenchmark {
+    private static final int QUERIES = 256;
+
+    @Param({"10000", "1000000", "5000000"})
+    int size;
+
+    private Path dir;
+    private DictionaryService service;
+    private final String[] queries = new String[QUERIES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("dictionary-bench");
+        List<DictionaryEntry> entries = Corpus.entries(size);
+        service = Corpus.service(dir.resolve("dictionary.json").toFile(), entries);
+        Random rnd = new Random(1);
+        String[] words = Corpus.sample(entries, QUERIES, 2);
+        for (int i = 0; i < QUERIES; i++) queries[i] = Corpus.typo(words[i], rnd);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        service.close();
+        Corpus.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public DictionaryService.TimedResult<List<String>> suggestByLevenshteinFiltered() {
+        return service.suggestByLevenshteinFiltered(queries[next++ & (QUERIES - 1)], 10, 2);
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.dictionarysuggestionsystem.benchmark;
+
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.example.dictionarysuggestionsystem.repository.JsonDictionaryRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Đọc toàn bộ (loadAll) và ghi toàn bộ (saveAll) file JSON của từ điển. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JsonRepositoryBenchmark {
+    @Param({"10000", "1000000", "5000000"})
+    int size;
+
+    private Path dir;
+    private List<DictionaryEntry> entries;
+    private JsonDictionaryRepository source;
+    private JsonDictionaryRepository target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("dictionary-bench");
+        entries = Corpus.entries(size);
+        source = new JsonDictionaryRepository(dir.resolve("source.json").toFile());
+        source.saveAll(entries);
+        target = new JsonDictionaryRepository(dir.resolve("target.json").toFile());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Corpus.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public List<DictionaryEntry> loadAll() throws IOException {
+        return source.loadAll();
+    }
+
+    @Benchmark
+    public File saveAll() throws IOException {
+        target.saveAll(entries);
+        return target.getFile();
+    }
+}
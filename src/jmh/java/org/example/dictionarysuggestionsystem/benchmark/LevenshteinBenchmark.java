@@ -0,0 +1,38 @@
+package org.example.dictionarysuggestionsystem.benchmark;
+
+import org.example.dictionarysuggestionsystem.algorithms.Levenshtein;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Levenshtein.distance giữa một từ trong corpus và chính nó sau một lỗi gõ hoặc một từ khác bất kỳ. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevenshteinBenchmark {
+    private static final int PAIRS = 1024;
+
+    private final String[] left = new String[PAIRS];
+    private final String[] right = new String[PAIRS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] words = Corpus.sample(Corpus.entries(10_000), 2 * PAIRS, 1);
+        Random rnd = new Random(2);
+        for (int i = 0; i < PAIRS; i++) {
+            left[i] = words[i];
+            right[i] = rnd.nextBoolean() ? Corpus.typo(words[i], rnd) : words[PAIRS + i];
+        }
+    }
+
+    @Benchmark
+    public int distance() {
+        int i = next++ & (PAIRS - 1);
+        return Levenshtein.distance(left[i], right[i]);
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.dictionarysuggestionsystem.benchmark;
+
+import org.example.dictionarysuggestionsystem.utils.NormalizerUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** NormalizerUtil.normalize với từ có dấu (qua bảng tra) và từ đã là ASCII thường (nhánh trả về nguyên chuỗi). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalizerBenchmark {
+    private static final int WORDS = 1024;
+
+    private String[] accented;
+    private String[] ascii;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        accented = Corpus.sample(Corpus.entries(10_000), WORDS, 1);
+        ascii = new String[WORDS];
+        for (int i = 0; i < WORDS; i++) ascii[i] = NormalizerUtil.normalize(accented[i]);
+    }
+
+    @Benchmark
+    public String normalizeAccented() {
+        return NormalizerUtil.normalize(accented[next++ & (WORDS - 1)]);
+    }
+
+    @Benchmark
+    public String normalizeAscii() {
+        return NormalizerUtil.normalize(ascii[next++ & (WORDS - 1)]);
+    }
+}
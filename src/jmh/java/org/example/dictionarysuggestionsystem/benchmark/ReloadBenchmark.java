@@ -0,0 +1,58 @@
+package org.example.dictionarysuggestionsystem.benchmark;
+
+import org.example.dictionarysuggestionsystem.repository.BinaryDictionaryRepository;
+import org.example.dictionarysuggestionsystem.service.DictionaryService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DictionaryService.reload(): từ JSON (snapshot nhị phân bị xóa trước mỗi lần nên phải parse và dựng lại
+ * toàn bộ chỉ mục) hoặc từ snapshot (nạp thẳng Trie và TF-IDF).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReloadBenchmark {
+    @Param({"10000", "1000000", "5000000"})
+    int size;
+
+    @Param({"json", "snapshot"})
+    String source;
+
+    private Path dir;
+    private File file;
+    private DictionaryService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("dictionary-bench");
+        file = dir.resolve("dictionary.json").toFile();
+        service = Corpus.service(file, Corpus.entries(size));
+    }
+
+    // Với SingleShotTime mỗi iteration là một lần gọi, nên đây là trước mỗi lần reload
+    @Setup(Level.Iteration)
+    public void dropSnapshot() throws IOException {
+        if ("json".equals(source)) new BinaryDictionaryRepository(file).delete();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        service.close();
+        Corpus.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public DictionaryService reload() throws IOException {
+        service.reload();
+        return service;
+    }
+}
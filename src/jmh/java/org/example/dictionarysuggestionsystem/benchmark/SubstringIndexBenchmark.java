@@ -0,0 +1,71 @@
+package org.example.dictionarysuggestionsystem.benchmark;
+
+import org.example.dictionarysuggestionsystem.algorithms.SubstringIndex;
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** SubstringIndex.build (tuần tự/song song) và search top-10 với âm tiết thứ hai (>= 3 ký tự) của từ trong corpus. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SubstringIndexBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "1000000", "5000000"})
+    int size;
+
+    private String[] normalized;
+    private long[] frequencies;
+    private SubstringIndex index;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<DictionaryEntry> entries = Corpus.entries(size);
+        normalized = new String[entries.size()];
+        frequencies = new long[entries.size()];
+        for (int i = 0; i < normalized.length; i++) {
+            normalized[i] = entries.get(i).normalizedWord();
+            frequencies[i] = entries.get(i).getFrequency();
+        }
+        index = SubstringIndex.build(normalized, false);
+        // Như SearchSession: chỉ tìm chuỗi con khi query từ 3 ký tự
+        queries = new String[QUERIES];
+        String[] sample = Corpus.sample(entries, QUERIES * 4, 4);
+        for (int i = 0, q = 0; q < QUERIES; i++) {
+            String w = new DictionaryEntry(sample[i], null, 0, List.of()).normalizedWord();
+            String second = w.substring(w.indexOf(' ') + 1);
+            if (second.length() >= 3) queries[q++] = second;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public SubstringIndex build() {
+        return SubstringIndex.build(normalized, false);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public SubstringIndex buildParallel() {
+        return SubstringIndex.build(normalized, true);
+    }
+
+    @Benchmark
+    public int[] searchSecondSyllable() {
+        return index.search(queries[next++ & (QUERIES - 1)], 10, id -> frequencies[id]);
+    }
+}
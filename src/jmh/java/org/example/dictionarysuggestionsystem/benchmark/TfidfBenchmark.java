@@ -0,0 +1,54 @@
+package org.example.dictionarysuggestionsystem.benchmark;
+
+import org.example.dictionarysuggestionsystem.algorithms.TfidfRanker;
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TfidfRanker.rankByQuery (WAND) so với rankByQueryExhaustive (tính điểm mọi tài liệu chứa term).
+ * Query gồm 1..3 âm tiết lấy từ nghĩa của các entry, nên có cả term phổ biến lẫn term hiếm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TfidfBenchmark {
+    private static final int QUERIES = 256;
+
+    @Param({"10000", "1000000", "5000000"})
+    int size;
+
+    private TfidfRanker ranker;
+    private final String[] queries = new String[QUERIES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<DictionaryEntry> entries = Corpus.entries(size);
+        ranker = new TfidfRanker(entries);
+        Random rnd = new Random(1);
+        for (int i = 0; i < QUERIES; i++) {
+            String[] tokens = entries.get(rnd.nextInt(size)).getMeaning().split(" ");
+            int from = rnd.nextInt(tokens.length);
+            int to = Math.min(tokens.length, from + 1 + rnd.nextInt(3));
+            queries[i] = String.join(" ", Arrays.copyOfRange(tokens, from, to));
+        }
+    }
+
+    @Benchmark
+    public List<DictionaryEntry> rankByQuery() {
+        return ranker.rankByQuery(queries[next++ & (QUERIES - 1)], 5);
+    }
+
+    @Benchmark
+    public List<DictionaryEntry> rankByQueryExhaustive() {
+        return ranker.rankByQueryExhaustive(queries[next++ & (QUERIES - 1)], 5);
+    }
+}
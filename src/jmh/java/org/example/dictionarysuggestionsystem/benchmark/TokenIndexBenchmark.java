@@ -0,0 +1,75 @@
+package org.example.dictionarysuggestionsystem.benchmark;
+
+import org.example.dictionarysuggestionsystem.algorithms.TokenIndex;
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TokenIndex.build (tuần tự/song song) và search top-10 với query hai âm tiết gõ dở, đảo thứ tự ("dun u" cho
+ * ứng dụng) lấy từ corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TokenIndexBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "1000000", "5000000"})
+    int size;
+
+    private String[] normalized;
+    private long[] frequencies;
+    private TokenIndex index;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<DictionaryEntry> entries = Corpus.entries(size);
+        normalized = new String[entries.size()];
+        frequencies = new long[entries.size()];
+        for (int i = 0; i < normalized.length; i++) {
+            normalized[i] = entries.get(i).normalizedWord();
+            frequencies[i] = entries.get(i).getFrequency();
+        }
+        index = TokenIndex.build(normalized, false);
+        queries = new String[QUERIES];
+        String[] sample = Corpus.sample(entries, QUERIES * 4, 4);
+        for (int i = 0, q = 0; q < QUERIES; i++) {
+            String w = new DictionaryEntry(sample[i], null, 0, List.of()).normalizedWord();
+            int space = w.indexOf(' ');
+            if (space <= 0 || space == w.length() - 1) continue;
+            String second = w.substring(space + 1);
+            queries[q++] = second.substring(0, Math.min(3, second.length())) + " " + w.charAt(0);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public TokenIndex build() {
+        return TokenIndex.build(normalized, false);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public TokenIndex buildParallel() {
+        return TokenIndex.build(normalized, true);
+    }
+
+    @Benchmark
+    public int[] searchTwoSyllables() {
+        return index.search(queries[next++ & (QUERIES - 1)], 10, id -> frequencies[id]);
+    }
+}
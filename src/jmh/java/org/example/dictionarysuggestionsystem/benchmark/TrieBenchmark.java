@@ -0,0 +1,57 @@
+package org.example.dictionarysuggestionsystem.benchmark;
+
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.example.dictionarysuggestionsystem.trie.Trie;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Trie.insert (dựng cả cây) và prefixSuggest theo BFS/DFS với prefix 3 ký tự lấy từ corpus. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TrieBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "1000000", "5000000"})
+    int size;
+
+    private List<DictionaryEntry> entries;
+    private Trie trie;
+    private String[] prefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entries = Corpus.entries(size);
+        trie = new Trie();
+        for (DictionaryEntry e : entries) trie.insert(e.getWord(), e.getFrequency());
+        prefixes = Corpus.sample(entries, QUERIES, 1);
+        for (int i = 0; i < QUERIES; i++) prefixes[i] = prefixes[i].substring(0, Math.min(3, prefixes[i].length()));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Trie insert() {
+        Trie t = new Trie();
+        for (DictionaryEntry e : entries) t.insert(e.getWord(), e.getFrequency());
+        return t;
+    }
+
+    @Benchmark
+    public List<String> prefixSuggestBfs() {
+        return trie.prefixSuggest(prefixes[next++ & (QUERIES - 1)], 10, true);
+    }
+
+    @Benchmark
+    public List<String> prefixSuggestDfs() {
+        return trie.prefixSuggest(prefixes[next++ & (QUERIES - 1)], 10, false);
+    }
+}
@@ -1,6 +1,8 @@
 module org.example.dictionarysuggestionsystem {
-    requires javafx.controls;
-    requires javafx.fxml;
+    // Chỉ giao diện cần JavaFX; máy chủ HTTP (server.SuggestionServer) chạy được khi không có JavaFX
+    requires static javafx.controls;
+    requires static javafx.fxml;
+    requires jdk.httpserver;
     requires com.fasterxml.jackson.databind;
     requires org.slf4j;
 
@@ -2,6 +2,7 @@ package org.example.dictionarysuggestionsystem;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.beans.property.SimpleLongProperty;
@@ -18,17 +19,18 @@ import javafx.animation.FadeTransition;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
+import javafx.stage.FileChooser;
 import javafx.util.Duration;
 import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.example.dictionarysuggestionsystem.service.AsyncSuggester;
 import org.example.dictionarysuggestionsystem.service.DictionaryService;
-import org.example.dictionarysuggestionsystem.utils.NormalizerUtil;
+import org.example.dictionarysuggestionsystem.service.SearchSession;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 public class DictionaryController {
     @FXML private TextField inputField;
@@ -47,13 +49,18 @@ public class DictionaryController {
     @FXML private TableColumn<DictionaryEntry, String> colTags;
     @FXML private StackPane notificationContainer;
 
+    // Chờ sau phím gõ cuối trước khi tính gợi ý; đổi bằng -Ddictionary.debounceMillis=<ms>
+    private static final long DEBOUNCE_MILLIS = Long.getLong("dictionary.debounceMillis", 60);
+
     private final ObservableList<String> suggestions = FXCollections.observableArrayList();
     private DictionaryService service;
+    private AsyncSuggester suggester;
 
     @FXML
     public void initialize() {
         suggestionList.setItems(suggestions);
         service = new DictionaryService(new File("dictionary.json"));
+        suggester = new AsyncSuggester(service.newSession(), DEBOUNCE_MILLIS, Platform::runLater);
         inputField.textProperty().addListener((obs, o, n) -> onSearch());
         // Không auto hiển thị toàn bộ khi khởi động
         suggestions.clear();
@@ -74,47 +81,30 @@ public class DictionaryController {
     private void onSearch() {
         String q = inputField.getText() == null ? "" : inputField.getText().trim();
         if (q.isEmpty()) {
+            suggester.cancel();
             suggestions.clear();
             runtimeTrieLabel.setText("Trie: -");
             runtimeLevenshteinLabel.setText("Lev: -");
             runtimeTfidfLabel.setText("TF-IDF: -");
             return;
         }
-        List<String> merged = new ArrayList<>();
-        DictionaryService.TimedResult<List<String>> trieRes = service.suggestByPrefix(q, 10, true);
-        runtimeTrieLabel.setText("Trie: " + trieRes.micros + " µs");
-        merged.addAll(trieRes.value);
-
-        // Chỉ thêm Levenshtein nếu input >= 2 ký tự và kết quả prefix còn ít (<5)
-        if (q.length() >= 2 && merged.size() < 5) {
-            String nq = NormalizerUtil.normalize(q);
-            int dynamicMax = nq.length() <= 3 ? 1 : 2;
-            DictionaryService.TimedResult<List<String>> levRes = service.suggestByLevenshteinFiltered(q, 10, dynamicMax);
-            runtimeLevenshteinLabel.setText("Lev: " + levRes.micros + " µs");
-            // Lọc thêm: ứng viên phải bắt đầu bằng 2 ký tự đầu (sau chuẩn hóa)
-            String firstTwo = nq.length() >= 2 ? nq.substring(0, 2) : nq;
-            for (String s : levRes.value) {
-                String ns = NormalizerUtil.normalize(s);
-                if (ns.startsWith(firstTwo) && !merged.contains(s)) merged.add(s);
-            }
-        } else {
-            runtimeLevenshteinLabel.setText("Lev: skipped");
-        }
+        // Tính ở luồng nền sau debounce; chỉ kết quả của lần gõ mới nhất được hiển thị
+        suggester.submit(q, this::showSuggestions);
+    }
 
-        // Chỉ dùng TF-IDF nếu kết quả còn ít (<5)
-        // Chỉ bật TF-IDF với truy vấn dài (>=4) và còn ít kết quả
-        if (q.length() >= 4 && merged.size() < 5) {
-            DictionaryService.TimedResult<List<DictionaryEntry>> tfidfRes = service.suggestByTfidf(q, 5);
-            runtimeTfidfLabel.setText("TF-IDF: " + tfidfRes.micros + " µs");
-            List<String> tfidfWords = tfidfRes.value.stream().map(DictionaryEntry::getWord).collect(Collectors.toList());
-            for (String s : tfidfWords) if (!merged.contains(s)) merged.add(s);
+    private void showSuggestions(SearchSession.Result res) {
+        if (res.cached) {
+            runtimeTrieLabel.setText("Trie: cached");
+            runtimeLevenshteinLabel.setText("Lev: cached");
+            runtimeTfidfLabel.setText("TF-IDF: cached");
         } else {
-            runtimeTfidfLabel.setText("TF-IDF: skipped");
+            runtimeTrieLabel.setText("Trie: " + res.trieMicros + " µs"
+                + (res.tokenMicros < 0 ? "" : " + âm tiết " + res.tokenMicros + " µs")
+                + (res.substringMicros < 0 ? "" : " + chuỗi con " + res.substringMicros + " µs"));
+            runtimeLevenshteinLabel.setText(res.levenshteinMicros < 0 ? "Lev: skipped" : "Lev: " + res.levenshteinMicros + " µs");
+            runtimeTfidfLabel.setText(res.tfidfMicros < 0 ? "TF-IDF: skipped" : "TF-IDF: " + res.tfidfMicros + " µs");
         }
-
-        // Giới hạn tổng số gợi ý
-        if (merged.size() > 10) merged = new ArrayList<>(merged.subList(0, 10));
-        suggestions.setAll(merged);
+        suggestions.setAll(res.words);
     }
 
     @FXML
@@ -135,9 +125,7 @@ public class DictionaryController {
     private void onEdit() {
         String selected = suggestionList.getSelectionModel().getSelectedItem();
         if (selected == null) { showInfo("Chọn một từ để sửa."); return; }
-        DictionaryEntry existing = service.getAllEntries().stream()
-            .filter(e -> e.getWord().equalsIgnoreCase(selected))
-            .findFirst().orElse(null);
+        DictionaryEntry existing = service.find(selected).orElse(null);
         if (existing == null) { showInfo("Không tìm thấy mục đã chọn."); return; }
         EntryForm form = new EntryForm(existing.getWord(), existing.getMeaning(), existing.getFrequency(),
             existing.getTags() == null ? "" : String.join(",", existing.getTags()));
@@ -184,8 +172,66 @@ public class DictionaryController {
         }
     }
 
+    @FXML
+    private void onImport() {
+        FileChooser chooser = jsonChooser("Nhập từ điển");
+        File file = chooser.showOpenDialog(inputField.getScene().getWindow());
+        if (file == null) return;
+        ButtonType merge = new ButtonType("Gộp");
+        ButtonType replace = new ButtonType("Thay thế");
+        Alert ask = new Alert(Alert.AlertType.CONFIRMATION, "Gộp vào từ điển hiện tại hay thay thế toàn bộ?", merge, replace, ButtonType.CANCEL);
+        Optional<ButtonType> choice = ask.showAndWait();
+        if (choice.isEmpty() || choice.get() == ButtonType.CANCEL) return;
+        boolean replaceAll = choice.get() == replace;
+        // Đọc file và dựng lại chỉ mục có thể mất vài giây với từ điển lớn: chạy ở luồng nền để UI không bị treo
+        Task<Integer> task = new Task<>() {
+            @Override
+            protected Integer call() throws IOException {
+                return service.importFrom(file, replaceAll);
+            }
+        };
+        task.setOnSucceeded(ev -> {
+            onSearch();
+            refreshTable();
+            showInfo("Đã nhập " + task.getValue() + " mục.");
+        });
+        task.setOnFailed(ev -> showError("Không thể nhập: " + task.getException().getMessage()));
+        Thread worker = new Thread(task, "dictionary-import");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @FXML
+    private void onExport() {
+        FileChooser chooser = jsonChooser("Xuất từ điển");
+        File file = chooser.showSaveDialog(inputField.getScene().getWindow());
+        if (file == null) return;
+        try {
+            service.exportTo(file);
+        } catch (IOException e) {
+            showError("Không thể xuất: " + e.getMessage());
+        }
+    }
+
+    private static FileChooser jsonChooser(String title) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("JSON", "*.json"),
+            new FileChooser.ExtensionFilter("NDJSON", "*.ndjson", "*.jsonl")
+        );
+        return chooser;
+    }
+
     @FXML
     private void onExit() {
+        suggester.close();
+        try {
+            service.close();
+        } catch (IOException e) {
+            // Lần fsync nhật ký hoặc lần ghi snapshot cuối thất bại: báo cho người dùng rồi vẫn thoát
+            showError("Không thể lưu từ điển khi thoát, các thay đổi gần nhất có thể bị mất: " + e.getMessage());
+        }
         System.exit(0);
     }
 
@@ -264,20 +310,29 @@ public class DictionaryController {
     }
 
     private void incrementFrequencyForWord(String word) {
-        try {
-            service.incrementFrequency(word);
-            refreshTable();
-        } catch (IOException e) {
-            showError("Không thể cập nhật frequency: " + e.getMessage());
+        // Chỉ tăng bộ đếm trong bộ nhớ; việc ghi đĩa do luồng nền của service đảm nhiệm
+        service.incrementFrequency(word);
+        refreshFrequencyRow(word);
+    }
+
+    /** Cập nhật cột frequency của đúng dòng chứa word (gồm cả lượt click chưa flush) thay vì nạp lại cả bảng. */
+    private void refreshFrequencyRow(String word) {
+        if (tableView == null) return;
+        DictionaryEntry entry = service.find(word).orElse(null);
+        if (entry == null) return;
+        ObservableList<DictionaryEntry> items = tableView.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            DictionaryEntry row = items.get(i);
+            if (row.getWord().equals(entry.getWord())) {
+                items.set(i, new DictionaryEntry(row.getWord(), row.getMeaning(), service.getFrequency(row.getWord()), row.getTags()));
+                return;
+            }
         }
     }
 
     private void showMeaningNotification(String word) {
         // Tìm meaning của từ
-        DictionaryEntry entry = service.getAllEntries().stream()
-            .filter(e -> e.getWord().equalsIgnoreCase(word))
-            .findFirst()
-            .orElse(null);
+        DictionaryEntry entry = service.find(word).orElse(null);
         
         if (entry == null || entry.getMeaning() == null) {
             return;
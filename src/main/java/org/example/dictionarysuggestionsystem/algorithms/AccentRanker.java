@@ -0,0 +1,107 @@
+package org.example.dictionarysuggestionsystem.algorithms;
+
+import org.example.dictionarysuggestionsystem.utils.NormalizerUtil;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Xếp lại gợi ý theo dấu người dùng đã gõ. Các engine so khớp trên dạng bỏ dấu nên "tạ" trả về cả táo lẫn
+ * tạo theo frequency; khi query có dấu, từ sai dấu ở chỗ người dùng đã gõ dấu bị đẩy xuống sau (sắp xếp ổn
+ * định, giữ thứ tự cũ giữa các từ cùng số lỗi). Ký tự không dấu trong query khớp với mọi dấu, nên gõ thiếu
+ * dấu ("ung dụng") không bị phạt. Query không dấu thì danh sách giữ nguyên.
+ * <p>
+ * Dấu được so tại chỗ query khớp trong từ: cả query là chuỗi con (tiền tố là trường hợp vị trí 0), hoặc mỗi
+ * âm tiết của query là tiền tố của một âm tiết trong từ. Từ không căn được như vậy (gợi ý gần đúng, TF-IDF)
+ * giữ nguyên vị trí; chỉ các từ căn được đổi chỗ cho nhau.
+ */
+public final class AccentRanker {
+    private static final int UNALIGNED = -1;
+
+    private AccentRanker() {}
+
+    public static List<String> rerank(String query, List<String> words) {
+        if (query == null || words.size() < 2) return words;
+        String q = fold(query.trim());
+        String nq = NormalizerUtil.normalize(q);
+        if (nq.equals(q)) return words;
+        int[] score = new int[words.size()];
+        List<Integer> slots = new ArrayList<>(score.length);
+        boolean changed = false;
+        int last = UNALIGNED;
+        for (int i = 0; i < score.length; i++) {
+            score[i] = mismatchedMarks(q, nq, fold(words.get(i)));
+            if (score[i] == UNALIGNED) continue;
+            changed |= last != UNALIGNED && score[i] < last;
+            last = score[i];
+            slots.add(i);
+        }
+        if (!changed) return words;
+        List<Integer> order = new ArrayList<>(slots);
+        order.sort((a, b) -> Integer.compare(score[a], score[b]));
+        List<String> out = new ArrayList<>(words);
+        for (int k = 0; k < slots.size(); k++) out.set(slots.get(k), words.get(order.get(k)));
+        return out;
+    }
+
+    /**
+     * Số vị trí mà query có dấu (kể cả đ) nhưng từ có ký tự khác ở chỗ tương ứng, lấy chỗ khớp ít lỗi nhất;
+     * UNALIGNED nếu query không khớp được vào từ (xem mô tả lớp). foldedQuery/foldedWord là dạng {@link #fold},
+     * normalizedQuery là dạng chuẩn hóa của foldedQuery.
+     */
+    static int mismatchedMarks(String foldedQuery, String normalizedQuery, String foldedWord) {
+        String nw = NormalizerUtil.normalize(foldedWord);
+        // Dạng chuẩn hóa phải giữ nguyên vị trí từng ký tự thì mới so được theo vị trí
+        if (nw.length() != foldedWord.length() || normalizedQuery.length() != foldedQuery.length()) return UNALIGNED;
+        int best = UNALIGNED;
+        for (int at = nw.indexOf(normalizedQuery); at >= 0; at = nw.indexOf(normalizedQuery, at + 1)) {
+            best = min(best, misses(foldedQuery, 0, normalizedQuery.length(), foldedWord, at));
+        }
+        if (best != UNALIGNED) return best;
+        int total = 0;
+        for (int i = 0; i < normalizedQuery.length(); ) {
+            if (!NormalizerUtil.isTokenChar(normalizedQuery.charAt(i))) {
+                i++;
+                continue;
+            }
+            int end = tokenEnd(normalizedQuery, i);
+            int tokenBest = UNALIGNED;
+            for (int j = 0; j < nw.length(); j = tokenEnd(nw, j) + 1) {
+                if (nw.startsWith(normalizedQuery.substring(i, end), j) && (j == 0 || !NormalizerUtil.isTokenChar(nw.charAt(j - 1)))) {
+                    tokenBest = min(tokenBest, misses(foldedQuery, i, end - i, foldedWord, j));
+                }
+            }
+            if (tokenBest == UNALIGNED) return UNALIGNED;
+            total += tokenBest;
+            i = end;
+        }
+        return total;
+    }
+
+    private static int misses(String foldedQuery, int from, int length, String foldedWord, int at) {
+        int miss = 0;
+        for (int i = 0; i < length; i++) {
+            char c = foldedQuery.charAt(from + i);
+            if (c >= 0x80 && c != foldedWord.charAt(at + i)) miss++;
+        }
+        return miss;
+    }
+
+    // Vị trí ngay sau token bắt đầu tại from (from nếu ở đó không phải ký tự token)
+    private static int tokenEnd(String s, int from) {
+        int i = from;
+        while (i < s.length() && NormalizerUtil.isTokenChar(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static int min(int best, int miss) {
+        return best == UNALIGNED || miss < best ? miss : best;
+    }
+
+    // Dạng dựng sẵn (NFC) để mỗi chữ tiếng Việt là một ký tự, so theo vị trí được
+    private static String fold(String s) {
+        return Normalizer.normalize(s.toLowerCase(Locale.ROOT), Normalizer.Form.NFC);
+    }
+}
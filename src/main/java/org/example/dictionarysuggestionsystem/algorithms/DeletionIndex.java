@@ -0,0 +1,185 @@
+package org.example.dictionarysuggestionsystem.algorithms;
+
+import org.example.dictionarysuggestionsystem.utils.NormalizerUtil;
+import org.example.dictionarysuggestionsystem.utils.PagedHashMap;
+
+import java.util.*;
+
+/**
+ * Chỉ mục xóa ký tự kiểu SymSpell: mỗi từ (đã chuẩn hóa, cắt còn prefixLength ký tự) được lập chỉ mục
+ * theo mọi biến thể xóa tối đa maxDistance ký tự. Tra cứu chỉ cần sinh biến thể của truy vấn, dò bảng băm
+ * rồi xác minh ứng viên bằng {@link Levenshtein#distanceAtMost}.
+ * Như SymSpell, việc cắt prefix có thể bỏ sót một số rất ít từ dài khi lỗi nằm ngay trong prefix.
+ * Các bucket là mảng bất biến (thay mới khi sửa) và hai bảng băm là {@link PagedHashMap} nên {@link #copy()} chỉ
+ * chép bảng trang; thêm/xóa một từ chỉ sao chép các trang chứa biến thể của nó.
+ */
+public class DeletionIndex {
+    private final int maxDistance;
+    private final int prefixLength;
+    private PagedHashMap<String, String[]> deletes = new PagedHashMap<>();
+    private PagedHashMap<String, String[]> originalsByNormalized = new PagedHashMap<>();
+
+    public DeletionIndex(int maxDistance, int prefixLength) {
+        if (maxDistance < 0) throw new IllegalArgumentException("maxDistance must be >= 0");
+        if (prefixLength <= maxDistance) throw new IllegalArgumentException("prefixLength must be > maxDistance");
+        this.maxDistance = maxDistance;
+        this.prefixLength = prefixLength;
+    }
+
+    public static DeletionIndex build(Collection<String> words, int maxDistance, int prefixLength) {
+        List<String> list = new ArrayList<>(words);
+        List<String> normalized = new ArrayList<>(list.size());
+        for (String w : list) normalized.add(w == null ? null : NormalizerUtil.normalize(w));
+        return build(list, normalized, maxDistance, prefixLength, false);
+    }
+
+    /**
+     * normalized.get(i) là dạng chuẩn hóa của words.get(i). parallel: sinh biến thể xóa của từng dạng chuẩn hóa
+     * trên ForkJoinPool chung; bước gom bucket vẫn tuần tự theo thứ tự xuất hiện nên kết quả như bản tuần tự.
+     */
+    public static DeletionIndex build(List<String> words, List<String> normalized, int maxDistance, int prefixLength, boolean parallel) {
+        DeletionIndex index = new DeletionIndex(maxDistance, prefixLength);
+        // Gom bucket bằng danh sách tạm rồi mới chuyển sang mảng để tránh sao chép mảng mỗi lần thêm
+        Map<String, List<String>> originals = new HashMap<>();
+        List<String> norms = new ArrayList<>();
+        for (int i = 0; i < words.size(); i++) {
+            String w = words.get(i);
+            if (w == null || w.isEmpty()) continue;
+            String norm = normalized.get(i);
+            List<String> o = originals.get(norm);
+            if (o == null) {
+                originals.put(norm, o = new ArrayList<>(1));
+                norms.add(norm);
+            }
+            if (!o.contains(w)) o.add(w);
+        }
+        String[][] variants = (parallel ? norms.parallelStream() : norms.stream())
+            .map(norm -> index.variants(norm).toArray(new String[0]))
+            .toArray(String[][]::new);
+        Map<String, List<String>> buckets = new HashMap<>();
+        for (int k = 0; k < variants.length; k++) {
+            String norm = norms.get(k);
+            for (String d : variants[k]) buckets.computeIfAbsent(d, x -> new ArrayList<>(2)).add(norm);
+        }
+        index.originalsByNormalized = new PagedHashMap<>(originals.size());
+        index.deletes = new PagedHashMap<>(buckets.size());
+        originals.forEach((k, v) -> index.originalsByNormalized.put(k, v.toArray(new String[0])));
+        buckets.forEach((k, v) -> index.deletes.put(k, v.toArray(new String[0])));
+        return index;
+    }
+
+    public DeletionIndex copy() {
+        DeletionIndex c = new DeletionIndex(maxDistance, prefixLength);
+        c.deletes = deletes.copy();
+        c.originalsByNormalized = originalsByNormalized.copy();
+        return c;
+    }
+
+    public int getMaxDistance() { return maxDistance; }
+    public int getPrefixLength() { return prefixLength; }
+
+    public void add(String word) {
+        if (word == null || word.isEmpty()) return;
+        String norm = NormalizerUtil.normalize(word);
+        String[] originals = originalsByNormalized.get(norm);
+        if (originals != null) {
+            if (!Arrays.asList(originals).contains(word)) originalsByNormalized.put(norm, with(originals, word));
+            return;
+        }
+        originalsByNormalized.put(norm, new String[]{word});
+        for (String d : variants(norm)) {
+            String[] bucket = deletes.get(d);
+            deletes.put(d, bucket == null ? new String[]{norm} : with(bucket, norm));
+        }
+    }
+
+    public void remove(String word) {
+        if (word == null || word.isEmpty()) return;
+        String norm = NormalizerUtil.normalize(word);
+        String[] originals = originalsByNormalized.get(norm);
+        if (originals == null || !Arrays.asList(originals).contains(word)) return;
+        if (originals.length > 1) {
+            originalsByNormalized.put(norm, without(originals, word));
+            return;
+        }
+        originalsByNormalized.remove(norm);
+        for (String d : variants(norm)) {
+            String[] bucket = deletes.get(d);
+            if (bucket == null) continue;
+            if (bucket.length == 1) deletes.remove(d);
+            else deletes.put(d, without(bucket, norm));
+        }
+    }
+
+    private static String[] with(String[] a, String s) {
+        String[] out = Arrays.copyOf(a, a.length + 1);
+        out[a.length] = s;
+        return out;
+    }
+
+    private static String[] without(String[] a, String s) {
+        List<String> out = new ArrayList<>(Arrays.asList(a));
+        out.remove(s);
+        return out.toArray(new String[0]);
+    }
+
+    /**
+     * Các từ gốc có khoảng cách (trên dạng chuẩn hóa) tới query không quá maxDist,
+     * sắp theo khoảng cách rồi theo từ.
+     */
+    public List<String> lookup(String query, int maxDist, int limit) {
+        if (query == null || limit <= 0 || maxDist < 0) return Collections.emptyList();
+        int k = Math.min(maxDist, maxDistance);
+        String q = NormalizerUtil.normalize(query);
+        Map<String, Integer> found = new HashMap<>();
+        for (String d : deleteVariants(truncate(q), k)) {
+            String[] bucket = deletes.get(d);
+            if (bucket == null) continue;
+            for (String cand : bucket) {
+                if (found.containsKey(cand)) continue;
+                found.put(cand, Levenshtein.distanceAtMost(q, cand, k));
+            }
+        }
+        List<Map.Entry<String, Integer>> matches = new ArrayList<>();
+        for (Map.Entry<String, Integer> e : found.entrySet()) {
+            if (e.getValue() <= k) matches.add(e);
+        }
+        matches.sort(Map.Entry.<String, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        List<String> out = new ArrayList<>();
+        for (Map.Entry<String, Integer> e : matches) {
+            for (String orig : originalsByNormalized.get(e.getKey())) {
+                if (out.size() >= limit) return out;
+                out.add(orig);
+            }
+        }
+        return out;
+    }
+
+    public int size() { return originalsByNormalized.size(); }
+    public int deleteKeyCount() { return deletes.size(); }
+
+    private Set<String> variants(String norm) {
+        return deleteVariants(truncate(norm), maxDistance);
+    }
+
+    private String truncate(String s) {
+        return s.length() > prefixLength ? s.substring(0, prefixLength) : s;
+    }
+
+    private static Set<String> deleteVariants(String s, int depth) {
+        Set<String> out = new HashSet<>();
+        out.add(s);
+        List<String> frontier = List.of(s);
+        for (int d = 0; d < depth; d++) {
+            List<String> next = new ArrayList<>();
+            for (String f : frontier) {
+                for (int i = 0; i < f.length(); i++) {
+                    String v = f.substring(0, i) + f.substring(i + 1);
+                    if (out.add(v)) next.add(v);
+                }
+            }
+            frontier = next;
+        }
+        return out;
+    }
+}
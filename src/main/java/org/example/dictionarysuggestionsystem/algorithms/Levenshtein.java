@@ -3,6 +3,8 @@ package org.example.dictionarysuggestionsystem.algorithms;
 public final class Levenshtein {
     private Levenshtein() {}
 
+    private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[64]);
+
     public static int distance(String a, String b) {
         if (a == null || b == null) return Integer.MAX_VALUE / 4;
         int n = a.length();
@@ -26,6 +28,102 @@ public final class Levenshtein {
         }
         return prev[m];
     }
-}
 
+    /**
+     * Khoảng cách nếu không vượt quá k, ngược lại trả về k + 1. Chỉ tính dải chéo rộng 2k + 1,
+     * loại ngay khi chênh lệch độ dài > k và dừng sớm khi giá trị nhỏ nhất của hàng > k. k phải >= 0.
+     */
+    public static int distanceAtMost(String a, String b, int k) {
+        if (k < 0) throw new IllegalArgumentException("k must be non-negative: " + k);
+        if (a == null || b == null) return k + 1;
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > k) return k + 1;
+        if (n == 0) return m;
+        if (m == 0) return n;
+        int inf = k + 1;
+        int width = m + 2;
+        int[] buf = SCRATCH.get();
+        if (buf.length < 2 * width) {
+            buf = new int[Math.max(2 * width, buf.length * 2)];
+            SCRATCH.set(buf);
+        }
+        int prev = 0, cur = width;
+        for (int j = 0; j <= m + 1; j++) buf[prev + j] = j <= k ? j : inf;
+        for (int i = 1; i <= n; i++) {
+            int lo = Math.max(1, i - k);
+            int hi = Math.min(m, i + k);
+            buf[cur] = i <= k ? i : inf;
+            if (lo > 1) buf[cur + lo - 1] = inf;
+            int rowMin = buf[cur];
+            char ca = a.charAt(i - 1);
+            for (int j = lo; j <= hi; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                int v = Math.min(Math.min(buf[cur + j - 1] + 1, buf[prev + j] + 1), buf[prev + j - 1] + cost);
+                if (v > inf) v = inf;
+                buf[cur + j] = v;
+                if (v < rowMin) rowMin = v;
+            }
+            buf[cur + hi + 1] = inf;
+            if (rowMin > k) return inf;
+            int tmp = prev; prev = cur; cur = tmp;
+        }
+        return Math.min(buf[prev + m], inf);
+    }
+
+    /**
+     * Thuật toán bit-parallel Myers/Hyyrö: mỗi ký tự của chuỗi dài hơn xử lý 64 ô DP bằng vài phép
+     * toán trên long. Dùng được khi chuỗi ngắn hơn có tối đa 64 ký tự, ngược lại quay về {@link #distance}.
+     */
+    public static int distanceBitParallel(String a, String b) {
+        if (a == null || b == null) return Integer.MAX_VALUE / 4;
+        String p = a.length() <= b.length() ? a : b;
+        String t = p == a ? b : a;
+        int m = p.length();
+        if (m == 0) return t.length();
+        if (m > 64) return distance(a, b);
+        long[] peqLatin = new long[256];
+        char[] otherChars = new char[m];
+        long[] otherMasks = new long[m];
+        int others = 0;
+        for (int i = 0; i < m; i++) {
+            char c = p.charAt(i);
+            if (c < 256) {
+                peqLatin[c] |= 1L << i;
+            } else {
+                int idx = indexOf(otherChars, others, c);
+                if (idx < 0) { idx = others++; otherChars[idx] = c; }
+                otherMasks[idx] |= 1L << i;
+            }
+        }
+        long last = 1L << (m - 1);
+        long pv = -1L, mv = 0L;
+        int score = m;
+        for (int j = 0; j < t.length(); j++) {
+            char c = t.charAt(j);
+            long eq;
+            if (c < 256) {
+                eq = peqLatin[c];
+            } else {
+                int idx = indexOf(otherChars, others, c);
+                eq = idx < 0 ? 0L : otherMasks[idx];
+            }
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & last) != 0) score++;
+            if ((mh & last) != 0) score--;
+            ph = (ph << 1) | 1L;
+            mh = mh << 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+        }
+        return score;
+    }
 
+    private static int indexOf(char[] chars, int size, char c) {
+        for (int i = 0; i < size; i++) if (chars[i] == c) return i;
+        return -1;
+    }
+}
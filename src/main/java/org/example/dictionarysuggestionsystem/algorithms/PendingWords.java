@@ -0,0 +1,60 @@
+package org.example.dictionarysuggestionsystem.algorithms;
+
+import java.util.BitSet;
+
+/**
+ * Các từ thêm sau lần dựng {@link SubstringIndex}/{@link TokenIndex}, chỉ nối thêm. Mọi phiên bản chỉ mục dùng
+ * chung một bộ đệm, mỗi bản chỉ đọc count phần tử đầu của nó. Bên ghi nối tại chỗ khi nó đang sửa phiên bản mới
+ * nhất (count bằng số ô đã ghi) và còn chỗ, nên thêm một từ là O(1); hết chỗ hoặc sửa một phiên bản cũ thì sao
+ * sang bộ đệm mới gấp đôi. Mảng là final và ô đã ghi không bao giờ đổi nên bên đọc phiên bản cũ không bị ảnh
+ * hưởng. Chỉ một luồng ghi.
+ */
+final class PendingWords<T> {
+    private static final PendingWords<?> EMPTY = new PendingWords<>(0, new BitSet());
+
+    private final int[] ids;
+    private final Object[] values;
+    // Chỉ bên ghi đọc: số ô đã ghi và tập id của chúng
+    private int written;
+    private final BitSet seen;
+
+    private PendingWords(int capacity, BitSet seen) {
+        this.ids = new int[capacity];
+        this.values = new Object[capacity];
+        this.seen = seen;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> PendingWords<T> empty() {
+        return (PendingWords<T>) EMPTY;
+    }
+
+    /** Bộ đệm có count phần tử đầu của bộ đệm này rồi tới (id, value); phần tử mới nằm ở vị trí count. */
+    PendingWords<T> append(int count, int id, T value) {
+        PendingWords<T> target = this;
+        if (count != written || count == ids.length) {
+            target = new PendingWords<>(Math.max(16, count * 2), new BitSet());
+            System.arraycopy(ids, 0, target.ids, 0, count);
+            System.arraycopy(values, 0, target.values, 0, count);
+            for (int i = 0; i < count; i++) target.seen.set(ids[i]);
+            target.written = count;
+        }
+        target.ids[count] = id;
+        target.values[count] = value;
+        target.seen.set(id);
+        target.written++;
+        return target;
+    }
+
+    /** Id có trong count phần tử đầu không; O(1) khi count là phiên bản mới nhất. */
+    boolean contains(int count, int id) {
+        if (count == written) return seen.get(id);
+        for (int i = 0; i < count; i++) if (ids[i] == id) return true;
+        return false;
+    }
+
+    int id(int i) { return ids[i]; }
+
+    @SuppressWarnings("unchecked")
+    T value(int i) { return (T) values[i]; }
+}
@@ -0,0 +1,256 @@
+package org.example.dictionarysuggestionsystem.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Tìm từ chứa một chuỗi con ("dung" -> ứng dụng, áp dụng) bằng mảng hậu tố trên văn bản ghép các dạng chuẩn
+ * hóa. Sau mỗi từ là SEPARATOR rồi độ dài và id của từ (3 ký tự), nên từ một lần xuất hiện chỉ cần đọc tiếp
+ * tới SEPARATOR là ra từ chứa nó, không phải tìm nhị phân. Hậu tố chỉ so đến SEPARATOR nên không khớp vắt
+ * qua hai từ. Tìm khoảng hậu tố bắt đầu bằng query mất O(|query| log N), sau đó O(độ dài từ) cho mỗi lần
+ * xuất hiện. Bộ nhớ: văn bản (2 byte/ký tự) + mảng hậu tố (4 byte/ký tự) + 12 byte mỗi từ. Từ dài hơn
+ * MAX_WORD_LENGTH chỉ được lập chỉ mục phần đầu.
+ * <p>
+ * Từ được nhận diện bằng id do bên gọi cấp (id của EntryStore); frequency và việc từ còn sống hay đã xóa do
+ * bên gọi trả lời lúc tìm, nên sửa/xóa không phải đụng tới chỉ mục. Từ thêm sau khi dựng nằm trong một
+ * danh sách phụ chỉ nối thêm ({@link #withWord}), quét tuyến tính cho đến lần dựng lại.
+ */
+public final class SubstringIndex {
+    private static final char SEPARATOR = '\u0000';
+    // SEPARATOR, độ dài, 16 bit cao và 16 bit thấp của id
+    private static final int TRAILER = 4;
+    private static final int MAX_WORD_LENGTH = Character.MAX_VALUE;
+    // Đoạn nhỏ hơn thì sắp xếp chèn
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final char[] text;
+    // Vị trí bắt đầu các hậu tố (chỉ ký tự của từ), xếp theo thứ tự hậu tố
+    private final int[] suffixes;
+    // Các id đã lập chỉ mục, tăng dần
+    private final int[] ids;
+    // Từ thêm sau khi dựng (dạng chuẩn hóa): pendingCount phần tử đầu của pending
+    private final PendingWords<String> pending;
+    private final int pendingCount;
+
+    private SubstringIndex(char[] text, int[] suffixes, int[] ids, PendingWords<String> pending, int pendingCount) {
+        this.text = text;
+        this.suffixes = suffixes;
+        this.ids = ids;
+        this.pending = pending;
+        this.pendingCount = pendingCount;
+    }
+
+    public static SubstringIndex empty() {
+        return new SubstringIndex(new char[0], new int[0], new int[0], PendingWords.empty(), 0);
+    }
+
+    /**
+     * normalized[id] là dạng chuẩn hóa của từ có id đó (null nếu không có). parallel: hậu tố được chia theo
+     * ký tự đầu rồi mỗi nhóm được sắp xếp trên ForkJoinPool chung.
+     */
+    public static SubstringIndex build(String[] normalized, boolean parallel) {
+        int words = 0;
+        long chars = 0;
+        for (String n : normalized) {
+            if (n == null || n.isEmpty()) continue;
+            words++;
+            chars += Math.min(n.length(), MAX_WORD_LENGTH) + TRAILER;
+        }
+        if (chars > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Text too large: " + chars + " chars");
+        char[] text = new char[(int) chars];
+        int[] ids = new int[words];
+        int[] bucketStart = new int[Character.MAX_VALUE + 2];
+        int pos = 0;
+        int w = 0;
+        for (int id = 0; id < normalized.length; id++) {
+            String n = normalized[id];
+            if (n == null || n.isEmpty()) continue;
+            int len = Math.min(n.length(), MAX_WORD_LENGTH);
+            ids[w++] = id;
+            n.getChars(0, len, text, pos);
+            for (int i = 0; i < len; i++) bucketStart[text[pos + i] + 1]++;
+            pos += len;
+            text[pos++] = SEPARATOR;
+            text[pos++] = (char) len;
+            text[pos++] = (char) (id >>> 16);
+            text[pos++] = (char) id;
+        }
+        // Phân phối hậu tố theo ký tự đầu (counting sort) để mỗi nhóm sắp xếp độc lập từ ký tự thứ hai
+        for (int c = 1; c < bucketStart.length; c++) bucketStart[c] += bucketStart[c - 1];
+        int[] suffixes = new int[(int) (chars - (long) words * TRAILER)];
+        int[] fill = Arrays.copyOf(bucketStart, bucketStart.length - 1);
+        for (int i = 0; i < text.length; i++) {
+            if (text[i] != SEPARATOR) suffixes[fill[text[i]]++] = i;
+            else i += TRAILER - 1;
+        }
+        IntStream buckets = IntStream.range(0, Character.MAX_VALUE + 1)
+            .filter(c -> bucketStart[c + 1] - bucketStart[c] > 1);
+        (parallel ? buckets.parallel() : buckets).forEach(c -> sort(text, suffixes, bucketStart[c], bucketStart[c + 1], 1));
+        return new SubstringIndex(text, suffixes, ids, PendingWords.empty(), 0);
+    }
+
+    /**
+     * Phiên bản có thêm từ id (dạng chuẩn hóa normalized) nếu chỉ mục chưa có id đó. O(1) (cộng O(log N) tra
+     * phần đã dựng): danh sách phụ được nối tại chỗ, không sao chép (xem {@link PendingWords}).
+     */
+    public SubstringIndex withWord(int id, String normalized) {
+        if (normalized == null || normalized.isEmpty() || Arrays.binarySearch(ids, id) >= 0
+            || pending.contains(pendingCount, id)) return this;
+        return new SubstringIndex(text, suffixes, ids, pending.append(pendingCount, id, normalized), pendingCount + 1);
+    }
+
+    /** Số từ trong phần đã dựng. */
+    public int size() { return ids.length; }
+
+    /** Số từ thêm sau khi dựng, đang được quét tuyến tính. */
+    public int pendingSize() { return pendingCount; }
+
+    /**
+     * Tối đa k id của các từ chứa normalizedQuery, xếp theo frequency giảm dần (bằng nhau thì id nhỏ trước).
+     * frequency trả về Long.MIN_VALUE cho id đã xóa; id đó bị bỏ qua. Mỗi từ chỉ được tính một lần dù chứa
+     * query nhiều lần.
+     */
+    public int[] search(String normalizedQuery, int k, IntToLongFunction frequency) {
+        if (normalizedQuery == null || normalizedQuery.isEmpty() || k <= 0) return new int[0];
+        int lo = lowerBound(normalizedQuery, false);
+        int hi = lowerBound(normalizedQuery, true);
+        TopK top = new TopK((int) Math.min(k, (long) hi - lo + pendingCount));
+        for (int i = lo; i < hi; i++) {
+            int p = suffixes[i];
+            int end = p + normalizedQuery.length();
+            while (text[end] != SEPARATOR) end++;
+            // Chỉ lấy lần xuất hiện đầu tiên trong từ để không đếm trùng
+            if (occursBefore(normalizedQuery, end - text[end + 1], p)) continue;
+            int id = text[end + 2] << 16 | text[end + 3];
+            top.offer(id, frequency.applyAsLong(id));
+        }
+        // Danh sách phụ được giữ ngắn (bên gọi dựng lại khi nó đủ dài) nên quét tuyến tính
+        for (int e = 0; e < pendingCount; e++) {
+            if (pending.value(e).contains(normalizedQuery)) top.offer(pending.id(e), frequency.applyAsLong(pending.id(e)));
+        }
+        return top.drain();
+    }
+
+    /** Các id chứa normalizedQuery theo thứ tự id (không xếp hạng, không lọc id đã xóa); dùng cho kiểm thử. */
+    List<Integer> matchingIds(String normalizedQuery) {
+        int[] all = search(normalizedQuery, Integer.MAX_VALUE, id -> 0);
+        List<Integer> out = new ArrayList<>(all.length);
+        for (int id : all) out.add(id);
+        out.sort(null);
+        return out;
+    }
+
+    public long footprintBytes() {
+        return (long) text.length * Character.BYTES + (long) suffixes.length * Integer.BYTES
+            + (long) ids.length * Integer.BYTES;
+    }
+
+    // Vị trí đầu tiên có hậu tố >= q (upper: > q) khi chỉ so |q| ký tự đầu
+    private int lowerBound(String q, boolean upper) {
+        int lo = 0, hi = suffixes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = comparePrefix(suffixes[mid], q);
+            if (c < 0 || (upper && c == 0)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private int comparePrefix(int p, String q) {
+        for (int i = 0; i < q.length(); i++) {
+            char a = text[p + i];
+            char b = q.charAt(i);
+            // Hết từ (SEPARATOR) luôn nhỏ hơn ký tự của query
+            if (a != b) return a < b ? -1 : 1;
+        }
+        return 0;
+    }
+
+    private boolean occursBefore(String q, int from, int p) {
+        for (int s = from; s < p; s++) {
+            int i = 0;
+            while (i < q.length() && text[s + i] == q.charAt(i)) i++;
+            if (i == q.length()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Multikey quicksort (Bentley–Sedgewick) các hậu tố trong [from, to) đã trùng nhau depth ký tự đầu. Chỉ
+     * đệ quy vào hai phần nhỏ hơn (mỗi phần không quá nửa đoạn) và lặp trên phần lớn nhất, nên độ sâu đệ quy
+     * là O(log n) kể cả khi một ký tự lặp lại rất dài (phần bằng pivot đi sâu thêm một ký tự mỗi vòng).
+     */
+    private static void sort(char[] text, int[] a, int from, int to, int depth) {
+        while (to - from > 1) {
+            if (to - from < INSERTION_SORT_THRESHOLD) {
+                insertionSort(text, a, from, to, depth);
+                return;
+            }
+            char pivot = median(at(text, a[from], depth), at(text, a[(from + to) >>> 1], depth), at(text, a[to - 1], depth));
+            // [from, lt) < pivot, [lt, gt) == pivot, [gt, to) > pivot
+            int lt = from, gt = to, i = from;
+            while (i < gt) {
+                char c = at(text, a[i], depth);
+                if (c < pivot) swap(a, lt++, i++);
+                else if (c > pivot) swap(a, i, --gt);
+                else i++;
+            }
+            int less = lt - from;
+            // Các hậu tố cùng hết từ ở đây là bằng nhau, thứ tự giữa chúng không quan trọng
+            int equal = pivot == SEPARATOR ? 0 : gt - lt;
+            int greater = to - gt;
+            if (equal > 0 && equal >= less && equal >= greater) {
+                sort(text, a, from, lt, depth);
+                sort(text, a, gt, to, depth);
+                from = lt;
+                to = gt;
+                depth++;
+            } else if (less >= greater) {
+                if (equal > 1) sort(text, a, lt, gt, depth + 1);
+                sort(text, a, gt, to, depth);
+                to = lt;
+            } else {
+                sort(text, a, from, lt, depth);
+                if (equal > 1) sort(text, a, lt, gt, depth + 1);
+                from = gt;
+            }
+        }
+    }
+
+    private static void insertionSort(char[] text, int[] a, int from, int to, int depth) {
+        for (int i = from + 1; i < to; i++) {
+            int v = a[i];
+            int j = i;
+            while (j > from && compareFrom(text, a[j - 1], v, depth) > 0) {
+                a[j] = a[j - 1];
+                j--;
+            }
+            a[j] = v;
+        }
+    }
+
+    private static int compareFrom(char[] text, int x, int y, int depth) {
+        for (int d = depth; ; d++) {
+            char a = text[x + d];
+            char b = text[y + d];
+            if (a != b) return a < b ? -1 : 1;
+            if (a == SEPARATOR) return 0;
+        }
+    }
+
+    private static char at(char[] text, int p, int depth) {
+        return text[p + depth];
+    }
+
+    private static char median(char a, char b, char c) {
+        return (char) (a < b ? (b < c ? b : Math.max(a, c)) : (a < c ? a : Math.max(b, c)));
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i]; a[i] = a[j]; a[j] = t;
+    }
+}
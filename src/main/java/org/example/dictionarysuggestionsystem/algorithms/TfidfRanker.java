@@ -1,96 +1,637 @@
 package org.example.dictionarysuggestionsystem.algorithms;
 
 import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.example.dictionarysuggestionsystem.utils.BinaryIO;
 import org.example.dictionarysuggestionsystem.utils.NormalizerUtil;
+import org.example.dictionarysuggestionsystem.utils.PagedArray;
+import org.example.dictionarysuggestionsystem.utils.PagedHashMap;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.function.IntFunction;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+/**
+ * Xếp hạng TF-IDF trên chỉ mục ngược token -> postings (docId, tf) được dựng một lần khi nạp
+ * và cập nhật tăng dần khi thêm/xóa/sửa. Truy vấn chỉ duyệt postings của các token trong truy vấn
+ * và dùng WAND để bỏ qua các tài liệu không thể lọt vào top-K.
+ * Không đồng bộ hóa: một luồng ghi, nhiều luồng chỉ đọc sau khi bản đã được công bố;
+ * {@link #copy()} chỉ chép bảng trang của chỉ mục và bảng tài liệu ({@link PagedArray}) và dùng chung postings.
+ * Lần đầu một bản sao sửa postings của một token, nó chép bảng khối của postings đó (df / 64 tham chiếu); sau đó
+ * mỗi lần thêm/xóa chỉ chép khối 64 posting nó chạm tới. Thêm/xóa một tài liệu vì thế tốn O(df / 64 + 64) cho mỗi
+ * token của nó, cộng chi phí dồn bia mộ chia đều, chứ không chép lại cả postings.
+ */
 public class TfidfRanker {
-    public List<DictionaryEntry> rankByQuery(String query, List<DictionaryEntry> docs, int limit) {
-        if (query == null || query.isBlank()) return Collections.emptyList();
-        String[] terms = tokenize(query);
-        Map<String, Integer> df = computeDocumentFrequency(terms, docs);
-        int N = docs.size();
-        List<ScoredEntry> scored = new ArrayList<>();
-        for (DictionaryEntry e : docs) {
-            double score = 0.0;
-            Map<String, Integer> tf = termFreq(terms, e);
-            for (String t : terms) {
-                int tfVal = tf.getOrDefault(t, 0);
-                int dfVal = Math.max(1, df.getOrDefault(t, 0));
-                double idf = Math.log((N + 1.0) / (dfVal + 1.0)) + 1.0;
-                score += tfVal * idf;
-            }
-            scored.add(new ScoredEntry(e, score));
-        }
-        return scored.stream()
-            .filter(s -> s.score > 0.0)
-            .sorted(Comparator.comparingDouble((ScoredEntry s) -> s.score).reversed())
-            .limit(limit)
-            .map(s -> s.entry)
-            .collect(Collectors.toList());
-    }
-
-    private Map<String, Integer> computeDocumentFrequency(String[] terms, List<DictionaryEntry> docs) {
-        Map<String, Integer> df = new HashMap<>();
-        for (DictionaryEntry e : docs) {
-            Set<String> seen = new HashSet<>();
-            for (String t : terms) {
-                if (containsToken(e, t) && seen.add(t)) {
-                    df.merge(t, 1, Integer::sum);
+    private static final int BUILD_CHUNK = 4096;
+    private PagedHashMap<String, Postings> index = new PagedHashMap<>();
+    // docs.get(docId) với docId < docCount, null nếu tài liệu đã xóa
+    private PagedArray.Refs<DictionaryEntry> docs = new PagedArray.Refs<>(0);
+    private int docCount;
+    // Chỉ cần khi sửa đổi; bản nạp từ snapshot nhị phân dựng bảng này lần đầu có thay đổi
+    private PagedHashMap<String, Integer> docIdByWord = new PagedHashMap<>();
+    private int liveDocs;
+    // Postings có owner trùng token này thuộc riêng bản này, sửa tại chỗ được; mỗi bản sao có token riêng
+    private final Owner owner = new Owner();
+
+    public TfidfRanker() {}
+
+    public TfidfRanker(List<DictionaryEntry> entries) {
+        index(entries);
+    }
+
+    public TfidfRanker copy() {
+        TfidfRanker c = new TfidfRanker();
+        c.index = index.copy();
+        c.docs = docs.copy();
+        c.docCount = docCount;
+        c.docIdByWord = docIdByWord == null ? null : docIdByWord.copy();
+        c.liveDocs = liveDocs;
+        return c;
+    }
+
+    /**
+     * Ghi chỉ mục ngược để {@link #readFrom} nạp lại mà không phải tách token; docId được đánh lại liên tục
+     * (bỏ các ô của tài liệu đã xóa, thứ tự giữ nguyên nên postings vẫn tăng dần). Tài liệu được ghi bằng chỉ số
+     * trong bảng entry, token bằng chỉ số trong bảng chuỗi.
+     */
+    public void writeTo(DataOutput out, ToIntFunction<DictionaryEntry> entryIds, ToIntFunction<String> strings) throws IOException {
+        int[] dense = new int[docCount];
+        int live = 0;
+        for (int docId = 0; docId < dense.length; docId++) dense[docId] = docs.get(docId) == null ? -1 : live++;
+        out.writeInt(live);
+        for (int docId = 0; docId < docCount; docId++) {
+            DictionaryEntry e = docs.get(docId);
+            if (e != null) out.writeInt(entryIds.applyAsInt(e));
+        }
+        out.writeInt(index.size());
+        int[] renumbered = new int[0];
+        int[] tfs = new int[0];
+        int[] blockMaxTf = new int[0];
+        for (int slot = 0; slot < index.slots(); slot++) {
+            String term = index.keyAt(slot);
+            if (term == null) continue;
+            Postings p = index.valueAt(slot);
+            // Bỏ bia mộ: tệp chỉ chứa posting còn sống nên cận trên theo khối được tính lại trên dãy đã dồn
+            if (renumbered.length < p.size) {
+                renumbered = new int[Math.max(p.size, renumbered.length * 2)];
+                tfs = new int[renumbered.length];
+                blockMaxTf = new int[(renumbered.length + Postings.MASK) >>> Postings.SHIFT];
+            }
+            int k = 0;
+            int maxTf = 0;
+            for (int i = 0; i < p.length; i++) {
+                int tf = p.tf(i);
+                if (tf == 0) continue;
+                if ((k & Postings.MASK) == 0) blockMaxTf[k >>> Postings.SHIFT] = 0;
+                blockMaxTf[k >>> Postings.SHIFT] = Math.max(blockMaxTf[k >>> Postings.SHIFT], tf);
+                maxTf = Math.max(maxTf, tf);
+                renumbered[k] = dense[p.docId(i)];
+                tfs[k++] = tf;
+            }
+            out.writeInt(strings.applyAsInt(term));
+            out.writeInt(k);
+            out.writeInt(maxTf);
+            BinaryIO.writeInts(out, renumbered, k);
+            BinaryIO.writeInts(out, tfs, k);
+            BinaryIO.writeInts(out, blockMaxTf, (k + Postings.MASK) >>> Postings.SHIFT);
+        }
+    }
+
+    public static TfidfRanker readFrom(ByteBuffer in, IntFunction<DictionaryEntry> entries, IntFunction<String> strings) {
+        TfidfRanker r = new TfidfRanker();
+        int docCount = in.getInt();
+        r.docIdByWord = null;
+        r.docs = new PagedArray.Refs<>(docCount);
+        r.docCount = docCount;
+        for (int docId = 0; docId < docCount; docId++) {
+            int id = in.getInt();
+            DictionaryEntry e = id < 0 ? null : entries.apply(id);
+            r.docs.set(docId, e);
+            if (e != null) r.liveDocs++;
+        }
+        int terms = in.getInt();
+        r.index = new PagedHashMap<>(terms);
+        for (int i = 0; i < terms; i++) {
+            String term = strings.apply(in.getInt());
+            int size = in.getInt();
+            in.getInt();
+            int[] docIds = BinaryIO.readInts(in, size, size);
+            int[] tfs = BinaryIO.readInts(in, size, size);
+            // maxTf và cận trên theo khối được append tính lại; bỏ qua bản đã ghi
+            in.position(in.position() + ((size + Postings.MASK) >>> Postings.SHIFT) * Integer.BYTES);
+            Postings p = new Postings(r.owner);
+            for (int j = 0; j < size; j++) p.append(docIds[j], tfs[j]);
+            r.index.put(term, p);
+        }
+        return r;
+    }
+
+    /**
+     * Dựng chỉ mục một lượt, cho cùng kết quả như {@link #index} (add lần lượt): docId theo thứ tự entries,
+     * entry trùng word thì bản sau thay bản trước. parallel: mỗi khối tài liệu được tách token và đảo chỉ mục
+     * riêng trên ForkJoinPool chung (postings cục bộ, chia phần theo băm token), sau đó mỗi phần nối postings
+     * của các khối theo thứ tự docId.
+     */
+    public static TfidfRanker build(List<DictionaryEntry> entries, boolean parallel) {
+        TfidfRanker r = new TfidfRanker();
+        r.docIdByWord = new PagedHashMap<>(entries.size());
+        r.docs = new PagedArray.Refs<>(entries.size());
+        for (DictionaryEntry e : entries) {
+            if (e == null || e.getWord() == null) continue;
+            Integer previous = r.docIdByWord.put(wordKey(e.getWord()), r.docCount);
+            if (previous != null) r.docs.set(previous, null);
+            r.docs.set(r.docCount++, e);
+        }
+        r.liveDocs = r.docIdByWord.size();
+        int n = r.docCount;
+        int parts = parallel ? Math.max(1, Integer.highestOneBit(ForkJoinPool.getCommonPoolParallelism()) * 4) : 1;
+        int chunkSize = Math.max(BUILD_CHUNK, (n + parts - 1) / parts);
+        int chunks = Math.max(1, (n + chunkSize - 1) / chunkSize);
+        // local.get(c).get(p): postings của các token thuộc phần p trong khối tài liệu c
+        IntStream chunkIds = IntStream.range(0, chunks);
+        List<List<Map<String, Postings>>> local = (parallel ? chunkIds.parallel() : chunkIds).mapToObj(c -> {
+            List<Map<String, Postings>> byPart = new ArrayList<>(parts);
+            for (int p = 0; p < parts; p++) byPart.add(new HashMap<>());
+            for (int d = c * chunkSize, end = Math.min(n, d + chunkSize); d < end; d++) {
+                DictionaryEntry e = r.docs.get(d);
+                if (e == null) continue;
+                for (Map.Entry<String, Integer> t : documentTermFreq(e).entrySet()) {
+                    byPart.get(part(t.getKey(), parts)).computeIfAbsent(t.getKey(), k -> new Postings(r.owner)).append(d, t.getValue());
                 }
             }
+            return byPart;
+        }).collect(Collectors.toList());
+        IntStream partIds = IntStream.range(0, parts);
+        List<Map<String, Postings>> merged = (parallel ? partIds.parallel() : partIds).mapToObj(p -> {
+            Map<String, Postings> out = new HashMap<>();
+            for (List<Map<String, Postings>> chunk : local) {
+                for (Map.Entry<String, Postings> t : chunk.get(p).entrySet()) {
+                    Postings target = out.putIfAbsent(t.getKey(), t.getValue());
+                    if (target != null) target.appendAll(t.getValue());
+                }
+            }
+            return out;
+        }).collect(Collectors.toList());
+        int terms = 0;
+        for (Map<String, Postings> m : merged) terms += m.size();
+        r.index = new PagedHashMap<>(terms);
+        for (Map<String, Postings> m : merged) m.forEach(r.index::put);
+        return r;
+    }
+
+    private static int part(String term, int parts) {
+        int h = term.hashCode();
+        return ((h ^ (h >>> 16)) & 0x7fffffff) % parts;
+    }
+
+    /** Dựng lại toàn bộ chỉ mục (docId được đánh lại liên tục từ 0). */
+    public void index(List<DictionaryEntry> entries) {
+        index = new PagedHashMap<>();
+        docs = new PagedArray.Refs<>(entries.size());
+        docCount = 0;
+        docIdByWord = new PagedHashMap<>(entries.size());
+        liveDocs = 0;
+        for (DictionaryEntry e : entries) add(e);
+    }
+
+    /** Thêm hoặc thay thế entry có cùng word (không phân biệt hoa thường). */
+    public void add(DictionaryEntry e) {
+        if (e == null || e.getWord() == null) return;
+        remove(e.getWord());
+        int docId = docCount++;
+        docs.ensureCapacity(docCount);
+        docs.set(docId, e);
+        docIdByWord().put(wordKey(e.getWord()), docId);
+        liveDocs++;
+        for (Map.Entry<String, Integer> t : documentTermFreq(e).entrySet()) {
+            owned(t.getKey(), true).append(docId, t.getValue());
         }
-        return df;
     }
 
-    private Map<String, Integer> termFreq(String[] terms, DictionaryEntry e) {
-        Map<String, Integer> tf = new HashMap<>();
-        for (String t : terms) {
-            int count = countToken(e, t);
-            if (count > 0) tf.put(t, count);
+    public void remove(String word) {
+        if (word == null) return;
+        Integer docId = docIdByWord().remove(wordKey(word));
+        if (docId == null) return;
+        liveDocs--;
+        DictionaryEntry e = docs.get(docId);
+        docs.set(docId, null);
+        for (String term : documentTermFreq(e).keySet()) {
+            Postings p = owned(term, false);
+            if (p == null) continue;
+            p.remove(docId);
+            if (p.size == 0) index.remove(term);
         }
-        return tf;
     }
 
-    private boolean containsToken(DictionaryEntry e, String t) {
-        return countToken(e, t) > 0;
+    /**
+     * Thay entry cùng word bằng e ngay trên docId cũ, không động tới postings; chỉ dùng khi e chỉ khác entry cũ ở
+     * frequency (không ảnh hưởng điểm). Như các thao tác sửa khác, chỉ gọi trên bản chưa công bố (sau
+     * {@link #copy()}); chỉ trang chứa docId bị sao chép. Trả về false nếu word chưa có.
+     */
+    public boolean replaceDocument(DictionaryEntry e) {
+        if (e == null || e.getWord() == null) return false;
+        Integer docId = docIdByWord().get(wordKey(e.getWord()));
+        if (docId == null) return false;
+        docs.set(docId, e);
+        return true;
+    }
+
+    public int size() { return liveDocs; }
+
+    /** Tổng số ô posting bản này đã phải sao chép (bảng khối, khối, dồn bia mộ); dùng trong kiểm thử. */
+    long copiedSlots() { return owner.copiedSlots; }
+
+    private PagedHashMap<String, Integer> docIdByWord() {
+        if (docIdByWord == null) {
+            docIdByWord = new PagedHashMap<>(liveDocs);
+            for (int docId = 0; docId < docCount; docId++) {
+                DictionaryEntry e = docs.get(docId);
+                if (e != null) docIdByWord.put(wordKey(e.getWord()), docId);
+            }
+        }
+        return docIdByWord;
+    }
+
+    /**
+     * Top-K theo Block-Max WAND: mỗi token có cận trên điểm = maxTf * idf và cận trên theo từng khối
+     * postings; chỉ tài liệu mà tổng cận trên của các token trỏ tới nó vượt ngưỡng của heap mới được
+     * tính điểm đầy đủ, các khối không thể vượt ngưỡng bị nhảy qua cả khối.
+     */
+    public List<DictionaryEntry> rankByQuery(String query, int limit) {
+        if (query == null || query.isBlank() || limit <= 0) return Collections.emptyList();
+        Map<String, Integer> terms = queryTerms(query);
+        int n = liveDocs;
+        List<Cursor> cursors = new ArrayList<>();
+        for (Map.Entry<String, Integer> t : terms.entrySet()) {
+            Postings p = index.get(t.getKey());
+            if (p == null || p.size == 0) continue;
+            cursors.add(new Cursor(p, idf(n, p.size) * t.getValue()));
+        }
+        // Thứ tự cố định để cộng điểm giống hệt cách tính vét cạn
+        Cursor[] byTerm = cursors.toArray(new Cursor[0]);
+        Cursor[] sorted = byTerm.clone();
+        PriorityQueue<ScoredEntry> heap = new PriorityQueue<>(Comparator.reverseOrder());
+        double threshold = 0.0;
+        int live = sorted.length;
+        while (true) {
+            sortByDoc(sorted, live);
+            while (live > 0 && sorted[live - 1].exhausted()) live--;
+            if (live == 0) break;
+            double acc = 0.0;
+            int pivot = -1;
+            for (int i = 0; i < live; i++) {
+                acc += sorted[i].upperBound;
+                // Nới nhẹ ngưỡng để sai số làm tròn khi cộng cận trên không loại nhầm tài liệu
+                if (acc * (1 + 1e-12) > threshold) { pivot = i; break; }
+            }
+            if (pivot < 0) break;
+            int pivotDoc = sorted[pivot].doc();
+            while (pivot + 1 < live && sorted[pivot + 1].doc() == pivotDoc) pivot++;
+            double blockBound = 0.0;
+            for (int i = 0; i <= pivot; i++) blockBound += sorted[i].blockUpperBound(pivotDoc);
+            if (blockBound * (1 + 1e-12) <= threshold) {
+                int next = pivot + 1 < live ? sorted[pivot + 1].doc() : Integer.MAX_VALUE;
+                for (int i = 0; i <= pivot; i++) next = Math.min(next, sorted[i].blockLastDoc(pivotDoc) + 1);
+                if (next <= pivotDoc) next = pivotDoc + 1;
+                for (int i = 0; i <= pivot; i++) sorted[i].advanceTo(next);
+            } else if (sorted[0].doc() == pivotDoc) {
+                double score = 0.0;
+                for (Cursor c : byTerm) {
+                    if (!c.exhausted() && c.doc() == pivotDoc) score += c.tf() * c.weight;
+                }
+                for (int i = 0; i <= pivot; i++) sorted[i].next();
+                if (score > threshold || heap.size() < limit) {
+                    heap.add(new ScoredEntry(pivotDoc, score));
+                    if (heap.size() > limit) heap.poll();
+                    if (heap.size() == limit) threshold = heap.peek().score;
+                }
+            } else {
+                for (int i = 0; i < pivot; i++) sorted[i].advanceTo(pivotDoc);
+            }
+        }
+        return toEntries(heap);
+    }
+
+    private static void sortByDoc(Cursor[] cursors, int live) {
+        // Sắp chèn: sau mỗi bước các cursor gần như đã có thứ tự
+        for (int i = 1; i < live; i++) {
+            Cursor c = cursors[i];
+            int d = c.doc();
+            int j = i - 1;
+            while (j >= 0 && cursors[j].doc() > d) {
+                cursors[j + 1] = cursors[j];
+                j--;
+            }
+            cursors[j + 1] = c;
+        }
+    }
+
+    /** Tính điểm mọi tài liệu trong postings của truy vấn (term-at-a-time), dùng để đối chiếu với WAND. */
+    public List<DictionaryEntry> rankByQueryExhaustive(String query, int limit) {
+        if (query == null || query.isBlank() || limit <= 0) return Collections.emptyList();
+        Map<String, Integer> terms = queryTerms(query);
+        int n = liveDocs;
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Integer> t : terms.entrySet()) {
+            Postings p = index.get(t.getKey());
+            if (p == null) continue;
+            double weight = idf(n, p.size) * t.getValue();
+            for (int i = 0; i < p.length; i++) {
+                int tf = p.tf(i);
+                if (tf > 0) scores.merge(p.docId(i), tf * weight, Double::sum);
+            }
+        }
+        PriorityQueue<ScoredEntry> heap = new PriorityQueue<>(Comparator.reverseOrder());
+        for (Map.Entry<Integer, Double> s : scores.entrySet()) {
+            if (s.getValue() <= 0.0) continue;
+            ScoredEntry candidate = new ScoredEntry(s.getKey(), s.getValue());
+            if (heap.size() < limit) heap.add(candidate);
+            else if (candidate.compareTo(heap.peek()) < 0) { heap.poll(); heap.add(candidate); }
+        }
+        return toEntries(heap);
+    }
+
+    private List<DictionaryEntry> toEntries(PriorityQueue<ScoredEntry> heap) {
+        List<ScoredEntry> top = new ArrayList<>(heap);
+        Collections.sort(top);
+        List<DictionaryEntry> out = new ArrayList<>(top.size());
+        for (ScoredEntry s : top) out.add(docs.get(s.docId));
+        return out;
+    }
+
+    /** Xếp hạng một danh sách tùy ý bằng chỉ mục tạm thời. */
+    public List<DictionaryEntry> rankByQuery(String query, List<DictionaryEntry> docs, int limit) {
+        if (query == null || query.isBlank()) return Collections.emptyList();
+        return new TfidfRanker(docs).rankByQuery(query, limit);
+    }
+
+    /** Postings của term thuộc riêng bản này; sao chép nếu đang dùng chung với bản khác. */
+    private Postings owned(String term, boolean create) {
+        Postings p = index.get(term);
+        if (p == null) {
+            if (!create) return null;
+            p = new Postings(owner);
+            index.put(term, p);
+        } else if (p.owner != owner) {
+            p = p.copy(owner);
+            index.put(term, p);
+        }
+        return p;
+    }
+
+    private Map<String, Integer> queryTerms(String query) {
+        Map<String, Integer> terms = new LinkedHashMap<>();
+        // Tài liệu được lập chỉ mục trên dạng chuẩn hóa nên query cũng phải chuẩn hóa (bỏ dấu, đ -> d)
+        for (String t : tokenize(NormalizerUtil.normalize(query))) terms.merge(t, 1, Integer::sum);
+        return terms;
+    }
+
+    private static double idf(int n, int df) {
+        return Math.log((n + 1.0) / (Math.max(1, df) + 1.0)) + 1.0;
     }
 
-    private int countToken(DictionaryEntry e, String t) {
-        int c = 0;
-        c += countOccurrences(NormalizerUtil.normalize(e.getWord()), t);
-        c += countOccurrences(NormalizerUtil.normalize(e.getMeaning()), t);
+    private static Map<String, Integer> documentTermFreq(DictionaryEntry e) {
+        Map<String, Integer> tf = new HashMap<>();
+        // Một buffer chuẩn hóa dùng chung cho mọi trường của tài liệu; chỉ tạo String cho từng token
+        char[] buf = countTokens(e.getWord(), tf, new char[64]);
+        buf = countTokens(e.getMeaning(), tf, buf);
         if (e.getTags() != null) {
-            for (String tag : e.getTags()) {
-                c += countOccurrences(NormalizerUtil.normalize(tag), t);
+            for (String tag : e.getTags()) buf = countTokens(tag, tf, buf);
+        }
+        return tf;
+    }
+
+    /** Đếm token của text vào tf; trả về buffer (có thể đã được nới) để dùng tiếp. */
+    private static char[] countTokens(String text, Map<String, Integer> tf, char[] buf) {
+        if (text == null) return buf;
+        if (buf.length < text.length()) buf = new char[Math.max(text.length(), buf.length * 2)];
+        int len = NormalizerUtil.normalize(text, buf);
+        if (len < 0) {
+            for (String t : tokenize(NormalizerUtil.normalize(text))) tf.merge(t, 1, Integer::sum);
+            return buf;
+        }
+        int start = -1;
+        for (int i = 0; i <= len; i++) {
+            boolean tokenChar = i < len && isTokenChar(buf[i]);
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tf.merge(new String(buf, start, i - start), 1, Integer::sum);
+                start = -1;
             }
         }
-        return c;
+        return buf;
+    }
+
+    /** Như {@link NormalizerUtil#tokenize}, ký tự ngoài bảng gấp nhanh vẫn giữ trong token. */
+    private static boolean isTokenChar(char c) {
+        return NormalizerUtil.isTokenChar(c);
+    }
+
+    private static String wordKey(String word) {
+        return word.toLowerCase(Locale.ROOT);
     }
 
-    private int countOccurrences(String text, String token) {
-        if (text == null || token == null || token.isEmpty()) return 0;
-        String s = NormalizerUtil.normalize(text);
-        String tok = NormalizerUtil.normalize(token);
-        int idx = 0, c = 0;
-        while ((idx = s.indexOf(tok, idx)) != -1) {
-            c++; idx += tok.length();
+    private static String[] tokenize(String normalized) {
+        return NormalizerUtil.tokenize(normalized);
+    }
+
+    /** Token sở hữu của một bản ranker; đếm số ô posting đã phải sao chép để kiểm thử chi phí sửa đổi. */
+    private static final class Owner {
+        long copiedSlots;
+    }
+
+    /** Khối BLOCK posting; các ô chưa dùng có tf = 0, maxTf là tf lớn nhất trong khối. */
+    private static final class Block {
+        final Owner owner;
+        final int[] docIds;
+        final int[] tfs;
+        int maxTf;
+
+        Block(Owner owner, int[] docIds, int[] tfs, int maxTf) {
+            this.owner = owner;
+            this.docIds = docIds;
+            this.tfs = tfs;
+            this.maxTf = maxTf;
         }
-        return c;
     }
 
-    private String[] tokenize(String q) {
-        return Arrays.stream(q.toLowerCase().split("[^a-zA-Z0-9]+"))
-            .filter(s -> !s.isBlank())
-            .toArray(String[]::new);
+    /**
+     * Danh sách (docId, tf) sắp tăng theo docId, chia thành các khối BLOCK ô; mọi khối đầy trừ khối cuối nên ô i
+     * nằm ở khối i / BLOCK. Như {@link PagedArray}: copy() chỉ chép bảng khối, các khối dùng chung và chỉ bị sao
+     * chép khi sửa. docId mới luôn lớn hơn nên thêm chỉ chạm khối cuối; xóa đặt tf = 0 (bia mộ, cursor bỏ qua) thay
+     * vì dịch mảng, và khi bia mộ chiếm quá nửa thì dồn lại một lần. maxTf là cận trên: xóa không hạ nó.
+     */
+    private static final class Postings {
+        static final int SHIFT = 6;
+        static final int BLOCK = 1 << SHIFT;
+        static final int MASK = BLOCK - 1;
+        final Owner owner;
+        Block[] blocks = new Block[1];
+        int blockCount;
+        // length: số ô đã dùng, kể cả bia mộ; size: số posting còn sống (df)
+        int length;
+        int size;
+        int maxTf;
+
+        Postings(Owner owner) { this.owner = owner; }
+
+        Postings copy(Owner newOwner) {
+            Postings c = new Postings(newOwner);
+            c.blocks = Arrays.copyOf(blocks, Math.max(1, blockCount));
+            c.blockCount = blockCount;
+            c.length = length;
+            c.size = size;
+            c.maxTf = maxTf;
+            newOwner.copiedSlots += blockCount;
+            return c;
+        }
+
+        int docId(int i) { return blocks[i >>> SHIFT].docIds[i & MASK]; }
+        int tf(int i) { return blocks[i >>> SHIFT].tfs[i & MASK]; }
+        int blockMaxTf(int i) { return blocks[i >>> SHIFT].maxTf; }
+
+        void append(int docId, int tf) {
+            if ((length & MASK) == 0) {
+                if (blockCount == blocks.length) blocks = Arrays.copyOf(blocks, blockCount * 2);
+                blocks[blockCount++] = new Block(owner, new int[BLOCK], new int[BLOCK], 0);
+            }
+            Block b = writable(length >>> SHIFT);
+            b.docIds[length & MASK] = docId;
+            b.tfs[length & MASK] = tf;
+            if (tf > b.maxTf) b.maxTf = tf;
+            if (tf > maxTf) maxTf = tf;
+            length++;
+            size++;
+        }
+
+        /** Nối các posting còn sống của other; docId của chúng lớn hơn mọi docId hiện có. */
+        void appendAll(Postings other) {
+            for (int i = 0; i < other.length; i++) {
+                int tf = other.tf(i);
+                if (tf > 0) append(other.docId(i), tf);
+            }
+        }
+
+        void remove(int docId) {
+            int i = find(docId, 0);
+            if (i >= length || docId(i) != docId || tf(i) == 0) return;
+            Block b = writable(i >>> SHIFT);
+            b.tfs[i & MASK] = 0;
+            int max = 0;
+            for (int t : b.tfs) max = Math.max(max, t);
+            b.maxTf = max;
+            size--;
+            if (length > BLOCK && size * 2 < length) compact();
+        }
+
+        /** Ô nhỏ nhất >= from có docId >= target, length nếu không có; galloping rồi tìm nhị phân. */
+        int find(int target, int from) {
+            if (from >= length || docId(from) >= target) return from;
+            // docId(lo) < target; hi == length hoặc docId(hi) >= target
+            int lo = from;
+            int hi = from + 1;
+            for (int step = 1; hi < length && docId(hi) < target; hi = from + step) {
+                lo = hi;
+                step <<= 1;
+            }
+            if (hi > length) hi = length;
+            while (lo + 1 < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (docId(mid) < target) lo = mid;
+                else hi = mid;
+            }
+            return hi;
+        }
+
+        /** Ô còn sống đầu tiên từ i trở đi, length nếu không có. */
+        int live(int i) {
+            while (i < length && tf(i) == 0) i++;
+            return i;
+        }
+
+        private Block writable(int b) {
+            Block block = blocks[b];
+            if (block.owner != owner) {
+                block = new Block(owner, block.docIds.clone(), block.tfs.clone(), block.maxTf);
+                blocks[b] = block;
+                owner.copiedSlots += 2 * BLOCK;
+            }
+            return block;
+        }
+
+        // Chỉ chạy sau khi đã có ít nhất length / 2 lần xóa kể từ lần dồn trước nên chi phí chia đều cho các lần xóa
+        private void compact() {
+            Block[] old = blocks;
+            int oldLength = length;
+            blocks = new Block[Math.max(1, (size + MASK) >>> SHIFT)];
+            blockCount = 0;
+            length = 0;
+            size = 0;
+            maxTf = 0;
+            for (int i = 0; i < oldLength; i++) {
+                Block b = old[i >>> SHIFT];
+                int tf = b.tfs[i & MASK];
+                if (tf > 0) append(b.docIds[i & MASK], tf);
+            }
+            owner.copiedSlots += 2L * oldLength;
+        }
     }
 
-    private static class ScoredEntry {
-        final DictionaryEntry entry; final double score;
-        ScoredEntry(DictionaryEntry entry, double score) { this.entry = entry; this.score = score; }
+    private static class Cursor {
+        final Postings postings;
+        final double weight;
+        final double upperBound;
+        int pos;
+
+        Cursor(Postings postings, double weight) {
+            this.postings = postings;
+            this.weight = weight;
+            this.upperBound = postings.maxTf * weight;
+            this.pos = postings.live(0);
+        }
+
+        boolean exhausted() { return pos >= postings.length; }
+        int doc() { return exhausted() ? Integer.MAX_VALUE : postings.docId(pos); }
+        int tf() { return postings.tf(pos); }
+        void next() { pos = postings.live(pos + 1); }
+
+        /** Cận trên điểm cho các tài liệu >= target nằm trong khối chứa posting còn sống đầu tiên >= target. */
+        double blockUpperBound(int target) {
+            int i = firstAtLeast(target);
+            return i >= postings.length ? 0.0 : postings.blockMaxTf(i) * weight;
+        }
+
+        /** docId cuối của khối chứa posting còn sống đầu tiên >= target. */
+        int blockLastDoc(int target) {
+            int i = firstAtLeast(target);
+            if (i >= postings.length) return Integer.MAX_VALUE - 1;
+            int end = Math.min(postings.length, ((i >>> Postings.SHIFT) + 1) << Postings.SHIFT);
+            return postings.docId(end - 1);
+        }
+
+        private int firstAtLeast(int target) {
+            return postings.live(postings.find(target, pos));
+        }
+
+        void advanceTo(int target) {
+            pos = firstAtLeast(target);
+        }
     }
-}
 
+    private static class ScoredEntry implements Comparable<ScoredEntry> {
+        final int docId; final double score;
+        ScoredEntry(int docId, double score) { this.docId = docId; this.score = score; }
 
+        @Override
+        public int compareTo(ScoredEntry o) {
+            int c = Double.compare(o.score, score);
+            return c != 0 ? c : Integer.compare(docId, o.docId);
+        }
+    }
+}
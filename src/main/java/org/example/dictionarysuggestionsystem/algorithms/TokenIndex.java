@@ -0,0 +1,240 @@
+package org.example.dictionarysuggestionsystem.algorithms;
+
+import org.example.dictionarysuggestionsystem.utils.NormalizerUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Tìm từ nhiều âm tiết theo tiền tố của từng âm tiết: mọi token của query phải là tiền tố của một token nào
+ * đó trong từ, không cần đúng thứ tự ("dung u" -> ứng dụng, "ng th" -> ngôn thư). Từ điển âm tiết là mảng
+ * token phân biệt đã sắp xếp đóng vai trò trie âm tiết: các token bắt đầu bằng một tiền tố nằm liền nhau,
+ * tìm bằng hai lần tìm nhị phân. Mỗi token có posting list các id tăng dần (dạng CSR), mỗi id có danh sách
+ * token của nó (chỉ mục xuôi).
+ * <p>
+ * Khi tìm, token query có ít posting nhất sinh ứng viên; các token còn lại được kiểm trên chỉ mục xuôi của
+ * ứng viên (từ chỉ có vài âm tiết) thay vì trộn các posting list dài. Như {@link SubstringIndex}: id do bên
+ * gọi cấp, frequency và việc từ đã xóa do bên gọi trả lời lúc tìm, từ thêm sau khi dựng nằm trong danh sách
+ * phụ chỉ nối thêm, quét tuyến tính cho đến lần dựng lại.
+ */
+public final class TokenIndex {
+    // Các token phân biệt, tăng dần; số thứ tự trong mảng là ordinal của token
+    private final String[] tokens;
+    // Posting của token o: postings[postingStart[o] .. postingStart[o + 1]), id tăng dần
+    private final int[] postingStart;
+    private final int[] postings;
+    // Ordinal các token của id: entryTokens[entryStart[id] .. entryStart[id + 1])
+    private final int[] entryStart;
+    private final int[] entryTokens;
+    private final int words;
+    // Token của các từ thêm sau khi dựng: pendingCount phần tử đầu của pending
+    private final PendingWords<String[]> pending;
+    private final int pendingCount;
+
+    private TokenIndex(String[] tokens, int[] postingStart, int[] postings, int[] entryStart, int[] entryTokens,
+                       int words, PendingWords<String[]> pending, int pendingCount) {
+        this.tokens = tokens;
+        this.postingStart = postingStart;
+        this.postings = postings;
+        this.entryStart = entryStart;
+        this.entryTokens = entryTokens;
+        this.words = words;
+        this.pending = pending;
+        this.pendingCount = pendingCount;
+    }
+
+    public static TokenIndex empty() {
+        return new TokenIndex(new String[0], new int[1], new int[0], new int[1], new int[0], 0, PendingWords.empty(), 0);
+    }
+
+    /** normalized[id] là dạng chuẩn hóa của từ có id đó (null nếu không có). parallel: tách token song song. */
+    public static TokenIndex build(String[] normalized, boolean parallel) {
+        IntStream ids = IntStream.range(0, normalized.length);
+        String[][] split = new String[normalized.length][];
+        (parallel ? ids.parallel() : ids).forEach(id -> split[id] = tokensOf(normalized[id]));
+
+        int total = 0;
+        int words = 0;
+        for (String[] t : split) {
+            total += t.length;
+            if (t.length > 0) words++;
+        }
+        String[] all = new String[total];
+        int n = 0;
+        for (String[] t : split) {
+            System.arraycopy(t, 0, all, n, t.length);
+            n += t.length;
+        }
+        if (parallel) Arrays.parallelSort(all);
+        else Arrays.sort(all);
+        int distinct = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (distinct == 0 || !all[i].equals(all[distinct - 1])) all[distinct++] = all[i];
+        }
+        String[] tokens = Arrays.copyOf(all, distinct);
+
+        // Chỉ mục xuôi: ordinal các token của mỗi id, tăng dần
+        int[] entryStart = new int[normalized.length + 1];
+        int[] entryTokens = new int[total];
+        int[] postingStart = new int[distinct + 1];
+        int p = 0;
+        for (int id = 0; id < split.length; id++) {
+            entryStart[id] = p;
+            int from = p;
+            for (String t : split[id]) entryTokens[p++] = Arrays.binarySearch(tokens, t);
+            Arrays.sort(entryTokens, from, p);
+            for (int i = from; i < p; i++) postingStart[entryTokens[i] + 1]++;
+        }
+        entryStart[split.length] = p;
+
+        // Posting list: duyệt id tăng dần nên mỗi list tự tăng dần
+        for (int o = 0; o < distinct; o++) postingStart[o + 1] += postingStart[o];
+        int[] postings = new int[total];
+        int[] fill = Arrays.copyOf(postingStart, distinct);
+        for (int id = 0; id < split.length; id++) {
+            for (int i = entryStart[id]; i < entryStart[id + 1]; i++) postings[fill[entryTokens[i]]++] = id;
+        }
+        return new TokenIndex(tokens, postingStart, postings, entryStart, entryTokens, words, PendingWords.empty(), 0);
+    }
+
+    /**
+     * Phiên bản có thêm từ id (dạng chuẩn hóa normalized) nếu chỉ mục chưa có id đó; O(1), danh sách phụ được
+     * nối tại chỗ như ở {@link SubstringIndex#withWord}.
+     */
+    public TokenIndex withWord(int id, String normalized) {
+        if ((id < entryStart.length - 1 && entryStart[id] < entryStart[id + 1]) || pending.contains(pendingCount, id)) return this;
+        String[] t = tokensOf(normalized);
+        if (t.length == 0) return this;
+        return new TokenIndex(tokens, postingStart, postings, entryStart, entryTokens, words,
+            pending.append(pendingCount, id, t), pendingCount + 1);
+    }
+
+    /** Số từ trong phần đã dựng. */
+    public int size() { return words; }
+
+    /** Số từ thêm sau khi dựng, đang được quét tuyến tính. */
+    public int pendingSize() { return pendingCount; }
+
+    /** Số token phân biệt trong phần đã dựng. */
+    public int tokenCount() { return tokens.length; }
+
+    /**
+     * Tối đa k id của các từ mà mỗi token của normalizedQuery là tiền tố của một token trong từ, xếp theo
+     * frequency giảm dần (bằng nhau thì id nhỏ trước). frequency trả về Long.MIN_VALUE cho id đã xóa.
+     */
+    public int[] search(String normalizedQuery, int k, IntToLongFunction frequency) {
+        String[] query = NormalizerUtil.tokenize(normalizedQuery);
+        if (query.length == 0 || k <= 0) return new int[0];
+        int[] lo = new int[query.length];
+        int[] hi = new int[query.length];
+        int driver = 0;
+        long fewest = Long.MAX_VALUE;
+        for (int j = 0; j < query.length; j++) {
+            lo[j] = lowerBound(query[j], false);
+            hi[j] = lowerBound(query[j], true);
+            long count = postingStart[hi[j]] - postingStart[lo[j]];
+            if (count < fewest) {
+                fewest = count;
+                driver = j;
+            }
+        }
+        TopK top = new TopK((int) Math.min(k, fewest + pendingCount));
+        int from = lo[driver];
+        for (int o = from; o < hi[driver]; o++) {
+            for (int i = postingStart[o]; i < postingStart[o + 1]; i++) {
+                int id = postings[i];
+                // Từ có nhiều token trong khoảng chỉ được tính ở token nhỏ nhất, nên không cần sắp xếp để bỏ trùng
+                if (firstTokenFrom(id, from) == o && coversAll(id, lo, hi, driver)) top.offer(id, frequency.applyAsLong(id));
+            }
+        }
+        // Danh sách phụ được giữ ngắn (bên gọi dựng lại khi nó đủ dài) nên quét tuyến tính
+        for (int e = 0; e < pendingCount; e++) {
+            if (coversAll(pending.value(e), query)) top.offer(pending.id(e), frequency.applyAsLong(pending.id(e)));
+        }
+        return top.drain();
+    }
+
+    /** Các id khớp normalizedQuery theo thứ tự id (không xếp hạng, không lọc id đã xóa); dùng cho kiểm thử. */
+    List<Integer> matchingIds(String normalizedQuery) {
+        int[] all = search(normalizedQuery, Integer.MAX_VALUE, id -> 0);
+        List<Integer> out = new ArrayList<>(all.length);
+        for (int id : all) out.add(id);
+        out.sort(null);
+        return out;
+    }
+
+    public long footprintBytes() {
+        long chars = 0;
+        for (String t : tokens) chars += t.length();
+        // Khoảng 40 byte đầu đối tượng cho mỗi String token
+        return chars * Character.BYTES + (long) tokens.length * 40
+            + (long) (postingStart.length + postings.length + entryStart.length + entryTokens.length) * Integer.BYTES;
+    }
+
+    // Token phân biệt của một từ; từ không có token thì mảng rỗng
+    private static String[] tokensOf(String normalized) {
+        if (normalized == null || normalized.isEmpty()) return new String[0];
+        String[] t = NormalizerUtil.tokenize(normalized);
+        if (t.length < 2) return t;
+        return Arrays.stream(t).distinct().toArray(String[]::new);
+    }
+
+    // Ordinal nhỏ nhất >= from trong các token của id (token của id đã xếp tăng dần)
+    private int firstTokenFrom(int id, int from) {
+        for (int i = entryStart[id]; i < entryStart[id + 1]; i++) {
+            if (entryTokens[i] >= from) return entryTokens[i];
+        }
+        return -1;
+    }
+
+    private boolean coversAll(int id, int[] lo, int[] hi, int driver) {
+        for (int j = 0; j < lo.length; j++) {
+            if (j == driver) continue;
+            boolean found = false;
+            for (int i = entryStart[id]; i < entryStart[id + 1] && !found; i++) {
+                found = entryTokens[i] >= lo[j] && entryTokens[i] < hi[j];
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    private static boolean coversAll(String[] wordTokens, String[] query) {
+        for (String q : query) {
+            boolean found = false;
+            for (String t : wordTokens) {
+                if (t.startsWith(q)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    // Ordinal đầu tiên có token >= q (upper: token > q khi chỉ so |q| ký tự đầu, tức là hết các token bắt đầu bằng q)
+    private int lowerBound(String q, boolean upper) {
+        int lo = 0, hi = tokens.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = comparePrefix(tokens[mid], q);
+            if (c < 0 || (upper && c == 0)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int comparePrefix(String token, String q) {
+        int n = Math.min(token.length(), q.length());
+        for (int i = 0; i < n; i++) {
+            char a = token.charAt(i);
+            char b = q.charAt(i);
+            if (a != b) return a < b ? -1 : 1;
+        }
+        return token.length() < q.length() ? -1 : 0;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.dictionarysuggestionsystem.algorithms;
+
+/**
+ * Top-k id theo frequency giảm dần (bằng nhau thì id nhỏ trước) cho các chỉ mục tra theo id. Min-heap trên
+ * mảng nguyên thủy, gốc là ứng viên kém nhất, nên mỗi ứng viên không phải cấp phát đối tượng.
+ */
+final class TopK {
+    final int[] ids;
+    final long[] freqs;
+    int size;
+
+    TopK(int capacity) {
+        ids = new int[capacity];
+        freqs = new long[capacity];
+    }
+
+    /** Long.MIN_VALUE là id đã xóa, bị bỏ qua. */
+    void offer(int id, long freq) {
+        if (freq == Long.MIN_VALUE || ids.length == 0) return;
+        if (size < ids.length) {
+            int i = size++;
+            ids[i] = id;
+            freqs[i] = freq;
+            siftUp(i);
+        } else if (worse(ids[0], freqs[0], id, freq)) {
+            ids[0] = id;
+            freqs[0] = freq;
+            siftDown(0);
+        }
+    }
+
+    /** Lấy hết, tốt nhất trước. */
+    int[] drain() {
+        int[] out = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            out[i] = ids[0];
+            size--;
+            ids[0] = ids[size];
+            freqs[0] = freqs[size];
+            siftDown(0);
+        }
+        return out;
+    }
+
+    private static boolean worse(int idA, long freqA, int idB, long freqB) {
+        return freqA != freqB ? freqA < freqB : idA > idB;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(ids[i], freqs[i], ids[parent], freqs[parent])) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int l = 2 * i + 1, r = l + 1, min = i;
+            if (l < size && worse(ids[l], freqs[l], ids[min], freqs[min])) min = l;
+            if (r < size && worse(ids[r], freqs[r], ids[min], freqs[min])) min = r;
+            if (min == i) return;
+            swap(i, min);
+            i = min;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int id = ids[i]; ids[i] = ids[j]; ids[j] = id;
+        long f = freqs[i]; freqs[i] = freqs[j]; freqs[j] = f;
+    }
+}
@@ -2,6 +2,7 @@ package org.example.dictionarysuggestionsystem.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.example.dictionarysuggestionsystem.utils.NormalizerUtil;
 
 import java.util.List;
 import java.util.Objects;
@@ -11,6 +12,8 @@ public class DictionaryEntry {
     private final String meaning;
     private final long frequency;
     private final List<String> tags;
+    // Dạng chuẩn hóa của word, tính một lần khi lập chỉ mục (không phải thuộc tính JSON)
+    private String normalizedWord;
 
     @JsonCreator
     public DictionaryEntry(
@@ -29,6 +32,13 @@ public class DictionaryEntry {
     public long getFrequency() { return frequency; }
     public List<String> getTags() { return tags; }
 
+    /** NormalizerUtil.normalize(word), tính lần đầu rồi giữ lại; entry bất biến nên không bao giờ cũ. */
+    public String normalizedWord() {
+        String n = normalizedWord;
+        if (n == null) normalizedWord = n = NormalizerUtil.normalize(word);
+        return n;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,45 @@
+package org.example.dictionarysuggestionsystem.repository;
+
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/** Ghi ra file tạm cùng thư mục, fsync rồi đổi tên đè lên file cũ để không bao giờ để lại file ghi dở. */
+final class AtomicFiles {
+    private AtomicFiles() {}
+
+    @FunctionalInterface
+    interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+
+    static void write(Path target, Writer writer) throws IOException {
+        target = target.toAbsolutePath();
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(tmp.toFile())) {
+                writer.write(new NonClosing(out));
+                out.getFD().sync();
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Jackson (và các stream bọc ngoài) đóng stream sau khi ghi; giữ stream mở để còn fsync được. */
+    private static class NonClosing extends FilterOutputStream {
+        NonClosing(OutputStream out) { super(out); }
+        @Override public void write(byte[] b, int off, int len) throws IOException { out.write(b, off, len); }
+        @Override public void close() throws IOException { flush(); }
+    }
+}
@@ -0,0 +1,269 @@
+package org.example.dictionarysuggestionsystem.repository;
+
+import org.example.dictionarysuggestionsystem.algorithms.TfidfRanker;
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.example.dictionarysuggestionsystem.trie.Trie;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Snapshot nhị phân {@code <file>.snap} đặt cạnh file JSON: bảng chuỗi, bảng entry và nguyên các mảng
+ * của Trie và chỉ mục TF-IDF. Khi nạp, từng section được mmap ({@link FileChannel#map}) và các mảng được
+ * sao chép cả khối, không phải parse JSON hay dựng lại chỉ mục. JSON vẫn là định dạng nhập/xuất: snapshot
+ * ghi lại kích thước + thời điểm sửa của file JSON lúc lưu, nếu JSON bị sửa bên ngoài thì snapshot coi như cũ.
+ * <p>
+ * Bố cục: header (magic, version, dấu vết JSON), các section, bảng section (id, offset, length),
+ * offset của bảng section và magic ở cuối file. Mỗi section phải nhỏ hơn 2 GB.
+ */
+public class BinaryDictionaryRepository {
+    static final int MAGIC = 0x44534E50; // "DSNP"
+    static final int FORMAT_VERSION = 5; // 2: đ/Đ được chuẩn hóa thành d; 3: trie lưu mọi từ gốc cùng dạng chuẩn hóa;
+                                         // 4: token TF-IDF giữ mọi chữ Unicode, không chỉ a-z;
+                                         // 5: trie bỏ node cha, dữ liệu từ nằm trong mảng theo node kết thúc
+    private static final int SECTION_ENTRIES = 1;
+    private static final int SECTION_TRIE = 2;
+    private static final int SECTION_TFIDF = 3;
+    private static final int SECTION_STRINGS = 4;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8;
+    private static final int TRAILER_BYTES = 8 + 4;
+
+    private final File source;
+    private final File file;
+
+    public BinaryDictionaryRepository(File jsonFile) {
+        this.source = jsonFile;
+        this.file = new File(jsonFile.getPath() + ".snap");
+    }
+
+    public File getFile() { return file; }
+
+    /** Dữ liệu đã nạp; entries có thể sửa, trie và tfidf dùng trực tiếp. */
+    public static class Snapshot {
+        public final List<DictionaryEntry> entries;
+        public final Trie trie;
+        public final TfidfRanker tfidf;
+        public Snapshot(List<DictionaryEntry> entries, Trie trie, TfidfRanker tfidf) {
+            this.entries = entries; this.trie = trie; this.tfidf = tfidf;
+        }
+    }
+
+    /** Có snapshot và nó được ghi sau lần sửa cuối của file JSON. */
+    public synchronized boolean isCurrent() throws IOException {
+        if (!file.exists()) return false;
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_BYTES + TRAILER_BYTES) return false;
+            ByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            return header.getInt() == MAGIC && header.getInt() == FORMAT_VERSION
+                && header.getLong() == sourceLength() && header.getLong() == sourceModified();
+        }
+    }
+
+    /** Nạp snapshot, hoặc null nếu chưa có / đã cũ so với file JSON. */
+    public synchronized Snapshot load() throws IOException {
+        if (!isCurrent()) return null;
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = ch.size();
+            ByteBuffer trailer = ch.map(FileChannel.MapMode.READ_ONLY, size - TRAILER_BYTES, TRAILER_BYTES);
+            long tableOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC || tableOffset < HEADER_BYTES || tableOffset > size - TRAILER_BYTES) {
+                throw new IOException("Corrupt dictionary snapshot: " + file);
+            }
+            ByteBuffer table = ch.map(FileChannel.MapMode.READ_ONLY, tableOffset, size - TRAILER_BYTES - tableOffset);
+            Map<Integer, long[]> sections = new HashMap<>();
+            int count = table.getInt();
+            for (int i = 0; i < count; i++) sections.put(table.getInt(), new long[]{table.getLong(), table.getLong()});
+
+            StringTable strings = new StringTable(section(ch, sections, SECTION_STRINGS, tableOffset));
+            ByteBuffer in = section(ch, sections, SECTION_ENTRIES, tableOffset);
+            int n = in.getInt();
+            List<DictionaryEntry> entries = new ArrayList<>(n + 16);
+            for (int i = 0; i < n; i++) {
+                String word = strings.get(in.getInt());
+                String meaning = strings.get(in.getInt());
+                long frequency = in.getLong();
+                int tagCount = in.getInt();
+                List<String> tags = null;
+                if (tagCount >= 0) {
+                    tags = new ArrayList<>(tagCount);
+                    for (int t = 0; t < tagCount; t++) tags.add(strings.get(in.getInt()));
+                }
+                entries.add(new DictionaryEntry(word, meaning, frequency, tags));
+            }
+            Trie trie = Trie.readFrom(section(ch, sections, SECTION_TRIE, tableOffset), strings::get);
+            TfidfRanker tfidf = TfidfRanker.readFrom(section(ch, sections, SECTION_TFIDF, tableOffset), entries::get, strings::get);
+            return new Snapshot(entries, trie, tfidf);
+        } catch (RuntimeException e) {
+            // Buffer underflow / chỉ số sai: file hỏng
+            throw new IOException("Corrupt dictionary snapshot: " + file, e);
+        }
+    }
+
+    /**
+     * Ghi snapshot (file tạm + rename). Mọi tài liệu trong tfidf phải có trong entries; chúng được khớp theo word
+     * (không phân biệt hoa thường) vì lượt click được thay tại chỗ trong tfidf dùng chung (xem
+     * {@link TfidfRanker#replaceDocument}) nên tài liệu có thể là entry mới hơn cùng word.
+     * Dấu vết JSON được lấy tại thời điểm ghi, nên nếu cần xuất JSON thì xuất trước rồi mới gọi hàm này.
+     */
+    public synchronized void save(List<DictionaryEntry> entries, Trie trie, TfidfRanker tfidf) throws IOException {
+        long srcLength = sourceLength();
+        long srcModified = sourceModified();
+        AtomicFiles.write(file.toPath(), raw -> {
+            Counting counting = new Counting(new BufferedOutputStream(raw, 1 << 16));
+            DataOutputStream out = new DataOutputStream(counting);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(srcLength);
+            out.writeLong(srcModified);
+
+            Map<Integer, long[]> sections = new LinkedHashMap<>();
+            StringTableWriter strings = new StringTableWriter();
+            Map<String, Integer> entryIds = new HashMap<>(entries.size() * 2);
+
+            long start = counting.count;
+            out.writeInt(entries.size());
+            for (DictionaryEntry e : entries) {
+                entryIds.put(key(e.getWord()), entryIds.size());
+                out.writeInt(strings.id(e.getWord()));
+                out.writeInt(strings.id(e.getMeaning()));
+                out.writeLong(e.getFrequency());
+                List<String> tags = e.getTags();
+                out.writeInt(tags == null ? -1 : tags.size());
+                if (tags != null) for (String t : tags) out.writeInt(strings.id(t));
+            }
+            out.flush();
+            sections.put(SECTION_ENTRIES, new long[]{start, counting.count - start});
+
+            start = counting.count;
+            trie.writeTo(out, strings::id);
+            out.flush();
+            sections.put(SECTION_TRIE, new long[]{start, counting.count - start});
+
+            start = counting.count;
+            tfidf.writeTo(out, e -> {
+                Integer id = entryIds.get(key(e.getWord()));
+                if (id == null) throw new IllegalStateException("TF-IDF document not in entry table: " + e.getWord());
+                return id;
+            }, strings::id);
+            out.flush();
+            sections.put(SECTION_TFIDF, new long[]{start, counting.count - start});
+
+            start = counting.count;
+            strings.writeTo(out);
+            out.flush();
+            sections.put(SECTION_STRINGS, new long[]{start, counting.count - start});
+
+            long tableOffset = counting.count;
+            out.writeInt(sections.size());
+            for (Map.Entry<Integer, long[]> s : sections.entrySet()) {
+                out.writeInt(s.getKey());
+                out.writeLong(s.getValue()[0]);
+                out.writeLong(s.getValue()[1]);
+            }
+            out.writeLong(tableOffset);
+            out.writeInt(MAGIC);
+            out.flush();
+        });
+    }
+
+    public synchronized void delete() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    private static MappedByteBuffer section(FileChannel ch, Map<Integer, long[]> sections, int id, long limit) throws IOException {
+        long[] s = sections.get(id);
+        if (s == null || s[0] < HEADER_BYTES || s[1] < 0 || s[0] + s[1] > limit || s[1] > Integer.MAX_VALUE) {
+            throw new IOException("Missing or invalid section " + id);
+        }
+        return ch.map(FileChannel.MapMode.READ_ONLY, s[0], s[1]);
+    }
+
+    private static String key(String word) {
+        return word == null ? null : word.toLowerCase(Locale.ROOT);
+    }
+
+    private long sourceLength() {
+        return source.exists() ? source.length() : -1;
+    }
+
+    private long sourceModified() throws IOException {
+        Path p = source.toPath();
+        return Files.exists(p) ? Files.getLastModifiedTime(p).toMillis() : -1;
+    }
+
+    /** Bảng chuỗi khi ghi: mỗi chuỗi khác nhau một chỉ số; -1 là null. */
+    private static class StringTableWriter {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int id(String s) {
+            if (s == null) return -1;
+            Integer id = ids.putIfAbsent(s, values.size());
+            if (id != null) return id;
+            values.add(s);
+            return values.size() - 1;
+        }
+
+        /** Số chuỗi, offset kết thúc (tính theo byte UTF-8) của từng chuỗi, rồi toàn bộ byte. */
+        void writeTo(DataOutputStream out) throws IOException {
+            List<byte[]> bytes = new ArrayList<>(values.size());
+            int end = 0;
+            out.writeInt(values.size());
+            for (String s : values) {
+                byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                bytes.add(b);
+                end += b.length;
+                out.writeInt(end);
+            }
+            for (byte[] b : bytes) out.write(b);
+        }
+    }
+
+    /** Bảng chuỗi khi đọc: giải mã lười từ vùng mmap, mỗi chuỗi một lần. */
+    private static class StringTable {
+        private final ByteBuffer buf;
+        private final int count;
+        private final int dataStart;
+        private final String[] decoded;
+
+        StringTable(ByteBuffer buf) {
+            this.buf = buf;
+            this.count = buf.getInt(0);
+            this.dataStart = 4 + count * 4;
+            this.decoded = new String[count];
+        }
+
+        String get(int id) {
+            if (id < 0) return null;
+            String s = decoded[id];
+            if (s == null) {
+                int from = id == 0 ? 0 : buf.getInt(4 + (id - 1) * 4);
+                int to = buf.getInt(4 + id * 4);
+                byte[] b = new byte[to - from];
+                buf.get(dataStart + from, b);
+                decoded[id] = s = new String(b, StandardCharsets.UTF_8);
+            }
+            return s;
+        }
+    }
+
+    /** Đếm byte đã ghi bằng long (DataOutputStream.size() bão hòa ở 2 GB). */
+    private static class Counting extends FilterOutputStream {
+        long count;
+        Counting(OutputStream out) { super(out); }
+        @Override public void write(int b) throws IOException { out.write(b); count++; }
+        @Override public void write(byte[] b, int off, int len) throws IOException { out.write(b, off, len); count += len; }
+    }
+}
@@ -1,7 +1,13 @@
 package org.example.dictionarysuggestionsystem.repository;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
 
 import java.io.File;
@@ -10,26 +16,122 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Đọc/ghi từ điển dạng JSON bằng JsonParser/JsonGenerator, từng entry một: không dựng cây JSON hay
+ * giữ toàn bộ đầu ra trong bộ nhớ. Nhận cả mảng JSON lẫn NDJSON (mỗi dòng một object); khi ghi, file
+ * có đuôi .ndjson/.jsonl được ghi dạng NDJSON, còn lại là mảng JSON gọn với mỗi entry một dòng.
+ */
 public class JsonDictionaryRepository {
     private final File file;
     private final ObjectMapper mapper = new ObjectMapper();
+    private final ObjectReader entryReader = mapper.readerFor(DictionaryEntry.class);
 
     public JsonDictionaryRepository(File file) {
         this.file = file;
     }
 
+    /** Callback nhận từng entry khi đọc tuần tự; trả về false để dừng sớm. */
+    @FunctionalInterface
+    public interface EntryVisitor {
+        boolean visit(DictionaryEntry entry) throws IOException;
+    }
+
     public synchronized List<DictionaryEntry> loadAll() throws IOException {
-        if (!file.exists()) return new ArrayList<>();
-        return mapper.readValue(file, new TypeReference<List<DictionaryEntry>>(){});
+        List<DictionaryEntry> out = new ArrayList<>();
+        forEach(e -> out.add(e));
+        return out;
+    }
+
+    public synchronized void forEach(EntryVisitor visitor) throws IOException {
+        if (file.exists()) read(file, visitor);
+    }
+
+    /** Đọc tuần tự một file bất kỳ (mảng JSON hoặc NDJSON). */
+    public void read(File source, EntryVisitor visitor) throws IOException {
+        try (JsonParser p = mapper.getFactory().createParser(source)) {
+            JsonToken t = p.nextToken();
+            if (t == JsonToken.START_ARRAY) t = p.nextToken();
+            // NDJSON là chuỗi các object gốc liên tiếp; mảng JSON kết thúc ở END_ARRAY
+            while (t != null && t != JsonToken.END_ARRAY) {
+                if (t != JsonToken.START_OBJECT) throw new JsonParseException(p, "Expected a dictionary entry object but found " + t);
+                if (!visitor.visit(entryReader.readValue(p))) return;
+                t = p.nextToken();
+            }
+        }
+    }
+
+    /** Chỉ đọc vài token đầu: file không có, trống hoặc là mảng rỗng. */
+    public synchronized boolean isEmpty() throws IOException {
+        if (!file.exists()) return true;
+        try (JsonParser p = mapper.getFactory().createParser(file)) {
+            JsonToken first = p.nextToken();
+            return first == null || (first == JsonToken.START_ARRAY && p.nextToken() == JsonToken.END_ARRAY);
+        }
     }
 
+    /** Ghi đè toàn bộ file một cách nguyên tử (xem {@link AtomicFiles}). */
     public synchronized void saveAll(List<DictionaryEntry> entries) throws IOException {
-        mapper.writerWithDefaultPrettyPrinter().writeValue(file, entries);
+        write(file, entries);
+    }
+
+    /** Ghi tuần tự ra file bất kỳ (file tạm + rename); định dạng theo đuôi file. */
+    public void write(File target, Iterable<DictionaryEntry> entries) throws IOException {
+        boolean ndjson = isNdjson(target);
+        AtomicFiles.write(target.toPath(), out -> {
+            try (JsonGenerator g = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                if (ndjson) {
+                    g.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+                    for (DictionaryEntry e : entries) g.writeObject(e);
+                    g.writeRaw('\n');
+                } else {
+                    g.setPrettyPrinter(new EntryPerLine());
+                    g.writeStartArray();
+                    for (DictionaryEntry e : entries) g.writeObject(e);
+                    g.writeEndArray();
+                    g.writeRaw('\n');
+                }
+            }
+        });
     }
 
+    public File getFile() { return file; }
+
     public synchronized Optional<DictionaryEntry> findByWord(String word) throws IOException {
-        return loadAll().stream().filter(e -> e.getWord().equalsIgnoreCase(word)).findFirst();
+        DictionaryEntry[] found = new DictionaryEntry[1];
+        forEach(e -> {
+            if (!e.getWord().equalsIgnoreCase(word)) return true;
+            found[0] = e;
+            return false;
+        });
+        return Optional.ofNullable(found[0]);
     }
-}
 
+    private static boolean isNdjson(File f) {
+        String name = f.getName().toLowerCase();
+        return name.endsWith(".ndjson") || name.endsWith(".jsonl");
+    }
+
+    /** Không thụt lề; chỉ xuống dòng giữa các phần tử của mảng gốc để file vẫn dễ đọc và diff. */
+    private static class EntryPerLine extends MinimalPrettyPrinter {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void beforeArrayValues(JsonGenerator g) throws IOException {
+            if (isRootArray(g)) g.writeRaw('\n');
+        }
 
+        @Override
+        public void writeArrayValueSeparator(JsonGenerator g) throws IOException {
+            g.writeRaw(isRootArray(g) ? ",\n" : ",");
+        }
+
+        @Override
+        public void writeEndArray(JsonGenerator g, int nrOfValues) throws IOException {
+            g.writeRaw(isRootArray(g) && nrOfValues > 0 ? "\n]" : "]");
+        }
+
+        private static boolean isRootArray(JsonGenerator g) {
+            return g.getOutputContext().inArray() && g.getOutputContext().getParent().inRoot();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package org.example.dictionarysuggestionsystem.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Nhật ký thay đổi chỉ ghi nối (mỗi dòng một bản ghi JSON) đặt cạnh file snapshot, chia thành các
+ * segment {@code <file>.wal.<seq>}. Một luồng nền gom mọi bản ghi đang chờ, ghi một lần và fsync một lần
+ * (group commit). Các hàm {@code append...Async} chỉ xếp hàng bản ghi (theo đúng thứ tự gọi) và trả về future
+ * hoàn tất khi nó đã bền vững; bên gọi chờ bằng {@link #awaitDurable} sau khi nhả khóa của mình, nhờ vậy các
+ * bên ghi đồng thời dùng chung được một lần fsync.
+ */
+public class MutationLog implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(MutationLog.class);
+    private static final String SUFFIX = ".wal.";
+    private static final Pending STOP = new Pending(null, false);
+
+    private final Path snapshotFile;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread committer;
+    private FileChannel channel;
+    private long segment;
+    private volatile long recordsInSegment;
+    private volatile long syncs;
+    private volatile boolean closed;
+
+    public MutationLog(Path snapshotFile) throws IOException {
+        this.snapshotFile = snapshotFile.toAbsolutePath();
+        List<Long> existing = segments();
+        this.segment = existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1;
+        this.channel = openSegment(segment);
+        this.committer = new Thread(this::commitLoop, "mutation-log-committer");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    public CompletableFuture<Void> appendPutAsync(DictionaryEntry entry) throws IOException {
+        return enqueue(new Pending(putLine(entry), false));
+    }
+
+    /** Nhiều bản ghi put dùng chung một lần fsync. */
+    public CompletableFuture<Void> appendPutsAsync(List<DictionaryEntry> entries) throws IOException {
+        if (entries.isEmpty()) return CompletableFuture.completedFuture(null);
+        // Bản ghi sau cùng bền vững nghĩa là cả lô đã bền vững (ghi theo thứ tự, lỗi thì hỏng cả lô)
+        CompletableFuture<Void> last = null;
+        for (DictionaryEntry entry : entries) last = enqueue(new Pending(putLine(entry), false));
+        return last;
+    }
+
+    public CompletableFuture<Void> appendDeleteAsync(String word) throws IOException {
+        ObjectNode rec = mapper.createObjectNode();
+        rec.put("op", "delete");
+        rec.put("word", word);
+        return enqueue(new Pending(line(rec), false));
+    }
+
+    /** Chờ future của một lần ghi {@code ...Async}; lỗi ghi được trả lại dưới dạng IOException. */
+    public static void awaitDurable(CompletableFuture<Void> f) throws IOException {
+        try {
+            f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) throw ((UncheckedIOException) e.getCause()).getCause();
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private byte[] putLine(DictionaryEntry entry) throws IOException {
+        ObjectNode rec = mapper.createObjectNode();
+        rec.put("op", "put");
+        rec.set("entry", mapper.valueToTree(entry));
+        return line(rec);
+    }
+
+    private byte[] line(ObjectNode rec) throws IOException {
+        return (mapper.writeValueAsString(rec) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Đóng segment hiện tại và mở segment mới; trả về số thứ tự segment mới. Mọi bản ghi trước
+     * thời điểm này nằm trong các segment nhỏ hơn và có thể bỏ đi sau khi snapshot tương ứng đã ghi xong.
+     */
+    public long rotate() throws IOException {
+        Pending p = new Pending(null, true);
+        awaitDurable(enqueue(p));
+        return p.rotatedTo;
+    }
+
+    /** Xóa các segment đã nằm trọn trong snapshot (số thứ tự nhỏ hơn upTo). */
+    public void discardBefore(long upTo) throws IOException {
+        for (long seq : segments()) {
+            if (seq < upTo) Files.deleteIfExists(segmentPath(seq));
+        }
+    }
+
+    public long recordsSinceRotate() { return recordsInSegment; }
+
+    /** Số lần fsync đã thực hiện từ khi mở nhật ký. */
+    public long syncCount() { return syncs; }
+
+    /** Tổng kích thước (byte) các segment còn trên đĩa. */
+    public long retainedBytes() throws IOException {
+        long total = 0;
+        for (long seq : segments()) total += Files.size(segmentPath(seq));
+        return total;
+    }
+
+    /** Còn segment nào chứa bản ghi (chưa được gộp vào snapshot) hay không. */
+    public boolean hasRecords() throws IOException {
+        for (long seq : segments()) {
+            if (Files.size(segmentPath(seq)) > 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Áp lại toàn bộ segment (theo thứ tự) lên danh sách entries đã nạp từ snapshot. Dòng cuối bị ghi dở
+     * do sập máy được bỏ qua.
+     */
+    public List<DictionaryEntry> replay(List<DictionaryEntry> entries) throws IOException {
+        // Khóa là word viết thường: mỗi bản ghi O(1) thay vì quét cả danh sách
+        Map<String, DictionaryEntry> out = new LinkedHashMap<>();
+        for (DictionaryEntry e : entries) out.put(key(e.getWord()), e);
+        int applied = 0;
+        for (long seq : segments()) {
+            try (BufferedReader r = Files.newBufferedReader(segmentPath(seq), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = r.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    JsonNode rec;
+                    try {
+                        rec = mapper.readTree(line);
+                    } catch (IOException e) {
+                        log.warn("Skipping unreadable log record in segment {}", seq);
+                        continue;
+                    }
+                    if ("put".equals(rec.path("op").asText())) {
+                        DictionaryEntry entry = mapper.treeToValue(rec.get("entry"), DictionaryEntry.class);
+                        out.put(key(entry.getWord()), entry);
+                    } else if ("delete".equals(rec.path("op").asText())) {
+                        String word = rec.path("word").asText();
+                        out.remove(key(word));
+                    }
+                    applied++;
+                }
+            }
+        }
+        if (applied > 0) log.info("Replayed {} logged mutations", applied);
+        return new ArrayList<>(out.values());
+    }
+
+    private static String key(String word) {
+        return word == null ? null : word.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        queue.add(STOP);
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Pending> late = new ArrayList<>();
+        queue.drainTo(late);
+        for (Pending p : late) p.done.completeExceptionally(new UncheckedIOException(new IOException("Mutation log is closed")));
+        channel.close();
+    }
+
+    private CompletableFuture<Void> enqueue(Pending p) throws IOException {
+        if (closed) throw new IOException("Mutation log is closed");
+        queue.add(p);
+        return p.done;
+    }
+
+    private void commitLoop() {
+        List<Pending> batch = new ArrayList<>();
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch);
+            // Đang đóng: vẫn ghi nốt những bản ghi xếp hàng trước STOP
+            stop = batch.remove(STOP);
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        List<Pending> written = new ArrayList<>();
+        try {
+            for (Pending p : batch) {
+                if (p.rotate) {
+                    flush(written);
+                    channel.force(true);
+                    syncs++;
+                    channel.close();
+                    segment++;
+                    channel = openSegment(segment);
+                    recordsInSegment = 0;
+                    p.rotatedTo = segment;
+                    p.done.complete(null);
+                } else {
+                    ByteBuffer buf = ByteBuffer.wrap(p.line);
+                    while (buf.hasRemaining()) channel.write(buf);
+                    written.add(p);
+                }
+            }
+            flush(written);
+        } catch (IOException e) {
+            for (Pending p : batch) p.done.completeExceptionally(new UncheckedIOException(e));
+        }
+    }
+
+    private void flush(List<Pending> written) throws IOException {
+        if (written.isEmpty()) return;
+        channel.force(false);
+        syncs++;
+        recordsInSegment += written.size();
+        for (Pending p : written) p.done.complete(null);
+        written.clear();
+    }
+
+    private FileChannel openSegment(long seq) throws IOException {
+        return FileChannel.open(segmentPath(seq), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long seq) {
+        return snapshotFile.resolveSibling(snapshotFile.getFileName() + SUFFIX + seq);
+    }
+
+    private List<Long> segments() throws IOException {
+        List<Long> out = new ArrayList<>();
+        Path dir = snapshotFile.getParent();
+        String prefix = snapshotFile.getFileName() + SUFFIX;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, prefix + "*")) {
+            for (Path p : ds) {
+                try {
+                    out.add(Long.parseLong(p.getFileName().toString().substring(prefix.length())));
+                } catch (NumberFormatException ignored) {
+                    // không phải segment
+                }
+            }
+        }
+        Collections.sort(out);
+        return out;
+    }
+
+    private static class Pending {
+        final byte[] line;
+        final boolean rotate;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        long rotatedTo;
+        Pending(byte[] line, boolean rotate) { this.line = line; this.rotate = rotate; }
+    }
+}
@@ -0,0 +1,325 @@
+package org.example.dictionarysuggestionsystem.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.example.dictionarysuggestionsystem.service.DictionaryService;
+import org.example.dictionarysuggestionsystem.utils.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Máy chủ HTTP không cần JavaFX, phục vụ gợi ý và CRUD qua JSON bằng com.sun.net.httpserver của JDK.
+ * <ul>
+ *   <li>GET /suggest?q=&amp;limit=&amp;budgetMillis= — gợi ý gộp (prefix, gần đúng, TF-IDF chạy song song)</li>
+ *   <li>POST /suggest/batch — {"queries": [...], "limit": n, "budgetMillis": n}, nhiều query trong một request,
+ *   chạy song song, mỗi query có hạn budgetMillis riêng</li>
+ *   <li>GET /suggest/prefix, /suggest/tokens, /suggest/substring, /suggest/fuzzy (maxDistance=), /suggest/tfidf — từng engine riêng</li>
+ *   <li>GET/POST /entries, GET/PUT/DELETE /entries/{word}, POST /entries/{word}/click</li>
+ * </ul>
+ * Phản hồi luôn có Content-Length nên kết nối HTTP/1.1 được giữ (keep-alive) cho các request tiếp theo.
+ */
+public class SuggestionServer implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(SuggestionServer.class);
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 1000;
+    private static final long DEFAULT_BUDGET_MILLIS = 50;
+    private static final int MAX_BATCH = 100;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final int FALLBACK_THREADS = Math.max(32, 4 * Runtime.getRuntime().availableProcessors());
+
+    private final DictionaryService service;
+    private final HttpServer http;
+    private final ExecutorService executor;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public SuggestionServer(DictionaryService service, InetSocketAddress address) throws IOException {
+        this.service = service;
+        this.http = HttpServer.create(address, 0);
+        // Mỗi request một virtual thread khi JDK có (21+)
+        this.executor = VirtualThreads.perTaskExecutor("http", FALLBACK_THREADS);
+        http.setExecutor(executor);
+        http.createContext("/suggest", ex -> handle(ex, this::suggest));
+        http.createContext("/entries", ex -> handle(ex, this::entries));
+    }
+
+    public void start() {
+        http.start();
+    }
+
+    public int port() {
+        return http.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        http.stop(0);
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface Route {
+        Object handle(HttpExchange ex, String path) throws IOException;
+    }
+
+    /** Lỗi trả về cho client với mã HTTP tương ứng. */
+    private static class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final int status;
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private void handle(HttpExchange ex, Route route) {
+        try (ex) {
+            try {
+                Object body = route.handle(ex, ex.getRequestURI().getPath());
+                send(ex, 200, body);
+            } catch (HttpError e) {
+                send(ex, e.status, Map.of("error", e.getMessage()));
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                send(ex, 400, Map.of("error", "Bad request: " + e.getMessage()));
+            } catch (RuntimeException e) {
+                log.warn("Request failed: {} {}", ex.getRequestMethod(), ex.getRequestURI(), e);
+                send(ex, 500, Map.of("error", "Internal error"));
+            }
+        } catch (IOException e) {
+            log.debug("Client connection failed", e);
+        }
+    }
+
+    private Object suggest(HttpExchange ex, String path) throws IOException {
+        if (path.equals("/suggest/batch")) {
+            requireMethod(ex, "POST");
+            JsonNode body = mapper.readTree(readBody(ex));
+            JsonNode queries = body.path("queries");
+            if (!queries.isArray()) throw new HttpError(400, "Expected a \"queries\" array");
+            if (queries.size() > MAX_BATCH) throw new HttpError(400, "At most " + MAX_BATCH + " queries per batch");
+            int limit = limit(body.path("limit").asInt(DEFAULT_LIMIT));
+            long budget = body.path("budgetMillis").asLong(DEFAULT_BUDGET_MILLIS);
+            return Map.of("results", batch(queries, limit, budget));
+        }
+        requireMethod(ex, "GET");
+        Map<String, String> params = params(ex);
+        String q = params.getOrDefault("q", "");
+        int limit = limit(intParam(params, "limit", DEFAULT_LIMIT));
+        switch (path) {
+            case "/suggest":
+            case "/suggest/":
+                return federated(q, limit, intParam(params, "budgetMillis", (int) DEFAULT_BUDGET_MILLIS));
+            case "/suggest/prefix":
+                return timed(q, "words", service.suggestByPrefixRanked(q, limit));
+            case "/suggest/substring":
+                return timed(q, "words", service.suggestBySubstring(q, limit));
+            case "/suggest/tokens":
+                return timed(q, "words", service.suggestByTokens(q, limit));
+            case "/suggest/fuzzy":
+                return timed(q, "words", service.suggestByLevenshteinFiltered(q, limit, intParam(params, "maxDistance", 2)));
+            case "/suggest/tfidf":
+                return timed(q, "entries", service.suggestByTfidf(q, limit));
+            default:
+                throw new HttpError(404, "No such endpoint: " + path);
+        }
+    }
+
+    /**
+     * Các query của batch chạy song song trên executor của server, mỗi query tự giới hạn trong budgetMillis nên
+     * cả batch mất khoảng một budget. Luồng request tự chạy các query chưa được luồng nào nhận (FutureTask chỉ chạy
+     * một lần) nên không bị kẹt khi pool luồng thường đã đầy.
+     */
+    private List<Object> batch(JsonNode queries, int limit, long budgetMillis) throws IOException {
+        List<FutureTask<Map<String, Object>>> tasks = new ArrayList<>(queries.size());
+        for (JsonNode q : queries) {
+            FutureTask<Map<String, Object>> task = new FutureTask<>(() -> federated(q.asText(), limit, budgetMillis));
+            tasks.add(task);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // Server đang đóng: task được chạy ngay dưới đây
+            }
+        }
+        List<Object> results = new ArrayList<>(tasks.size());
+        for (FutureTask<Map<String, Object>> task : tasks) {
+            task.run();
+            try {
+                results.add(task.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for batch results", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private Map<String, Object> federated(String q, int limit, long budgetMillis) {
+        DictionaryService.FederatedResult r = service.suggestFederated(q, limit, budgetMillis);
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("query", q);
+        out.put("words", r.words);
+        out.put("completed", r.completed);
+        out.put("timedOut", r.timedOut);
+        out.put("micros", r.micros);
+        return out;
+    }
+
+    private static Map<String, Object> timed(String q, String field, DictionaryService.TimedResult<?> r) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("query", q);
+        out.put(field, r.value);
+        out.put("micros", r.micros);
+        return out;
+    }
+
+    private Object entries(HttpExchange ex, String path) throws IOException {
+        if (!path.equals("/entries") && !path.startsWith("/entries/")) throw new HttpError(404, "No such endpoint: " + path);
+        String rest = path.equals("/entries") ? "" : path.substring("/entries/".length());
+        String method = ex.getRequestMethod();
+        if (rest.isEmpty()) {
+            if (method.equals("POST")) {
+                DictionaryEntry entry = readEntry(ex);
+                service.add(entry);
+                return entry;
+            }
+            requireMethod(ex, "GET");
+            Map<String, String> params = params(ex);
+            List<DictionaryEntry> all = service.getAllEntries();
+            int offset = Math.max(0, Math.min(all.size(), intParam(params, "offset", 0)));
+            int limit = limit(intParam(params, "limit", 100));
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("total", all.size());
+            out.put("entries", all.subList(offset, Math.min(all.size(), offset + limit)));
+            return out;
+        }
+        if (rest.endsWith("/click")) {
+            requireMethod(ex, "POST");
+            String word = rest.substring(0, rest.length() - "/click".length());
+            existing(word);
+            service.incrementFrequency(word);
+            return Map.of("word", word, "frequency", service.getFrequency(word));
+        }
+        switch (method) {
+            case "GET":
+                return existing(rest);
+            case "PUT": {
+                DictionaryEntry entry = readEntry(ex);
+                if (!entry.getWord().equalsIgnoreCase(rest)) throw new HttpError(400, "Word in body does not match the path");
+                service.edit(entry);
+                return entry;
+            }
+            case "DELETE":
+                existing(rest);
+                service.delete(rest);
+                return Map.of("deleted", rest);
+            default:
+                throw new HttpError(405, "Method not allowed: " + method);
+        }
+    }
+
+    private DictionaryEntry existing(String word) {
+        return service.find(word).orElseThrow(() -> new HttpError(404, "No such word: " + word));
+    }
+
+    private DictionaryEntry readEntry(HttpExchange ex) throws IOException {
+        DictionaryEntry entry = mapper.readValue(readBody(ex), DictionaryEntry.class);
+        if (entry.getWord() == null || entry.getWord().isBlank()) throw new HttpError(400, "Entry needs a non-empty word");
+        return entry;
+    }
+
+    private static byte[] readBody(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) throw new HttpError(413, "Request body too large");
+            return body;
+        }
+    }
+
+    private static void requireMethod(HttpExchange ex, String method) {
+        if (!ex.getRequestMethod().equals(method)) throw new HttpError(405, "Method not allowed: " + ex.getRequestMethod());
+    }
+
+    private static int limit(int requested) {
+        if (requested <= 0) throw new HttpError(400, "limit must be positive");
+        return Math.min(requested, MAX_LIMIT);
+    }
+
+    private static int intParam(Map<String, String> params, String name, int def) {
+        String v = params.get(name);
+        if (v == null || v.isEmpty()) return def;
+        try {
+            return Integer.parseInt(v);
+        } catch (NumberFormatException e) {
+            throw new HttpError(400, name + " must be an integer");
+        }
+    }
+
+    private static Map<String, String> params(HttpExchange ex) {
+        Map<String, String> out = new HashMap<>();
+        String raw = ex.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) return out;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            out.putIfAbsent(key, value);
+        }
+        return out;
+    }
+
+    /** Độ dài cố định (không chunked) để client giữ được kết nối cho request sau. */
+    private void send(HttpExchange ex, int status, Object body) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /** Khởi động: --data dictionary.json --host 127.0.0.1 --port 8080 (cần --host 0.0.0.0 để mở ra ngoài máy). */
+    public static void main(String[] args) throws IOException {
+        String data = "dictionary.json";
+        String host = "127.0.0.1";
+        int port = 8080;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--data": data = args[i + 1]; break;
+                case "--host": host = args[i + 1]; break;
+                case "--port": port = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        DictionaryService service = new DictionaryService(new File(data));
+        SuggestionServer server = new SuggestionServer(service, new InetSocketAddress(host, port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            try {
+                service.close();
+            } catch (IOException e) {
+                log.warn("Failed to close dictionary cleanly", e);
+            }
+        }, "shutdown"));
+        server.start();
+        log.info("Suggestion server listening on http://{}:{}/ ({} entries)", host, server.port(), service.getAllEntries().size());
+    }
+}
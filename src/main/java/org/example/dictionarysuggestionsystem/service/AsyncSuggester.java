@@ -0,0 +1,79 @@
+package org.example.dictionarysuggestionsystem.service;
+
+import org.example.dictionarysuggestionsystem.utils.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Chạy SearchSession ngoài luồng giao diện. Mỗi query chờ debounceMillis sau phím gõ cuối rồi mới tính;
+ * phím mới hủy query cũ (kể cả khi đang chạy, SearchSession dừng giữa các bước khi bị interrupt) và chỉ
+ * kết quả của query mới nhất được giao qua callbackExecutor (với JavaFX là Platform::runLater).
+ */
+public class AsyncSuggester implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(AsyncSuggester.class);
+
+    private final SearchSession session;
+    private final long debounceMillis;
+    private final Executor callbackExecutor;
+    // Mỗi query một virtual thread (ngủ hết debounce rồi tính); SearchSession.suggest đồng bộ nên các query
+    // vẫn chạy tuần tự, luồng bị hủy khi đang ngủ thì thoát ngay
+    private final ExecutorService worker;
+    private final AtomicLong latest = new AtomicLong();
+    private Future<?> pending;
+
+    public AsyncSuggester(SearchSession session, long debounceMillis, Executor callbackExecutor) {
+        this.session = session;
+        this.debounceMillis = debounceMillis;
+        this.callbackExecutor = callbackExecutor;
+        this.worker = VirtualThreads.perTaskExecutor("suggestions", 1);
+    }
+
+    public synchronized void submit(String query, Consumer<SearchSession.Result> onResult) {
+        long seq = latest.incrementAndGet();
+        if (pending != null) pending.cancel(true);
+        pending = worker.submit(() -> run(seq, query, onResult));
+    }
+
+    /** Bỏ query đang chờ hoặc đang chạy; kết quả của nó sẽ không được giao. */
+    public synchronized void cancel() {
+        latest.incrementAndGet();
+        if (pending != null) pending.cancel(true);
+        pending = null;
+    }
+
+    private void run(long seq, String query, Consumer<SearchSession.Result> onResult) {
+        try {
+            Thread.sleep(debounceMillis);
+        } catch (InterruptedException e) {
+            return;
+        }
+        if (seq != latest.get()) return;
+        SearchSession.Result result;
+        try {
+            result = session.suggest(query);
+        } catch (CancellationException e) {
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Suggestion failed for query '{}'", query, e);
+            return;
+        }
+        if (seq != latest.get()) return;
+        // Kiểm tra lại trên luồng nhận: có thể đã có phím mới trong lúc chờ được giao
+        callbackExecutor.execute(() -> {
+            if (seq == latest.get()) onResult.accept(result);
+        });
+    }
+
+    @Override
+    public void close() {
+        cancel();
+        worker.shutdownNow();
+    }
+}
@@ -1,9 +1,14 @@
 package org.example.dictionarysuggestionsystem.service;
 
+import org.example.dictionarysuggestionsystem.algorithms.AccentRanker;
+import org.example.dictionarysuggestionsystem.algorithms.DeletionIndex;
 import org.example.dictionarysuggestionsystem.algorithms.Levenshtein;
-import org.example.dictionarysuggestionsystem.algorithms.TfidfRanker;
+import org.example.dictionarysuggestionsystem.algorithms.SubstringIndex;
+import org.example.dictionarysuggestionsystem.algorithms.TokenIndex;
 import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.example.dictionarysuggestionsystem.repository.BinaryDictionaryRepository;
 import org.example.dictionarysuggestionsystem.repository.JsonDictionaryRepository;
+import org.example.dictionarysuggestionsystem.repository.MutationLog;
 import org.example.dictionarysuggestionsystem.trie.Trie;
 import org.example.dictionarysuggestionsystem.utils.NormalizerUtil;
 import org.slf4j.Logger;
@@ -13,35 +18,129 @@ import java.io.File;
 import java.io.InputStream;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-public class DictionaryService {
+public class DictionaryService implements AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(DictionaryService.class);
+    public static final int DEFAULT_SYMSPELL_MAX_DISTANCE = 2;
+    public static final int DEFAULT_SYMSPELL_PREFIX_LENGTH = 7;
+    private static final long COMPACTION_INTERVAL_SECONDS = 30;
+    // Nén trie khi node bị cắt chiếm từ 1/4 số node trở lên
+    private static final int TRIE_DEAD_NODE_DIVISOR = 4;
+    // Dựng lại chỉ mục chuỗi con/âm tiết khi số từ thêm sau lần dựng (quét tuyến tính mỗi truy vấn) đạt ngưỡng
+    // này, bất kể kích thước từ điển, để phần quét luôn bị chặn bởi một hằng số
+    static final int SEARCH_INDEX_MAX_PENDING = 1024;
+    // Nhật ký giữ lại từ lần xuất JSON gần nhất đạt ngưỡng này thì lần compact kế tiếp xuất cả JSON
+    private static final long JSON_EXPORT_LOG_BYTES = 8L << 20;
+    private static final long FREQUENCY_FLUSH_INTERVAL_MILLIS = 500;
+    private static final int SUGGESTION_CACHE_SIZE = 256;
+    // Ít nhất một luồng cho mỗi engine để engine nhanh không phải chờ engine chậm
+    private static final int QUERY_THREADS = Math.max(3, Runtime.getRuntime().availableProcessors());
 
     private final JsonDictionaryRepository repo;
-    private final Trie trie = new Trie();
-    private final TfidfRanker tfidf = new TfidfRanker();
-    private List<DictionaryEntry> allEntries = new ArrayList<>();
+    private final BinaryDictionaryRepository binaryRepo;
+    private final MutationLog mutationLog;
+    private final ScheduledExecutorService background;
+    // Chạy song song các engine của suggestFederated
+    private final ExecutorService queryPool;
+    private final Object compactionLock = new Object();
+    private final FrequencyCounter frequencies = new FrequencyCounter();
+    private final int symSpellMaxDistance;
+    private final int symSpellPrefixLength;
+    // Bên đọc chỉ đọc tham chiếu này một lần cho mỗi truy vấn; bên ghi (synchronized) thay bằng phiên bản mới
+    private volatile IndexSnapshot snapshot = IndexSnapshot.empty();
+    // Tăng khi tập từ thay đổi (thêm/xóa/sửa/nạp lại); dùng để biết chỉ mục SymSpell dựng nền đã cũ chưa
+    private long wordGeneration;
+    // Tăng khi store được dựng lại từ đầu (nạp lại, nhập thay thế) nên id cũ không còn nghĩa
+    private long storeGeneration;
+    // Đã xếp một lần dựng lại chỉ mục chuỗi con/âm tiết vào luồng nền mà chưa chạy
+    private final AtomicBoolean searchIndexRebuildQueued = new AtomicBoolean();
+    // Snapshot nhị phân chưa phản ánh dữ liệu hiện tại (vừa nạp từ JSON)
+    private volatile boolean binaryStale;
+    // Thời gian từng pha của lần dựng chỉ mục gần nhất (micro giây)
+    private volatile Map<String, Long> lastBuildTimings = Map.of();
+    // Danh sách gợi ý đã gộp của các SearchSession, khóa là truy vấn chuẩn hóa
+    final SuggestionCache suggestionCache = new SuggestionCache(SUGGESTION_CACHE_SIZE);
 
     public DictionaryService(File dataFile) {
+        this(dataFile, DEFAULT_SYMSPELL_MAX_DISTANCE, DEFAULT_SYMSPELL_PREFIX_LENGTH);
+    }
+
+    /**
+     * symSpellMaxDistance <= 0 tắt chỉ mục xóa ký tự (SymSpell); prefixLength giới hạn số ký tự đầu
+     * được lập chỉ mục để bộ nhớ không tăng theo độ dài từ.
+     */
+    public DictionaryService(File dataFile, int symSpellMaxDistance, int symSpellPrefixLength) {
         this.repo = new JsonDictionaryRepository(dataFile);
+        this.binaryRepo = new BinaryDictionaryRepository(dataFile);
+        this.symSpellMaxDistance = symSpellMaxDistance;
+        this.symSpellPrefixLength = symSpellPrefixLength;
+        MutationLog opened = null;
+        try {
+            opened = new MutationLog(dataFile.toPath());
+        } catch (IOException e) {
+            log.error("Failed to open mutation log, falling back to full rewrites", e);
+        }
+        this.mutationLog = opened;
+        AtomicInteger queryThreads = new AtomicInteger();
+        this.queryPool = Executors.newFixedThreadPool(QUERY_THREADS, r -> {
+            Thread t = new Thread(r, "dictionary-query-" + queryThreads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.background = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "dictionary-background");
+            t.setDaemon(true);
+            return t;
+        });
         try {
-            ensureSeedIfEmpty(dataFile);
             reload();
         } catch (IOException e) {
             log.error("Failed to load dictionary", e);
         }
+        background.scheduleWithFixedDelay(() -> {
+            try {
+                flushFrequencies();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Frequency flush failed", e);
+            }
+        }, FREQUENCY_FLUSH_INTERVAL_MILLIS, FREQUENCY_FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        background.scheduleWithFixedDelay(() -> {
+            try {
+                compactTrieIfSparse();
+                rebuildSearchIndexesIfStale();
+            } catch (RuntimeException e) {
+                log.warn("Index compaction failed", e);
+            }
+        }, COMPACTION_INTERVAL_SECONDS, COMPACTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        if (mutationLog != null) {
+            background.scheduleWithFixedDelay(() -> {
+                try {
+                    if (binaryStale || mutationLog.recordsSinceRotate() > 0) compact();
+                } catch (IOException e) {
+                    log.warn("Background compaction failed", e);
+                }
+            }, COMPACTION_INTERVAL_SECONDS, COMPACTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
     }
 
-    private void ensureSeedIfEmpty(File dataFile) throws IOException {
-        boolean needSeed = !dataFile.exists();
-        if (!needSeed) {
-            List<DictionaryEntry> current = repo.loadAll();
-            needSeed = current == null || current.isEmpty();
-        }
-        if (needSeed) {
+    private void ensureSeedIfEmpty() throws IOException {
+        if (repo.isEmpty()) {
             try (InputStream is = DictionaryService.class.getResourceAsStream("/dictionary-seed.json")) {
                 if (is == null) {
                     log.warn("Seed file not found in resources: /dictionary-seed.json");
@@ -55,17 +154,83 @@ public class DictionaryService {
         }
     }
 
+    /**
+     * Nạp từ snapshot nhị phân nếu nó còn mới hơn file JSON, ngược lại nhập từ JSON (seed nếu trống).
+     * Nhật ký được áp lại lên dữ liệu vừa nạp; khi nhật ký trống (đã đóng bình thường) thì dùng thẳng
+     * Trie và TF-IDF trong snapshot, còn chỉ mục SymSpell, chuỗi con và âm tiết được dựng ở luồng nền.
+     */
     public synchronized void reload() throws IOException {
-        this.allEntries = repo.loadAll();
-        rebuildTrie();
+        wordGeneration++;
+        storeGeneration++;
+        BinaryDictionaryRepository.Snapshot loaded = null;
+        try {
+            loaded = binaryRepo.load();
+            if (loaded == null && binaryRepo.getFile().exists()) {
+                log.warn("{} changed after the binary snapshot was written; importing JSON and replaying the mutation log",
+                    repo.getFile());
+            }
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable binary snapshot, importing JSON instead", e);
+        }
+        List<DictionaryEntry> entries;
+        if (loaded != null) {
+            if (mutationLog == null || !mutationLog.hasRecords()) {
+                snapshot = IndexSnapshot.of(snapshot.version + 1, loaded.entries, loaded.trie, loaded.tfidf);
+                binaryStale = false;
+                buildDerivedIndexesInBackground();
+                return;
+            }
+            entries = loaded.entries;
+        } else {
+            ensureSeedIfEmpty();
+            entries = repo.loadAll();
+        }
+        if (mutationLog != null) entries = mutationLog.replay(entries);
+        snapshot = buildSnapshot(entries);
+        binaryStale = true;
     }
 
-    private void rebuildTrie() {
-        for (DictionaryEntry e : allEntries) {
-            trie.insert(e.getWord());
-        }
+    private IndexSnapshot buildSnapshot(List<DictionaryEntry> entries) {
+        Map<String, Long> timings = new LinkedHashMap<>();
+        IndexSnapshot next = IndexSnapshot.build(snapshot.version + 1, entries, symSpellMaxDistance, symSpellPrefixLength, timings);
+        lastBuildTimings = Collections.unmodifiableMap(timings);
+        log.info("Built indexes for {} entries, phase timings (us): {}", entries.size(), timings);
+        return next;
+    }
+
+    /** Thời gian từng pha (normalize, trie, tfidf, symspell) của lần dựng toàn bộ chỉ mục gần nhất, tính bằng micro giây. */
+    public Map<String, Long> getLastBuildTimings() {
+        return lastBuildTimings;
+    }
+
+    /** Dựng chỉ mục SymSpell (nếu bật), chuỗi con và âm tiết cho snapshot vừa nạp từ file nhị phân. */
+    private void buildDerivedIndexesInBackground() {
+        background.execute(() -> {
+            while (true) {
+                IndexSnapshot base;
+                long generation;
+                synchronized (this) {
+                    base = snapshot;
+                    generation = wordGeneration;
+                }
+                DeletionIndex deletion = symSpellMaxDistance > 0
+                    ? IndexSnapshot.buildDeletionIndex(base.entries(), symSpellMaxDistance, symSpellPrefixLength) : null;
+                SubstringIndex substring = IndexSnapshot.buildSubstringIndex(base.store);
+                TokenIndex tokens = IndexSnapshot.buildTokenIndex(base.store);
+                synchronized (this) {
+                    // Có thêm/xóa trong lúc dựng thì dựng lại từ bản mới nhất
+                    if (generation != wordGeneration) continue;
+                    IndexSnapshot next = snapshot.withSearchIndexes(base.store, substring, tokens);
+                    snapshot = deletion == null ? next : next.withDeletionIndex(deletion);
+                    return;
+                }
+            }
+        });
     }
 
+    /** Tăng mỗi khi dữ liệu thay đổi; dùng để vô hiệu hóa cache phía trên. */
+    public long getIndexVersion() { return snapshot.version; }
+
     public static class TimedResult<T> {
         public final T value; public final long micros;
         public TimedResult(T value, long micros) { this.value = value; this.micros = micros; }
@@ -73,82 +238,425 @@ public class DictionaryService {
 
     public TimedResult<List<String>> suggestByPrefix(String prefix, int limit, boolean bfs) {
         long t0 = System.nanoTime();
-        List<String> res = trie.prefixSuggest(prefix, limit, bfs);
+        List<String> res = snapshot.trie.prefixSuggest(prefix, limit, bfs);
+        long t1 = System.nanoTime();
+        return new TimedResult<>(res, (t1 - t0) / 1000);
+    }
+
+    /**
+     * Top-K theo frequency hiện thời: kết quả của trie cộng thêm các lượt click chưa flush.
+     * Chỉ những từ đang có lượt click chờ mới có thể vượt lên, nên chỉ cần xét thêm các từ đó.
+     */
+    public TimedResult<List<String>> suggestByPrefixRanked(String prefix, int limit) {
+        long t0 = System.nanoTime();
+        IndexSnapshot s = snapshot;
+        List<String> res = s.trie.topKByFrequency(prefix, limit);
+        if (prefix != null) res = withPendingClicks(s, NormalizerUtil.normalize(prefix), res, limit);
         long t1 = System.nanoTime();
         return new TimedResult<>(res, (t1 - t0) / 1000);
     }
 
+    /** Xếp lại top-K của trie theo frequency cộng các lượt click chưa flush (nếu có). */
+    List<String> withPendingClicks(IndexSnapshot s, String normPrefix, List<String> res, int limit) {
+        if (frequencies.isEmpty()) return res;
+        Set<String> candidates = new LinkedHashSet<>(res);
+        for (String w : frequencies.pendingWords()) {
+            s.find(w).filter(e -> e.normalizedWord().startsWith(normPrefix)).ifPresent(e -> candidates.add(e.getWord()));
+        }
+        return candidates.stream()
+            .sorted(Comparator.comparingLong((String w) -> s.trie.frequencyOf(w) + frequencies.pending(w)).reversed())
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
+    /** Kết quả của suggestFederated: danh sách đã gộp và engine nào kịp hạn. */
+    public static class FederatedResult {
+        public final List<String> words;
+        /** Engine xong trong hạn -> thời gian chạy (micro giây), theo thứ tự ưu tiên. */
+        public final Map<String, Long> completed;
+        /** Engine đã chạy nhưng quá hạn nên bị hủy và không có trong kết quả. */
+        public final Set<String> timedOut;
+        public final long micros;
+        public FederatedResult(List<String> words, Map<String, Long> completed, Set<String> timedOut, long micros) {
+            this.words = words; this.completed = completed; this.timedOut = timedOut; this.micros = micros;
+        }
+    }
+
+    public FederatedResult suggestFederated(String query, int limit, long budgetMillis) {
+        return suggestFederated(query, limit, budgetMillis, Map.of());
+    }
+
+    /**
+     * Chạy song song prefix, âm tiết, chuỗi con, gần đúng và TF-IDF ("prefix", "tokens", "substring", "fuzzy",
+     * "tfidf") rồi gộp
+     * theo thứ tự ưu tiên như SearchSession. Mỗi engine có hạn riêng (engineDeadlineMillis, mặc định bằng
+     * budgetMillis) và không quá budgetMillis; engine trễ hạn bị hủy, kết quả là phần đã có nhưng vẫn đúng thứ
+     * tự ưu tiên. Độ trễ vì thế là max chứ không phải tổng thời gian các engine.
+     */
+    public FederatedResult suggestFederated(String query, int limit, long budgetMillis, Map<String, Long> engineDeadlineMillis) {
+        long t0 = System.nanoTime();
+        String nq = NormalizerUtil.normalize(query == null ? "" : query.trim());
+        if (nq.isEmpty() || limit <= 0) return new FederatedResult(List.of(), Map.of(), Set.of(), 0);
+        IndexSnapshot s = snapshot;
+        Map<String, Future<TimedResult<List<String>>>> running = new LinkedHashMap<>();
+        running.put("prefix", submitEngine(() -> withPendingClicks(s, nq, s.trie.topKByFrequency(nq, limit), limit)));
+        if (SearchSession.runsTokens(nq)) running.put("tokens", submitEngine(() -> s.tokenWords(nq, limit)));
+        if (SearchSession.runsSubstring(nq)) running.put("substring", submitEngine(() -> s.substringWords(nq, limit)));
+        if (SearchSession.runsFuzzy(nq)) {
+            running.put("fuzzy", submitEngine(() ->
+                SearchSession.fuzzyWords(nq, s.trie.fuzzySearch(nq, SearchSession.fuzzyDistance(nq)), limit)));
+        }
+        if (SearchSession.runsTfidf(nq)) running.put("tfidf", submitEngine(() -> SearchSession.tfidfWords(s, nq)));
+
+        long budgetEnd = t0 + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        Map<String, List<String>> lists = new HashMap<>();
+        Map<String, Long> completed = new LinkedHashMap<>();
+        Set<String> timedOut = new LinkedHashSet<>();
+        boolean interrupted = false;
+        for (Map.Entry<String, Future<TimedResult<List<String>>>> e : running.entrySet()) {
+            Future<TimedResult<List<String>>> f = e.getValue();
+            long deadline = Math.min(budgetEnd, t0 + TimeUnit.MILLISECONDS.toNanos(engineDeadlineMillis.getOrDefault(e.getKey(), budgetMillis)));
+            try {
+                if (interrupted) throw new TimeoutException();
+                TimedResult<List<String>> r = f.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                lists.put(e.getKey(), r.value);
+                completed.put(e.getKey(), r.micros);
+            } catch (TimeoutException ex) {
+                f.cancel(true);
+                timedOut.add(e.getKey());
+            } catch (InterruptedException ex) {
+                // Người gọi bị hủy: bỏ các engine còn lại, trả về phần đã có
+                interrupted = true;
+                f.cancel(true);
+                timedOut.add(e.getKey());
+            } catch (ExecutionException ex) {
+                log.warn("Suggestion engine {} failed", e.getKey(), ex.getCause());
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        List<String> words = AccentRanker.rerank(query,
+            SearchSession.merge(limit, lists.get("prefix"), lists.get("tokens"), lists.get("substring"), lists.get("fuzzy"),
+                lists.get("tfidf")));
+        return new FederatedResult(Collections.unmodifiableList(words), Collections.unmodifiableMap(completed),
+            Collections.unmodifiableSet(timedOut), (System.nanoTime() - t0) / 1000);
+    }
+
+    private Future<TimedResult<List<String>>> submitEngine(Supplier<List<String>> engine) {
+        return queryPool.submit(() -> {
+            long t0 = System.nanoTime();
+            List<String> value = engine.get();
+            return new TimedResult<>(value, (System.nanoTime() - t0) / 1000);
+        });
+    }
+
+    /** Phiên gõ phím cho một ô tìm kiếm; dùng chung cache kết quả của service. */
+    public SearchSession newSession() {
+        return new SearchSession(this);
+    }
+
+    IndexSnapshot currentSnapshot() { return snapshot; }
+
+    boolean hasPendingClicks() { return !frequencies.isEmpty(); }
+
     public TimedResult<List<String>> suggestByLevenshtein(String query, int limit) {
         long t0 = System.nanoTime();
         String nq = NormalizerUtil.normalize(query);
-        List<String> words = allEntries.stream().map(DictionaryEntry::getWord).collect(Collectors.toList());
-        List<String> sorted = words.stream()
-            .sorted(Comparator.comparingInt(w -> Levenshtein.distance(nq, NormalizerUtil.normalize(w))))
+        List<DictionaryEntry> entries = snapshot.entries();
+        // Mỗi entry tính khoảng cách một lần trên dạng chuẩn hóa đã lưu, không tính lại trong bộ so sánh
+        int[] distance = new int[entries.size()];
+        for (int i = 0; i < distance.length; i++) distance[i] = Levenshtein.distanceBitParallel(nq, entries.get(i).normalizedWord());
+        List<String> sorted = IntStream.range(0, distance.length).boxed()
+            .sorted(Comparator.comparingInt(i -> distance[i]))
             .limit(limit)
+            .map(i -> entries.get(i).getWord())
             .collect(Collectors.toList());
         long t1 = System.nanoTime();
         return new TimedResult<>(sorted, (t1 - t0) / 1000);
     }
 
+    /**
+     * Sửa lỗi chính tả bằng chỉ mục xóa ký tự; trả về danh sách rỗng nếu chỉ mục bị tắt.
+     */
+    public TimedResult<List<String>> suggestBySymSpell(String query, int limit, int maxDistance) {
+        long t0 = System.nanoTime();
+        DeletionIndex index = snapshot.deletionIndex;
+        List<String> res = index == null ? Collections.emptyList() : index.lookup(query, maxDistance, limit);
+        long t1 = System.nanoTime();
+        return new TimedResult<>(res, (t1 - t0) / 1000);
+    }
+
+    /**
+     * Các từ chứa query ở bất kỳ vị trí nào ("dụng" -> ứng dụng, áp dụng), frequency giảm dần; rỗng khi
+     * chỉ mục chuỗi con chưa dựng xong.
+     */
+    public TimedResult<List<String>> suggestBySubstring(String query, int limit) {
+        long t0 = System.nanoTime();
+        List<String> res = snapshot.substringWords(NormalizerUtil.normalize(query), limit);
+        long t1 = System.nanoTime();
+        return new TimedResult<>(res, (t1 - t0) / 1000);
+    }
+
+    /**
+     * Các từ mà mỗi âm tiết của query là tiền tố của một âm tiết trong từ ("ung d" -> ứng dụng), frequency giảm
+     * dần; rỗng khi chỉ mục âm tiết chưa dựng xong.
+     */
+    public TimedResult<List<String>> suggestByTokens(String query, int limit) {
+        long t0 = System.nanoTime();
+        List<String> res = snapshot.tokenWords(NormalizerUtil.normalize(query), limit);
+        long t1 = System.nanoTime();
+        return new TimedResult<>(res, (t1 - t0) / 1000);
+    }
+
     public TimedResult<List<DictionaryEntry>> suggestByTfidf(String query, int limit) {
         long t0 = System.nanoTime();
-        List<DictionaryEntry> ranked = tfidf.rankByQuery(query, allEntries, limit);
+        List<DictionaryEntry> ranked = snapshot.tfidf.rankByQuery(query, limit);
         long t1 = System.nanoTime();
         return new TimedResult<>(ranked, (t1 - t0) / 1000);
     }
 
     public TimedResult<List<String>> suggestByLevenshteinFiltered(String query, int limit, int maxDistance) {
         long t0 = System.nanoTime();
-        String nq = NormalizerUtil.normalize(query);
-        List<String> words = allEntries.stream().map(DictionaryEntry::getWord).collect(Collectors.toList());
-        List<String> filtered = words.stream()
-            .map(w -> new AbstractMap.SimpleEntry<>(w, Levenshtein.distance(nq, NormalizerUtil.normalize(w))))
-            .filter(e -> e.getValue() <= maxDistance)
-            .sorted(Comparator.comparingInt(AbstractMap.SimpleEntry::getValue))
+        List<String> filtered = snapshot.trie.fuzzySearch(query, maxDistance).stream()
+            .sorted(Comparator.comparingInt((Trie.Match m) -> m.distance).thenComparing(m -> m.word))
             .limit(limit)
-            .map(AbstractMap.SimpleEntry::getKey)
+            .map(m -> m.word)
             .collect(Collectors.toList());
         long t1 = System.nanoTime();
         return new TimedResult<>(filtered, (t1 - t0) / 1000);
     }
 
-    public synchronized void add(DictionaryEntry entry) throws IOException {
-        allEntries.removeIf(e -> e.getWord().equalsIgnoreCase(entry.getWord()));
-        allEntries.add(entry);
-        repo.saveAll(allEntries);
-        trie.insert(entry.getWord());
+    public void add(DictionaryEntry entry) throws IOException {
+        CompletableFuture<Void> durable;
+        synchronized (this) {
+            wordGeneration++;
+            durable = publish(snapshot.withAdded(entry), l -> l.appendPutAsync(entry));
+            queueSearchIndexRebuildIfFull();
+        }
+        MutationLog.awaitDurable(durable);
     }
 
-    public synchronized void delete(String word) throws IOException {
-        allEntries.removeIf(e -> e.getWord().equalsIgnoreCase(word));
-        repo.saveAll(allEntries);
-        rebuildTrie();
+    public void delete(String word) throws IOException {
+        CompletableFuture<Void> durable;
+        synchronized (this) {
+            wordGeneration++;
+            durable = publish(snapshot.withDeleted(word), l -> l.appendDeleteAsync(word));
+        }
+        MutationLog.awaitDurable(durable);
     }
 
-    public synchronized void edit(DictionaryEntry entry) throws IOException {
-        delete(entry.getWord());
-        add(entry);
+    public void edit(DictionaryEntry entry) throws IOException {
+        CompletableFuture<Void> durable;
+        synchronized (this) {
+            wordGeneration++;
+            // Bản ghi put đã thay thế entry cùng word nên không cần ghi thêm delete
+            durable = publish(snapshot.withDeleted(entry.getWord()).withAdded(entry), l -> l.appendPutAsync(entry));
+        }
+        MutationLog.awaitDurable(durable);
     }
 
-    public synchronized void incrementFrequency(String word) throws IOException {
-        DictionaryEntry existing = allEntries.stream()
-            .filter(e -> e.getWord().equalsIgnoreCase(word))
-            .findFirst()
-            .orElse(null);
-        if (existing != null) {
-            DictionaryEntry updated = new DictionaryEntry(
-                existing.getWord(),
-                existing.getMeaning(),
-                existing.getFrequency() + 1,
-                existing.getTags()
-            );
-            allEntries.removeIf(e -> e.getWord().equalsIgnoreCase(word));
-            allEntries.add(updated);
-            repo.saveAll(allEntries);
+    /**
+     * Ghi nhận một lượt click: chỉ tăng bộ đếm trong bộ nhớ (O(1), không khóa, không I/O).
+     * Luồng nền gộp các lượt click vào entries, chỉ mục và nhật ký sau mỗi FREQUENCY_FLUSH_INTERVAL_MILLIS.
+     */
+    public void incrementFrequency(String word) {
+        if (word == null || word.isEmpty()) return;
+        frequencies.increment(word);
+    }
+
+    /** Frequency hiện thời của từ, gồm cả các lượt click chưa flush. */
+    public long getFrequency(String word) {
+        return snapshot.find(word).map(e -> e.getFrequency() + frequencies.pending(word)).orElse(0L);
+    }
+
+    /**
+     * Thu hồi các node trie mà lệnh xóa đã cắt khi chúng chiếm từ 1/TRIE_DEAD_NODE_DIVISOR số node. Trie được
+     * nén ngoài khóa; chỉ công bố nếu trong lúc đó không có thay đổi nào khác, ngược lại chờ lần sau.
+     */
+    void compactTrieIfSparse() {
+        IndexSnapshot s = snapshot;
+        int dead = s.trie.deadNodeCount();
+        if (dead == 0 || (long) dead * TRIE_DEAD_NODE_DIVISOR < s.trie.nodeCount()) return;
+        Trie compacted = s.trie.compact();
+        synchronized (this) {
+            if (snapshot != s) return;
+            snapshot = s.withTrie(compacted);
         }
+        log.info("Compacted trie: {} -> {} nodes", s.trie.nodeCount(), compacted.nodeCount());
     }
 
-    public List<DictionaryEntry> getAllEntries() { return Collections.unmodifiableList(allEntries); }
-}
+    /**
+     * Dựng lại chỉ mục chuỗi con và âm tiết khi phần từ thêm sau lần dựng đạt SEARCH_INDEX_MAX_PENDING. Dựng
+     * ngoài khóa từ store của snapshot hiện tại; từ thêm trong lúc dựng được nối vào khi công bố. Bỏ kết quả nếu
+     * trong lúc đó store bị dựng lại (id đã khác).
+     */
+    void rebuildSearchIndexesIfStale() {
+        IndexSnapshot s;
+        long generation;
+        synchronized (this) {
+            s = snapshot;
+            generation = storeGeneration;
+        }
+        SubstringIndex substring = s.substring != null && isStale(s.substring.pendingSize())
+            ? IndexSnapshot.buildSubstringIndex(s.store) : null;
+        TokenIndex tokens = s.tokens != null && isStale(s.tokens.pendingSize())
+            ? IndexSnapshot.buildTokenIndex(s.store) : null;
+        if (substring == null && tokens == null) return;
+        synchronized (this) {
+            if (storeGeneration != generation) return;
+            snapshot = snapshot.withSearchIndexes(s.store, substring, tokens);
+        }
+        if (substring != null) {
+            log.info("Rebuilt substring index: {} + {} -> {} words", s.substring.size(), s.substring.pendingSize(), substring.size());
+        }
+        if (tokens != null) {
+            log.info("Rebuilt token index: {} + {} -> {} words", s.tokens.size(), s.tokens.pendingSize(), tokens.size());
+        }
+    }
 
+    private static boolean isStale(int pending) {
+        return pending >= SEARCH_INDEX_MAX_PENDING;
+    }
 
+    /** Gọi trong khóa sau khi thêm từ: danh sách phụ vừa đầy thì dựng lại ở luồng nền ngay, không chờ chu kỳ. */
+    private void queueSearchIndexRebuildIfFull() {
+        IndexSnapshot s = snapshot;
+        boolean full = (s.substring != null && isStale(s.substring.pendingSize()))
+            || (s.tokens != null && isStale(s.tokens.pendingSize()));
+        if (!full || !searchIndexRebuildQueued.compareAndSet(false, true)) return;
+        try {
+            background.execute(() -> {
+                searchIndexRebuildQueued.set(false);
+                try {
+                    rebuildSearchIndexesIfStale();
+                } catch (RuntimeException e) {
+                    log.warn("Search index rebuild failed", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Đang đóng
+            searchIndexRebuildQueued.set(false);
+        }
+    }
+
+    /** Gộp các lượt click đang chờ vào một snapshot mới và ghi nhật ký (một lần fsync). */
+    public void flushFrequencies() throws IOException {
+        if (frequencies.isEmpty()) return;
+        CompletableFuture<Void> durable;
+        synchronized (this) {
+            Map<String, Long> deltas = frequencies.drain();
+            if (deltas.isEmpty()) return;
+            List<DictionaryEntry> updated = new ArrayList<>();
+            durable = publish(snapshot.withFrequencyDeltas(deltas, updated), l -> l.appendPutsAsync(updated));
+        }
+        MutationLog.awaitDurable(durable);
+    }
+
+    /**
+     * Gọi trong khóa: xếp bản ghi vào nhật ký rồi công bố snapshot mới ngay; trả về future hoàn tất khi bản ghi
+     * đã bền vững. Bên gọi chờ future sau khi nhả khóa, nên các bên ghi đồng thời được gom vào cùng một lần fsync
+     * (group commit) và bên đọc có thể thấy thay đổi trước khi nó bền vững. Thứ tự bản ghi trong nhật ký vẫn là
+     * thứ tự công bố vì cả hai cùng diễn ra trong khóa. Không có nhật ký thì quay về ghi lại toàn bộ file như trước.
+     */
+    private CompletableFuture<Void> publish(IndexSnapshot next, LogAction action) throws IOException {
+        if (next == snapshot) return CompletableFuture.completedFuture(null);
+        CompletableFuture<Void> durable = CompletableFuture.completedFuture(null);
+        if (mutationLog != null) durable = action.apply(mutationLog);
+        else repo.saveAll(next.entries());
+        snapshot = next;
+        return durable;
+    }
+
+    /** Số lần fsync của nhật ký thay đổi (0 khi không có nhật ký). */
+    long logSyncCount() { return mutationLog == null ? 0 : mutationLog.syncCount(); }
+
+    /**
+     * Nhập từ file JSON hoặc NDJSON, đọc tuần tự từng entry. replace thì thay toàn bộ từ điển, ngược lại
+     * thêm/ghi đè theo word (không phân biệt hoa thường). Kết quả được ghi thẳng thành JSON và snapshot nhị phân
+     * trước khi công bố nên không đi qua nhật ký. Trả về số entry đã đọc.
+     */
+    public int importFrom(File source, boolean replace) throws IOException {
+        synchronized (compactionLock) {
+            synchronized (this) {
+                Map<String, DictionaryEntry> merged = new LinkedHashMap<>();
+                if (!replace) {
+                    for (DictionaryEntry e : snapshot.entries()) merged.put(EntryStore.key(e.getWord()), e);
+                }
+                int[] read = {0};
+                repo.read(source, e -> {
+                    read[0]++;
+                    if (e.getWord() != null && !e.getWord().isBlank()) merged.put(EntryStore.key(e.getWord()), e);
+                    return true;
+                });
+                IndexSnapshot next = buildSnapshot(new ArrayList<>(merged.values()));
+                long segment = mutationLog != null ? mutationLog.rotate() : -1;
+                // Nhật ký bị bỏ nên JSON cũng phải có dữ liệu mới (xem compact)
+                repo.saveAll(next.entries());
+                binaryRepo.save(next.entries(), next.trie, next.tfidf);
+                if (segment >= 0) mutationLog.discardBefore(segment);
+                wordGeneration++;
+                storeGeneration++;
+                snapshot = next;
+                binaryStale = false;
+                log.info("Imported {} entries from {}", read[0], source);
+                return read[0];
+            }
+        }
+    }
+
+    /** Xuất toàn bộ từ điển, ghi tuần tự; đuôi .ndjson/.jsonl cho NDJSON, còn lại là mảng JSON. */
+    public void exportTo(File target) throws IOException {
+        repo.write(target, snapshot.entries());
+    }
+
+    void compact() throws IOException {
+        compact(false);
+    }
+
+    /**
+     * Ghi snapshot nhị phân mới (file tạm + rename); exportJson thì xuất cả file JSON trước. Chỉ phần chụp
+     * snapshot + xoay segment cần giữ khóa; phần ghi file chạy ngoài khóa nên không chặn bên ghi.
+     * <p>
+     * Các segment nhật ký chỉ được bỏ khi JSON cũng đã được xuất: snapshot nhị phân bị coi là cũ ngay khi file
+     * JSON đổi kích thước hoặc thời điểm sửa, lúc đó dữ liệu được nạp lại từ JSON + nhật ký nên nhật ký phải còn
+     * đủ mọi thay đổi từ lần xuất JSON gần nhất. Khi phần giữ lại đạt JSON_EXPORT_LOG_BYTES thì xuất luôn JSON.
+     */
+    private void compact(boolean exportJson) throws IOException {
+        // Hai lần compact chồng nhau có thể ghi đè snapshot mới bằng snapshot cũ
+        synchronized (compactionLock) {
+            IndexSnapshot s;
+            long segment = -1;
+            synchronized (this) {
+                s = snapshot;
+                if (mutationLog != null) {
+                    exportJson |= mutationLog.retainedBytes() >= JSON_EXPORT_LOG_BYTES;
+                    segment = mutationLog.rotate();
+                }
+            }
+            // JSON phải ghi trước để snapshot nhị phân lưu đúng dấu vết của nó
+            if (exportJson) repo.saveAll(s.entries());
+            binaryRepo.save(s.entries(), s.trie, s.tfidf);
+            binaryStale = false;
+            if (segment >= 0 && exportJson) mutationLog.discardBefore(segment);
+        }
+    }
+
+    /** Gộp lượt click còn chờ, xuất JSON và snapshot nhị phân, dọn nhật ký. */
+    @Override
+    public void close() throws IOException {
+        queryPool.shutdownNow();
+        background.shutdownNow();
+        flushFrequencies();
+        compact(true);
+        if (mutationLog != null) mutationLog.close();
+    }
+
+    @FunctionalInterface
+    private interface LogAction {
+        CompletableFuture<Void> apply(MutationLog log) throws IOException;
+    }
+
+    public List<DictionaryEntry> getAllEntries() { return snapshot.entries(); }
+
+    /** Entry có word trùng (không phân biệt hoa thường) trong snapshot hiện tại, tra bảng băm O(1). */
+    public Optional<DictionaryEntry> find(String word) { return snapshot.find(word); }
+}
@@ -0,0 +1,153 @@
+package org.example.dictionarysuggestionsystem.service;
+
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.example.dictionarysuggestionsystem.utils.PagedArray;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Kho entry theo id dày đặc 0..idLimit()-1, tra theo word (không phân biệt hoa thường) qua bảng băm địa chỉ mở
+ * nên find/idOf/put/remove đều O(1). Id của một word giữ nguyên qua các lần sửa, và cả khi xóa rồi thêm lại;
+ * ô đã xóa để trống (null) cho đến lần dựng lại toàn bộ. Như Trie và TfidfRanker: copy() rồi sửa bản sao; các mảng
+ * là {@link PagedArray} nên copy() chỉ chép bảng trang và mỗi lần sửa chỉ chép vài trang nó chạm tới.
+ * <p>
+ * Chỉ {@link org.example.dictionarysuggestionsystem.algorithms.SubstringIndex} và
+ * {@link org.example.dictionarysuggestionsystem.algorithms.TokenIndex} dùng id này. Trie, TfidfRanker và
+ * DeletionIndex vẫn khóa theo word, nên chuỗi word vẫn có ở store, chuỗi biến thể của trie và bảng tài liệu
+ * TF-IDF. Chưa chuyển vì postings TF-IDF cần docId tăng dần để chỉ nối thêm, trong khi id ở đây được dùng lại khi
+ * sửa hoặc thêm lại một word; Trie còn là API độc lập, không có store đi kèm.
+ */
+final class EntryStore {
+    static final int NONE = -1;
+
+    private PagedArray.Refs<DictionaryEntry> entries;
+    private PagedArray.Refs<String> keys;
+    // id + 1 của key tại mỗi ô trong tableSize ô đầu, 0 là ô trống; key đã xóa vẫn giữ ô để id được dùng lại
+    private PagedArray.Ints table;
+    private int tableSize;
+    private int ids;
+    private int live;
+
+    EntryStore() {
+        this(16);
+    }
+
+    private EntryStore(int capacity) {
+        entries = new PagedArray.Refs<>(capacity);
+        keys = new PagedArray.Refs<>(capacity);
+        tableSize = tableSizeFor(capacity);
+        table = new PagedArray.Ints(tableSize);
+    }
+
+    /** Entry có word null bị bỏ qua; word trùng thì entry sau thay entry trước, giữ id của entry trước. */
+    static EntryStore of(List<DictionaryEntry> list) {
+        EntryStore s = new EntryStore(Math.max(16, list.size()));
+        for (DictionaryEntry e : list) {
+            if (e.getWord() != null) s.put(e);
+        }
+        return s;
+    }
+
+    EntryStore copy() {
+        EntryStore c = new EntryStore(0);
+        c.entries = entries.copy();
+        c.keys = keys.copy();
+        c.table = table.copy();
+        c.tableSize = tableSize;
+        c.ids = ids;
+        c.live = live;
+        return c;
+    }
+
+    static String key(String word) {
+        return word.toLowerCase(Locale.ROOT);
+    }
+
+    /** Thêm hoặc thay thế entry cùng word; trả về id. */
+    int put(DictionaryEntry e) {
+        String key = key(e.getWord());
+        int slot = slot(key);
+        int id = table.get(slot) - 1;
+        if (id == NONE) {
+            id = ids++;
+            entries.ensureCapacity(ids);
+            keys.ensureCapacity(ids);
+            keys.set(id, key);
+            if (ids * 2 > tableSize) rehash(tableSize * 2);
+            else table.set(slot, id + 1);
+        }
+        if (entries.get(id) == null) live++;
+        entries.set(id, e);
+        return id;
+    }
+
+    /** Xóa entry cùng word; trả về entry đã xóa hoặc null. */
+    DictionaryEntry remove(String word) {
+        int id = idOf(word);
+        if (id == NONE) return null;
+        DictionaryEntry removed = entries.get(id);
+        entries.set(id, null);
+        live--;
+        return removed;
+    }
+
+    /** Id của word nếu entry còn trong kho, ngược lại NONE. */
+    int idOf(String word) {
+        if (word == null) return NONE;
+        int id = table.get(slot(key(word))) - 1;
+        return id != NONE && entries.get(id) != null ? id : NONE;
+    }
+
+    /** Entry tại id, null nếu đã xóa. */
+    DictionaryEntry get(int id) {
+        return id >= 0 && id < ids ? entries.get(id) : null;
+    }
+
+    Optional<DictionaryEntry> find(String word) {
+        int id = idOf(word);
+        return id == NONE ? Optional.empty() : Optional.of(entries.get(id));
+    }
+
+    /** Số entry còn trong kho. */
+    int size() { return live; }
+
+    /** Mọi id đã cấp nằm trong [0, idLimit()). */
+    int idLimit() { return ids; }
+
+    /** Các entry còn trong kho theo thứ tự id. */
+    List<DictionaryEntry> toList() {
+        List<DictionaryEntry> out = new ArrayList<>(live);
+        for (int id = 0; id < ids; id++) {
+            DictionaryEntry e = entries.get(id);
+            if (e != null) out.add(e);
+        }
+        return Collections.unmodifiableList(out);
+    }
+
+    private int slot(String key) {
+        int mask = tableSize - 1;
+        int i = (key.hashCode() * 0x9E3779B9) >>> 1 & mask;
+        while (true) {
+            int id = table.get(i) - 1;
+            if (id == NONE || keys.get(id).equals(key)) return i;
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void rehash(int size) {
+        tableSize = size;
+        table = new PagedArray.Ints(size);
+        for (int id = 0; id < ids; id++) table.set(slot(keys.get(id)), id + 1);
+    }
+
+    // Bảng luôn thưa ít nhất một nửa để chuỗi dò tuyến tính ngắn
+    private static int tableSizeFor(int capacity) {
+        int n = 16;
+        while (n < capacity * 2) n <<= 1;
+        return n;
+    }
+}
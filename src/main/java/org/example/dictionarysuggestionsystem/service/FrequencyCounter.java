@@ -0,0 +1,62 @@
+package org.example.dictionarysuggestionsystem.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bộ đếm lượt click trong bộ nhớ: mỗi từ một {@link LongAdder} nên luồng UI tăng đếm O(1), không khóa.
+ * Luồng flush định kỳ lấy phần chênh lệch ({@link #drain()}) để gộp vào entries và nhật ký.
+ * Adder đã tách khỏi bảng được giữ thêm một chu kỳ để gom nốt các lần tăng đang dở khi bị tách.
+ */
+final class FrequencyCounter {
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    // Chỉ luồng flush truy cập
+    private List<Retired> retired = new ArrayList<>();
+
+    void increment(String word) {
+        String key = key(word);
+        LongAdder a = counters.get(key);
+        if (a == null) a = counters.computeIfAbsent(key, k -> new LongAdder());
+        a.increment();
+    }
+
+    /** Số lượt click chưa được gộp vào entries. */
+    long pending(String word) {
+        LongAdder a = counters.get(key(word));
+        return a == null ? 0 : a.sum();
+    }
+
+    boolean isEmpty() { return counters.isEmpty(); }
+
+    Set<String> pendingWords() { return counters.keySet(); }
+
+    /** Lấy và xóa toàn bộ chênh lệch hiện có (khóa là word viết thường). */
+    synchronized Map<String, Long> drain() {
+        Map<String, Long> deltas = new HashMap<>();
+        for (Retired r : retired) {
+            long late = r.adder.sum() - r.counted;
+            if (late > 0) deltas.merge(r.key, late, Long::sum);
+        }
+        List<Retired> next = new ArrayList<>();
+        for (String key : counters.keySet()) {
+            LongAdder a = counters.remove(key);
+            if (a == null) continue;
+            long sum = a.sum();
+            if (sum > 0) deltas.merge(key, sum, Long::sum);
+            next.add(new Retired(key, a, sum));
+        }
+        retired = next;
+        return deltas;
+    }
+
+    // Cùng khóa với EntryStore để gộp click tra thẳng được id của entry
+    static String key(String word) {
+        return EntryStore.key(word);
+    }
+
+    private static final class Retired {
+        final String key; final LongAdder adder; final long counted;
+        Retired(String key, LongAdder adder, long counted) { this.key = key; this.adder = adder; this.counted = counted; }
+    }
+}
@@ -0,0 +1,283 @@
+package org.example.dictionarysuggestionsystem.service;
+
+import org.example.dictionarysuggestionsystem.algorithms.DeletionIndex;
+import org.example.dictionarysuggestionsystem.algorithms.SubstringIndex;
+import org.example.dictionarysuggestionsystem.algorithms.TfidfRanker;
+import org.example.dictionarysuggestionsystem.algorithms.TokenIndex;
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.example.dictionarysuggestionsystem.trie.Trie;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Một phiên bản bất biến của dữ liệu + chỉ mục (entries, Trie, TF-IDF, SymSpell, chuỗi con, âm tiết). Bên đọc lấy
+ * snapshot hiện tại qua một tham chiếu volatile và không bao giờ bị chặn; bên ghi dựng phiên bản kế
+ * tiếp bằng copy-on-write rồi công bố. Không được sửa các thành phần sau khi snapshot đã công bố.
+ */
+final class IndexSnapshot {
+    /** Dưới ngưỡng này chi phí chia việc lớn hơn lợi ích chạy song song. */
+    static final int PARALLEL_THRESHOLD = 20_000;
+
+    final long version;
+    final EntryStore store;
+    final Trie trie;
+    final TfidfRanker tfidf;
+    final DeletionIndex deletionIndex;
+    // Chỉ mục chuỗi con theo id của store; null cho đến khi dựng xong (xem DictionaryService)
+    final SubstringIndex substring;
+    // Chỉ mục âm tiết theo id của store; null cho đến khi dựng xong, như substring
+    final TokenIndex tokens;
+    // Danh sách entry theo thứ tự id, dựng lần đầu khi cần
+    private volatile List<DictionaryEntry> entries;
+
+    private IndexSnapshot(long version, EntryStore store, Trie trie, TfidfRanker tfidf, DeletionIndex deletionIndex,
+                          SubstringIndex substring, TokenIndex tokens) {
+        this.version = version;
+        this.store = store;
+        this.trie = trie;
+        this.tfidf = tfidf;
+        this.deletionIndex = deletionIndex;
+        this.substring = substring;
+        this.tokens = tokens;
+    }
+
+    static IndexSnapshot empty() {
+        return new IndexSnapshot(0, new EntryStore(), new Trie(), new TfidfRanker(), null, SubstringIndex.empty(), TokenIndex.empty());
+    }
+
+    static IndexSnapshot build(long version, List<DictionaryEntry> entries, int symSpellMaxDistance, int symSpellPrefixLength) {
+        return build(version, entries, symSpellMaxDistance, symSpellPrefixLength, null);
+    }
+
+    /**
+     * Dựng toàn bộ chỉ mục theo pha: chuẩn hóa word, Trie, TF-IDF, SymSpell, chuỗi con, âm tiết. Từ
+     * PARALLEL_THRESHOLD entry trở lên mỗi pha chạy song song trên ForkJoinPool chung, kết quả giống hệt khi dựng tuần tự.
+     * timings (nếu khác null) nhận thời gian từng pha, tính bằng micro giây.
+     */
+    static IndexSnapshot build(long version, List<DictionaryEntry> entries, int symSpellMaxDistance, int symSpellPrefixLength,
+                               Map<String, Long> timings) {
+        EntryStore store = EntryStore.of(entries);
+        List<DictionaryEntry> list = store.toList();
+        boolean parallel = list.size() >= PARALLEL_THRESHOLD;
+        long t0 = System.nanoTime();
+        String[] words = words(list).toArray(new String[0]);
+        String[] normalized = normalize(list, parallel);
+        long t1 = System.nanoTime();
+        Trie trie = Trie.build(words, normalized, frequencies(list), parallel);
+        long t2 = System.nanoTime();
+        TfidfRanker tfidf = TfidfRanker.build(list, parallel);
+        long t3 = System.nanoTime();
+        DeletionIndex deletionIndex = null;
+        if (symSpellMaxDistance > 0) {
+            deletionIndex = DeletionIndex.build(Arrays.asList(words), Arrays.asList(normalized),
+                symSpellMaxDistance, symSpellPrefixLength, parallel);
+        }
+        long t4 = System.nanoTime();
+        // Store vừa dựng chưa có lỗ nên id trùng vị trí trong list
+        SubstringIndex substring = SubstringIndex.build(normalized, parallel);
+        long t5 = System.nanoTime();
+        TokenIndex tokens = TokenIndex.build(normalized, parallel);
+        long t6 = System.nanoTime();
+        if (timings != null) {
+            timings.put("normalize", (t1 - t0) / 1000);
+            timings.put("trie", (t2 - t1) / 1000);
+            timings.put("tfidf", (t3 - t2) / 1000);
+            timings.put("symspell", (t4 - t3) / 1000);
+            timings.put("substring", (t5 - t4) / 1000);
+            timings.put("tokens", (t6 - t5) / 1000);
+        }
+        return new IndexSnapshot(version, store, trie, tfidf, deletionIndex, substring, tokens);
+    }
+
+    /** Dùng Trie và TF-IDF đã nạp sẵn (snapshot nhị phân); chỉ mục SymSpell, chuỗi con và âm tiết có thể gắn sau. */
+    static IndexSnapshot of(long version, List<DictionaryEntry> entries, Trie trie, TfidfRanker tfidf) {
+        return new IndexSnapshot(version, EntryStore.of(entries), trie, tfidf, null, null, null);
+    }
+
+    /** Các entry theo thứ tự id; entry được sửa giữ nguyên vị trí, entry mới ở cuối. */
+    List<DictionaryEntry> entries() {
+        List<DictionaryEntry> list = entries;
+        if (list == null) entries = list = store.toList();
+        return list;
+    }
+
+    static DeletionIndex buildDeletionIndex(List<DictionaryEntry> entries, int symSpellMaxDistance, int symSpellPrefixLength) {
+        boolean parallel = entries.size() >= PARALLEL_THRESHOLD;
+        String[] words = words(entries).toArray(new String[0]);
+        return DeletionIndex.build(Arrays.asList(words), Arrays.asList(normalize(entries, parallel)),
+            symSpellMaxDistance, symSpellPrefixLength, parallel);
+    }
+
+    IndexSnapshot withDeletionIndex(DeletionIndex d) {
+        return new IndexSnapshot(version + 1, store, trie, tfidf, d, substring, tokens);
+    }
+
+    /** Chỉ mục chuỗi con cho mọi entry đang có trong store, theo id. */
+    static SubstringIndex buildSubstringIndex(EntryStore store) {
+        return SubstringIndex.build(normalizedById(store), store.size() >= PARALLEL_THRESHOLD);
+    }
+
+    /** Chỉ mục âm tiết cho mọi entry đang có trong store, theo id. */
+    static TokenIndex buildTokenIndex(EntryStore store) {
+        return TokenIndex.build(normalizedById(store), store.size() >= PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Gắn chỉ mục chuỗi con và/hoặc âm tiết (null: giữ chỉ mục hiện có) dựng từ builtFrom, một store cũ hơn cùng
+     * dòng id với store của snapshot này; các entry còn sống ở đây mà builtFrom chưa có được nối vào danh sách phụ.
+     */
+    IndexSnapshot withSearchIndexes(EntryStore builtFrom, SubstringIndex substringIndex, TokenIndex tokenIndex) {
+        if (builtFrom != store) {
+            for (int id = 0; id < store.idLimit(); id++) {
+                DictionaryEntry e = store.get(id);
+                if (e == null || builtFrom.get(id) != null) continue;
+                if (substringIndex != null) substringIndex = substringIndex.withWord(id, e.normalizedWord());
+                if (tokenIndex != null) tokenIndex = tokenIndex.withWord(id, e.normalizedWord());
+            }
+        }
+        IndexSnapshot next = new IndexSnapshot(version + 1, store, trie, tfidf, deletionIndex,
+            substringIndex == null ? substring : substringIndex, tokenIndex == null ? tokens : tokenIndex);
+        next.entries = entries;
+        return next;
+    }
+
+    /** Tối đa limit từ chứa nq (đã chuẩn hóa), frequency giảm dần; rỗng khi chỉ mục chưa dựng xong. */
+    List<String> substringWords(String nq, int limit) {
+        if (substring == null) return List.of();
+        return wordsOf(substring.search(nq, limit, this::liveFrequency));
+    }
+
+    /**
+     * Tối đa limit từ mà mỗi âm tiết của nq (đã chuẩn hóa) là tiền tố của một âm tiết trong từ, frequency giảm
+     * dần; rỗng khi chỉ mục chưa dựng xong.
+     */
+    List<String> tokenWords(String nq, int limit) {
+        if (tokens == null) return List.of();
+        return wordsOf(tokens.search(nq, limit, this::liveFrequency));
+    }
+
+    private long liveFrequency(int id) {
+        DictionaryEntry e = store.get(id);
+        return e == null ? Long.MIN_VALUE : e.getFrequency();
+    }
+
+    private List<String> wordsOf(int[] ids) {
+        List<String> out = new ArrayList<>(ids.length);
+        for (int id : ids) out.add(store.get(id).getWord());
+        return out;
+    }
+
+    /** Thêm hoặc thay thế (không phân biệt hoa thường) một entry. */
+    IndexSnapshot withAdded(DictionaryEntry entry) {
+        List<DictionaryEntry> removed = new ArrayList<>();
+        store.find(entry.getWord()).ifPresent(removed::add);
+        EntryStore next = store.copy();
+        int id = next.put(entry);
+        Trie t = trie.copy();
+        if (!t.updateFrequency(entry.getWord(), entry.getFrequency())) {
+            t.insert(entry.getWord(), entry.getFrequency());
+        }
+        TfidfRanker r = tfidf.copy();
+        for (DictionaryEntry e : removed) r.remove(e.getWord());
+        r.add(entry);
+        DeletionIndex d = null;
+        if (deletionIndex != null) {
+            d = deletionIndex.copy();
+            for (DictionaryEntry e : removed) d.remove(e.getWord());
+            d.add(entry.getWord());
+        }
+        SubstringIndex sub = substring == null ? null : substring.withWord(id, entry.normalizedWord());
+        TokenIndex tok = tokens == null ? null : tokens.withWord(id, entry.normalizedWord());
+        return new IndexSnapshot(version + 1, next, t, r, d, sub, tok);
+    }
+
+    /**
+     * Cộng dồn chênh lệch frequency (khóa là word viết thường) trong một lần copy-on-write. frequency không
+     * ảnh hưởng điểm TF-IDF nên postings không đổi, entry chỉ được thay dưới docId cũ.
+     * Trả về danh sách entry đã cập nhật qua tham số updated.
+     */
+    IndexSnapshot withFrequencyDeltas(Map<String, Long> deltas, List<DictionaryEntry> updated) {
+        EntryStore next = null;
+        for (Map.Entry<String, Long> d : deltas.entrySet()) {
+            int id = store.idOf(d.getKey());
+            if (id == EntryStore.NONE) continue;
+            DictionaryEntry e = store.get(id);
+            DictionaryEntry u = new DictionaryEntry(e.getWord(), e.getMeaning(), e.getFrequency() + d.getValue(), e.getTags());
+            if (next == null) next = store.copy();
+            next.put(u);
+            updated.add(u);
+        }
+        if (next == null) return this;
+        Trie t = trie.copy();
+        TfidfRanker r = tfidf.copy();
+        for (DictionaryEntry u : updated) {
+            t.updateFrequency(u.getWord(), u.getFrequency());
+            r.replaceDocument(u);
+        }
+        return new IndexSnapshot(version + 1, next, t, r, deletionIndex, substring, tokens);
+    }
+
+    /**
+     * Xóa entry cùng word, O(độ dài từ) trên trie thay vì dựng lại; các từ gốc khác cùng dạng chuẩn hóa
+     * (táo/tạo) vẫn nằm trong node của trie. Các copy() chỉ chép bảng trang, phần còn lại theo số token và biến
+     * thể xóa của từ.
+     */
+    IndexSnapshot withDeleted(String word) {
+        if (store.idOf(word) == EntryStore.NONE) return this;
+        EntryStore next = store.copy();
+        DictionaryEntry removed = next.remove(word);
+        Trie t = trie.copy();
+        t.remove(removed.getWord());
+        TfidfRanker r = tfidf.copy();
+        r.remove(removed.getWord());
+        DeletionIndex d = null;
+        if (deletionIndex != null) {
+            d = deletionIndex.copy();
+            d.remove(removed.getWord());
+        }
+        // Chỉ mục chuỗi con và âm tiết hỏi store lúc tìm nên id đã xóa tự bị bỏ qua
+        return new IndexSnapshot(version + 1, next, t, r, d, substring, tokens);
+    }
+
+    /** Cùng dữ liệu với trie đã nén (xem {@link Trie#compact()}). */
+    IndexSnapshot withTrie(Trie t) {
+        IndexSnapshot next = new IndexSnapshot(version + 1, store, t, tfidf, deletionIndex, substring, tokens);
+        next.entries = entries;
+        return next;
+    }
+
+    Optional<DictionaryEntry> find(String word) {
+        return store.find(word);
+    }
+
+    // normalized[id] theo id của store, null ở ô đã xóa
+    private static String[] normalizedById(EntryStore store) {
+        String[] normalized = new String[store.idLimit()];
+        for (int id = 0; id < normalized.length; id++) {
+            DictionaryEntry e = store.get(id);
+            if (e != null) normalized[id] = e.normalizedWord();
+        }
+        return normalized;
+    }
+
+    /** Dạng chuẩn hóa được giữ trong từng entry nên pha này cũng điền sẵn cho các truy vấn sau. */
+    private static String[] normalize(List<DictionaryEntry> entries, boolean parallel) {
+        IntStream idx = IntStream.range(0, entries.size());
+        return (parallel ? idx.parallel() : idx)
+            .mapToObj(i -> entries.get(i).getWord() == null ? null : entries.get(i).normalizedWord())
+            .toArray(String[]::new);
+    }
+
+    private static long[] frequencies(List<DictionaryEntry> entries) {
+        long[] out = new long[entries.size()];
+        for (int i = 0; i < out.length; i++) out[i] = entries.get(i).getFrequency();
+        return out;
+    }
+
+    private static List<String> words(List<DictionaryEntry> entries) {
+        List<String> words = new ArrayList<>(entries.size());
+        for (DictionaryEntry e : entries) words.add(e.getWord());
+        return words;
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.dictionarysuggestionsystem.service;
+
+import org.example.dictionarysuggestionsystem.algorithms.AccentRanker;
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.example.dictionarysuggestionsystem.trie.Trie;
+import org.example.dictionarysuggestionsystem.utils.NormalizerUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Gợi ý theo từng phím gõ cho một ô tìm kiếm: gộp prefix (trie), âm tiết, chuỗi con, Levenshtein và
+ * TF-IDF, nhưng nhớ trạng thái của lần gõ trước. Khi query chỉ dài thêm, node prefix và tập node hoạt động
+ * của tìm kiếm mờ được đi tiếp từ trạng thái cũ thay vì tính lại từ root; kết quả gộp được lưu trong
+ * cache LRU của service theo query chuẩn hóa, nên xóa lùi hay gõ lại cũng không phải tính lại. Cache giữ
+ * kết quả chưa xếp theo dấu; {@link AccentRanker} được áp cho query gốc mỗi lần trả về.
+ * Nếu luồng gọi bị interrupt, suggest dừng giữa các bước bằng CancellationException.
+ */
+public class SearchSession {
+    public static final int LIMIT = 10;
+    private static final int FEW_RESULTS = 5;
+    private static final int TFIDF_LIMIT = 5;
+    // Tập hoạt động luôn giữ ở khoảng cách lớn nhất; khoảng cách thực tế lọc khi lấy kết quả
+    private static final int MAX_FUZZY_DISTANCE = 2;
+
+    private final DictionaryService service;
+    private Trie.Cursor prefixCursor;
+    private Trie.FuzzyCursor fuzzyCursor;
+
+    SearchSession(DictionaryService service) {
+        this.service = service;
+    }
+
+    /** Kết quả gộp và thời gian từng bước (micro giây, -1 nếu bỏ qua); cached khi lấy từ cache. */
+    public static final class Result {
+        public static final Result EMPTY = new Result(List.of(), -1, -1, -1, -1, -1, false);
+
+        public final List<String> words;
+        public final long trieMicros;
+        public final long tokenMicros;
+        public final long substringMicros;
+        public final long levenshteinMicros;
+        public final long tfidfMicros;
+        public final boolean cached;
+
+        Result(List<String> words, long trieMicros, long tokenMicros, long substringMicros, long levenshteinMicros,
+               long tfidfMicros, boolean cached) {
+            this.words = words;
+            this.trieMicros = trieMicros;
+            this.tokenMicros = tokenMicros;
+            this.substringMicros = substringMicros;
+            this.levenshteinMicros = levenshteinMicros;
+            this.tfidfMicros = tfidfMicros;
+            this.cached = cached;
+        }
+
+        Result asCached() {
+            return new Result(words, trieMicros, tokenMicros, substringMicros, levenshteinMicros, tfidfMicros, true);
+        }
+
+        Result withWords(List<String> words) {
+            if (words == this.words) return this;
+            return new Result(words, trieMicros, tokenMicros, substringMicros, levenshteinMicros, tfidfMicros, cached);
+        }
+    }
+
+    public synchronized Result suggest(String query) {
+        String nq = NormalizerUtil.normalize(query == null ? "" : query.trim());
+        if (nq.isEmpty()) return Result.EMPTY;
+        IndexSnapshot s = service.currentSnapshot();
+        // Click chưa flush làm đổi thứ hạng mà chưa đổi phiên bản chỉ mục: khi đó không dùng cache
+        boolean cacheable = !service.hasPendingClicks();
+        if (cacheable) {
+            Result hit = service.suggestionCache.get(nq, s.version);
+            if (hit != null) return accentRanked(query, hit.asCached());
+        }
+
+        long t0 = System.nanoTime();
+        prefixCursor = s.trie.cursor(nq, prefixCursor);
+        List<String> prefix = service.withPendingClicks(s, nq, s.trie.topKByFrequency(prefixCursor, LIMIT), LIMIT);
+        long trieMicros = (System.nanoTime() - t0) / 1000;
+        checkCancelled();
+
+        long tokenMicros = -1;
+        List<String> tokens = null;
+        if (runsTokens(nq) && prefix.size() < FEW_RESULTS) {
+            long tk = System.nanoTime();
+            tokens = s.tokenWords(nq, LIMIT);
+            tokenMicros = (System.nanoTime() - tk) / 1000;
+            checkCancelled();
+        }
+
+        long substringMicros = -1;
+        List<String> substring = null;
+        if (runsSubstring(nq) && merge(LIMIT, prefix, tokens).size() < FEW_RESULTS) {
+            long ts = System.nanoTime();
+            substring = s.substringWords(nq, LIMIT);
+            substringMicros = (System.nanoTime() - ts) / 1000;
+            checkCancelled();
+        }
+
+        long levMicros = -1;
+        List<String> fuzzy = null;
+        if (runsFuzzy(nq) && merge(LIMIT, prefix, tokens, substring).size() < FEW_RESULTS) {
+            long t1 = System.nanoTime();
+            fuzzyCursor = s.trie.fuzzyCursor(nq, MAX_FUZZY_DISTANCE, fuzzyCursor);
+            fuzzy = fuzzyWords(nq, s.trie.fuzzyMatches(fuzzyCursor, fuzzyDistance(nq)), LIMIT);
+            levMicros = (System.nanoTime() - t1) / 1000;
+            checkCancelled();
+        }
+
+        long tfidfMicros = -1;
+        List<String> tfidf = null;
+        if (runsTfidf(nq) && merge(LIMIT, prefix, tokens, substring, fuzzy).size() < FEW_RESULTS) {
+            long t2 = System.nanoTime();
+            tfidf = tfidfWords(s, nq);
+            tfidfMicros = (System.nanoTime() - t2) / 1000;
+        }
+
+        List<String> merged = merge(LIMIT, prefix, tokens, substring, fuzzy, tfidf);
+        Result result = new Result(Collections.unmodifiableList(merged), trieMicros, tokenMicros, substringMicros, levMicros,
+            tfidfMicros, false);
+        if (cacheable) service.suggestionCache.put(nq, s.version, result);
+        return accentRanked(query, result);
+    }
+
+    private static Result accentRanked(String query, Result r) {
+        List<String> ranked = AccentRanker.rerank(query, r.words);
+        return r.withWords(ranked == r.words ? ranked : Collections.unmodifiableList(ranked));
+    }
+
+    // Âm tiết chỉ khi query có từ 2 token (một token thì prefix và chuỗi con đã bao)
+    static boolean runsTokens(String nq) { return NormalizerUtil.tokenize(nq).length >= 2; }
+    // Chuỗi con chỉ khi query >= 3 ký tự (ngắn hơn thì khớp gần như mọi từ)
+    static boolean runsSubstring(String nq) { return nq.length() >= 3; }
+    // Levenshtein chỉ khi query >= 2 ký tự; ngưỡng động 1 với query ngắn (<= 3), ngược lại 2
+    static boolean runsFuzzy(String nq) { return nq.length() >= 2; }
+    static int fuzzyDistance(String nq) { return nq.length() <= 3 ? 1 : 2; }
+    // TF-IDF chỉ với query dài (>= 4)
+    static boolean runsTfidf(String nq) { return nq.length() >= 4; }
+
+    /** Ứng viên mờ xếp theo (khoảng cách, từ), lấy limit đầu rồi giữ những từ bắt đầu bằng 2 ký tự đầu của query. */
+    static List<String> fuzzyWords(String nq, List<Trie.Match> matches, int limit) {
+        matches.sort(Comparator.comparingInt((Trie.Match m) -> m.distance).thenComparing(m -> m.word));
+        String firstTwo = nq.substring(0, 2);
+        List<String> out = new ArrayList<>();
+        for (Trie.Match m : matches.subList(0, Math.min(limit, matches.size()))) {
+            if (NormalizerUtil.normalize(m.word).startsWith(firstTwo)) out.add(m.word);
+        }
+        return out;
+    }
+
+    static List<String> tfidfWords(IndexSnapshot s, String nq) {
+        List<String> out = new ArrayList<>();
+        for (DictionaryEntry e : s.tfidf.rankByQuery(nq, TFIDF_LIMIT)) out.add(e.getWord());
+        return out;
+    }
+
+    /**
+     * Gộp theo thứ tự ưu tiên (prefix -> âm tiết -> chuỗi con -> gần đúng -> TF-IDF), bỏ trùng, tối đa limit.
+     * Các engine sau prefix chỉ được thêm khi danh sách còn ít (< FEW_RESULTS); null nghĩa là engine không chạy
+     * hoặc không kịp hạn.
+     */
+    @SafeVarargs
+    static List<String> merge(int limit, List<String> prefix, List<String>... rest) {
+        List<String> merged = new ArrayList<>();
+        if (prefix != null) merged.addAll(prefix);
+        for (List<String> more : rest) {
+            if (more == null || merged.size() >= FEW_RESULTS) continue;
+            for (String w : more) if (!merged.contains(w)) merged.add(w);
+        }
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    /** Query đã bị thay bởi query mới hơn (xem {@link AsyncSuggester}): dừng giữa các bước. */
+    private static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) throw new CancellationException("Superseded by a newer query");
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.dictionarysuggestionsystem.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU có giới hạn cho kết quả gợi ý, khóa là truy vấn đã chuẩn hóa. Mỗi cache gắn với một phiên bản
+ * chỉ mục: khi phiên bản đổi (thêm/sửa/xóa, flush click, nạp lại) toàn bộ kết quả cũ bị bỏ.
+ */
+final class SuggestionCache {
+    private final int capacity;
+    private final LinkedHashMap<String, SearchSession.Result> results;
+    private long version = Long.MIN_VALUE;
+
+    SuggestionCache(int capacity) {
+        this.capacity = capacity;
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SearchSession.Result> eldest) {
+                return size() > SuggestionCache.this.capacity;
+            }
+        };
+    }
+
+    synchronized SearchSession.Result get(String query, long indexVersion) {
+        if (indexVersion != version) return null;
+        return results.get(query);
+    }
+
+    synchronized void put(String query, long indexVersion, SearchSession.Result result) {
+        if (indexVersion != version) {
+            // Kết quả của phiên bản cũ hơn phiên bản đang giữ thì bỏ, mới hơn thì thay cả cache
+            if (indexVersion < version) return;
+            results.clear();
+            version = indexVersion;
+        }
+        results.put(query, result);
+    }
+
+    synchronized int size() { return results.size(); }
+}
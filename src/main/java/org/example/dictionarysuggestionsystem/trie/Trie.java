@@ -1,83 +1,1037 @@
 package org.example.dictionarysuggestionsystem.trie;
 
+import org.example.dictionarysuggestionsystem.utils.BinaryIO;
 import org.example.dictionarysuggestionsystem.utils.NormalizerUtil;
+import org.example.dictionarysuggestionsystem.utils.PagedArray;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
 
+/**
+ * Trie lưu các node trong mảng nguyên thủy (first-child / next-sibling) thay vì
+ * một HashMap cho mỗi node. Node 0 là root; các con của một node được giữ theo thứ tự ký tự.
+ * Mỗi node giữ thêm frequency lớn nhất trong cây con (int bão hòa, là cận trên) để gợi ý top-K theo frequency.
+ * Dữ liệu của từ chỉ nằm ở node kết thúc, trong các mảng riêng theo số thứ tự node kết thúc: frequency, từ gốc
+ * (còn dấu) đầu tiên có dạng chuẩn hóa đó và đầu danh sách biến thể; các từ gốc khác cùng dạng (táo/tạo, ứng
+ * dụng/ưng dung) nằm trong một vùng biến thể dùng chung, mỗi từ một frequency riêng, nên không từ nào bị che
+ * khuất. Một node tốn 18 byte (nhãn, con đầu, anh em kế, max, số thứ tự kết thúc), node kết thúc thêm 16 byte;
+ * không lưu node cha, bên ghi nhớ đường đi từ root khi cần đi ngược lên. Các mảng là {@link PagedArray} nên
+ * {@link #copy()} chỉ chép bảng trang, mỗi lần sửa chỉ sao chép các trang trên đường đi của từ.
+ * Node bị {@link #remove} cắt bỏ chỉ được thu hồi khi {@link #compact()}.
+ */
 public class Trie {
-    private final TrieNode root = new TrieNode();
-    private final Map<String, String> normalizedToOriginal = new HashMap<>();
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    // max frequency của cây con khi cây con không có từ nào
+    private static final int EMPTY_MAX = Integer.MIN_VALUE;
+
+    private PagedArray.Chars labels;
+    private PagedArray.Ints firstChild;
+    private PagedArray.Ints nextSibling;
+    // Cận trên frequency của cây con, mã hóa bằng encodeMax
+    private PagedArray.Ints maxFrequency;
+    // Số thứ tự + 1 của node kết thúc (chỉ số vào các mảng term*), 0 nếu node không kết thúc
+    private PagedArray.Ints term;
+    private int nodeCount;
+    private int maxDepth;
+    // Node đã bị cắt khỏi cây (không còn tới được từ root) nhưng vẫn chiếm chỗ trong mảng
+    private int deadNodes;
+    // Theo số thứ tự node kết thúc; ô đã bỏ nối vào termFree qua termVariantHead để dùng lại
+    private PagedArray.Longs termFrequency = new PagedArray.Longs(0);
+    private PagedArray.Refs<String> termOriginal = new PagedArray.Refs<>(0);
+    // Biến thể: termVariantHead[t] là chỉ số + 1 của biến thể đầu (0 nếu không có), các biến thể của một từ
+    // nối qua variantNext theo thứ tự thêm vào; ô đã xóa nối vào variantFree để dùng lại
+    private PagedArray.Ints termVariantHead = new PagedArray.Ints(0);
+    private int termCount;
+    private int termFree;
+    private PagedArray.Refs<String> variantWords = new PagedArray.Refs<>(0);
+    private PagedArray.Longs variantFrequency = new PagedArray.Longs(0);
+    private PagedArray.Ints variantNext = new PagedArray.Ints(0);
+    private int variantCount;
+    private int variantFree;
+
+    public Trie() {
+        this(INITIAL_CAPACITY);
+    }
+
+    // capacity 0: vỏ rỗng cho copy()/readFrom, các mảng được gán ngay sau đó
+    private Trie(int capacity) {
+        allocate(capacity);
+        if (capacity == 0) return;
+        nodeCount = 1;
+        firstChild.set(ROOT, NONE);
+        nextSibling.set(ROOT, NONE);
+        maxFrequency.set(ROOT, EMPTY_MAX);
+    }
+
+    /**
+     * Bản sao độc lập để bên ghi sửa đổi trong khi bên đọc vẫn dùng bản cũ; chỉ chép bảng trang, các trang được
+     * sao chép khi bị sửa lần đầu.
+     */
+    public Trie copy() {
+        Trie c = new Trie(0);
+        c.labels = labels.copy();
+        c.firstChild = firstChild.copy();
+        c.nextSibling = nextSibling.copy();
+        c.maxFrequency = maxFrequency.copy();
+        c.term = term.copy();
+        c.termFrequency = termFrequency.copy();
+        c.termOriginal = termOriginal.copy();
+        c.termVariantHead = termVariantHead.copy();
+        c.termCount = termCount;
+        c.termFree = termFree;
+        c.variantWords = variantWords.copy();
+        c.variantFrequency = variantFrequency.copy();
+        c.variantNext = variantNext.copy();
+        c.variantCount = variantCount;
+        c.variantFree = variantFree;
+        c.nodeCount = nodeCount;
+        c.maxDepth = maxDepth;
+        c.deadNodes = deadNodes;
+        return c;
+    }
+
+    /**
+     * Bản sao chỉ gồm các node tới được từ root, đánh số lại theo BFS: thu hồi node mà {@link #remove} đã cắt,
+     * nên bộ nhớ lại tỉ lệ với số từ còn lại. Thứ tự con và mọi giá trị của node được giữ nguyên; node kết thúc
+     * được đánh số lại theo thứ tự node.
+     */
+    public Trie compact() {
+        int[] order = new int[nodeCount];
+        int[] depth = new int[nodeCount];
+        int[] map = new int[nodeCount];
+        int n = 0;
+        order[n++] = ROOT;
+        for (int i = 0; i < n; i++) {
+            for (int ch = firstChild.get(order[i]); ch != NONE; ch = nextSibling.get(ch)) {
+                map[ch] = n;
+                depth[n] = depth[i] + 1;
+                order[n++] = ch;
+            }
+        }
+        Trie c = new Trie(n);
+        for (int i = 0; i < n; i++) {
+            int old = order[i];
+            c.labels.set(i, labels.get(old));
+            c.firstChild.set(i, firstChild.get(old) == NONE ? NONE : map[firstChild.get(old)]);
+            c.nextSibling.set(i, nextSibling.get(old) == NONE ? NONE : map[nextSibling.get(old)]);
+            c.maxFrequency.set(i, maxFrequency.get(old));
+            if (!isTerminal(old)) continue;
+            int t = term.get(old) - 1;
+            int ct = c.newTerminal(i, termOriginal.get(t), termFrequency.get(t));
+            for (int v = termVariantHead.get(t) - 1; v != NONE; v = variantNext.get(v) - 1) c.appendVariant(ct, variantWords.get(v), variantFrequency.get(v));
+        }
+        c.nodeCount = n;
+        c.maxDepth = depth[n - 1];
+        return c;
+    }
+
+    /**
+     * Ghi nguyên các mảng node (nodeCount phần tử đầu) để nạp lại bằng {@link #readFrom} mà không phải
+     * dựng lại cây. Dữ liệu node kết thúc được ghi theo thứ tự node (đánh số lại liên tục) nên hai trie cùng nội
+     * dung cho cùng byte dù node kết thúc được cấp theo thứ tự nào; từ gốc được ghi dưới dạng chỉ số trong bảng
+     * chuỗi chung.
+     */
+    public void writeTo(DataOutput out, ToIntFunction<String> strings) throws IOException {
+        // Không ghi node đã bị cắt: snapshot trên đĩa luôn gọn
+        if (deadNodes > 0) {
+            compact().writeTo(out, strings);
+            return;
+        }
+        out.writeInt(nodeCount);
+        out.writeInt(maxDepth);
+        BinaryIO.writeChars(out, labels, nodeCount);
+        BinaryIO.writeInts(out, firstChild, nodeCount);
+        BinaryIO.writeInts(out, nextSibling, nodeCount);
+        BinaryIO.writeInts(out, maxFrequency, nodeCount);
+        int[] ordinals = new int[nodeCount];
+        int terminals = 0;
+        for (int i = 0; i < nodeCount; i++) ordinals[i] = isTerminal(i) ? ++terminals : 0;
+        BinaryIO.writeInts(out, ordinals, nodeCount);
+        out.writeInt(terminals);
+        for (int i = 0; i < nodeCount; i++) {
+            if (!isTerminal(i)) continue;
+            out.writeLong(termFrequency.get(term.get(i) - 1));
+            out.writeInt(strings.applyAsInt(termOriginal.get(term.get(i) - 1)));
+        }
+        out.writeInt(variantCount);
+        for (int i = 0; i < nodeCount; i++) {
+            if (!isTerminal(i)) continue;
+            for (int v = termVariantHead.get(term.get(i) - 1) - 1; v != NONE; v = variantNext.get(v) - 1) {
+                out.writeInt(ordinals[i] - 1);
+                out.writeInt(strings.applyAsInt(variantWords.get(v)));
+                out.writeLong(variantFrequency.get(v));
+            }
+        }
+    }
+
+    public static Trie readFrom(ByteBuffer in, IntFunction<String> strings) {
+        Trie t = new Trie(0);
+        int n = in.getInt();
+        t.nodeCount = n;
+        t.maxDepth = in.getInt();
+        t.labels = BinaryIO.readCharPages(in, n);
+        t.firstChild = BinaryIO.readIntPages(in, n);
+        t.nextSibling = BinaryIO.readIntPages(in, n);
+        t.maxFrequency = BinaryIO.readIntPages(in, n);
+        t.term = BinaryIO.readIntPages(in, n);
+        int terminals = in.getInt();
+        t.ensureTerminalCapacity(terminals);
+        for (int i = 0; i < terminals; i++) {
+            t.termFrequency.set(i, in.getLong());
+            t.termOriginal.set(i, strings.apply(in.getInt()));
+        }
+        t.termCount = terminals;
+        int variants = in.getInt();
+        for (int i = 0; i < variants; i++) t.appendVariant(in.getInt(), strings.apply(in.getInt()), in.getLong());
+        return t;
+    }
+
+    public static Trie build(Collection<String> words) {
+        Map<String, Long> withFrequency = new LinkedHashMap<>();
+        for (String w : words) withFrequency.putIfAbsent(w, 0L);
+        return build(withFrequency);
+    }
+
+    /**
+     * Dựng trie từ toàn bộ danh sách từ (word -> frequency, theo thứ tự ưu tiên bản gốc):
+     * sắp xếp trước để mảng được cấp phát đúng kích thước.
+     */
+    public static Trie build(Map<String, Long> wordFrequencies) {
+        int n = wordFrequencies.size();
+        String[] words = new String[n];
+        String[] normalized = new String[n];
+        long[] frequencies = new long[n];
+        int i = 0;
+        for (Map.Entry<String, Long> e : wordFrequencies.entrySet()) {
+            words[i] = e.getKey();
+            normalized[i] = e.getKey() == null ? null : NormalizerUtil.normalize(e.getKey());
+            frequencies[i] = e.getValue() == null ? 0L : e.getValue();
+            i++;
+        }
+        return build(words, normalized, frequencies, false);
+    }
+
+    /**
+     * Dựng trie từ các mảng song song (normalized[i] là dạng chuẩn hóa của words[i]); trùng dạng chuẩn hóa
+     * thì từ đứng trước là từ gốc đầu tiên, các từ sau thành biến thể theo thứ tự đầu vào. Các khóa được sắp xếp trước nên node của mỗi ký tự đầu được cấp phát liền
+     * nhau: với parallel, mỗi ký tự đầu được dựng thành một trie con trên ForkJoinPool chung rồi nối mảng
+     * lại, cho kết quả giống hệt từng phần tử so với dựng tuần tự.
+     */
+    public static Trie build(String[] words, String[] normalized, long[] frequencies, boolean parallel) {
+        List<Key> keys = new ArrayList<>(words.length);
+        for (int i = 0; i < words.length; i++) {
+            if (words[i] != null && !words[i].isEmpty()) keys.add(new Key(normalized[i], i));
+        }
+        Key[] sorted = keys.toArray(new Key[0]);
+        if (parallel) Arrays.parallelSort(sorted);
+        else Arrays.sort(sorted);
+        // Giữ khóa đầu tiên của mỗi dạng chuẩn hóa và chia thành các đoạn theo ký tự đầu; các khóa trùng dạng
+        // được gắn làm biến thể sau khi ghép
+        int unique = 0;
+        List<int[]> shards = new ArrayList<>();
+        List<Key> variants = new ArrayList<>();
+        for (Key k : sorted) {
+            if (unique > 0 && sorted[unique - 1].norm.equals(k.norm)) {
+                variants.add(k);
+                continue;
+            }
+            sorted[unique] = k;
+            boolean newShard = !k.norm.isEmpty()
+                && (unique == 0 || sorted[unique - 1].norm.isEmpty() || sorted[unique - 1].norm.charAt(0) != k.norm.charAt(0));
+            if (newShard) shards.add(new int[]{unique, unique + 1});
+            else if (!k.norm.isEmpty()) shards.get(shards.size() - 1)[1] = unique + 1;
+            unique++;
+        }
+        Key[] uniq = Arrays.copyOf(sorted, unique);
+        IntStream range = IntStream.range(0, shards.size());
+        Trie[] subs = (parallel ? range.parallel() : range)
+            .mapToObj(s -> buildShard(uniq, shards.get(s)[0], shards.get(s)[1], words, frequencies))
+            .toArray(Trie[]::new);
+
+        int total = 1;
+        int terminals = unique > 0 && uniq[0].norm.isEmpty() ? 1 : 0;
+        for (Trie sub : subs) {
+            total += sub.nodeCount - 1;
+            terminals += sub.termCount;
+        }
+        Trie trie = new Trie(total);
+        trie.ensureTerminalCapacity(terminals);
+        if (unique > 0 && uniq[0].norm.isEmpty()) {
+            trie.insertNormalized("", words[uniq[0].index], frequencies[uniq[0].index], new int[1]);
+        }
+        int offset = 1;
+        int prevTop = NONE;
+        for (Trie sub : subs) {
+            // Node cục bộ L >= 1 của trie con thành node L - 1 + offset; node 1 là con của root. Trie con chưa có
+            // biến thể và không có ô kết thúc trống nên node kết thúc chỉ cần dời theo số đã có
+            int shift = offset - 1;
+            int count = sub.nodeCount - 1;
+            int termShift = trie.termCount;
+            for (int l = 0; l < sub.termCount; l++) {
+                trie.termFrequency.set(l + termShift, sub.termFrequency.get(l));
+                trie.termOriginal.set(l + termShift, sub.termOriginal.get(l));
+            }
+            trie.termCount += sub.termCount;
+            for (int l = 1; l < sub.nodeCount; l++) {
+                int g = l + shift;
+                trie.labels.set(g, sub.labels.get(l));
+                trie.maxFrequency.set(g, sub.maxFrequency.get(l));
+                trie.firstChild.set(g, sub.firstChild.get(l) == NONE ? NONE : sub.firstChild.get(l) + shift);
+                trie.nextSibling.set(g, sub.nextSibling.get(l) == NONE ? NONE : sub.nextSibling.get(l) + shift);
+                trie.term.set(g, sub.term.get(l) == 0 ? 0 : sub.term.get(l) + termShift);
+            }
+            if (prevTop == NONE) trie.firstChild.set(ROOT, offset);
+            else trie.nextSibling.set(prevTop, offset);
+            prevTop = offset;
+            trie.maxFrequency.set(ROOT, Math.max(trie.maxFrequency.get(ROOT), sub.maxFrequency.get(ROOT)));
+            trie.maxDepth = Math.max(trie.maxDepth, sub.maxDepth);
+            offset += count;
+        }
+        trie.nodeCount = total;
+        for (Key k : variants) {
+            int[] path = new int[k.norm.length() + 1];
+            trie.addOriginal(path, trie.findPath(k.norm, path), words[k.index], frequencies[k.index]);
+        }
+        return trie;
+    }
+
+    private static Trie buildShard(Key[] keys, int from, int to, String[] words, long[] frequencies) {
+        long chars = 0;
+        for (int i = from; i < to; i++) chars += keys[i].norm.length();
+        Trie sub = new Trie((int) Math.min(Integer.MAX_VALUE - 8, chars + 1));
+        int[] path = new int[0];
+        for (int i = from; i < to; i++) {
+            if (path.length <= keys[i].norm.length()) path = new int[keys[i].norm.length() + 1];
+            sub.insertNormalized(keys[i].norm, words[keys[i].index], frequencies[keys[i].index], path);
+        }
+        return sub;
+    }
 
     public void insert(String word) {
+        insert(word, 0L);
+    }
+
+    public void insert(String word, long freq) {
         if (word == null || word.isEmpty()) return;
         String norm = NormalizerUtil.normalize(word);
-        normalizedToOriginal.putIfAbsent(norm, word);
-        TrieNode node = root;
-        for (char c : norm.toCharArray()) {
-            node = node.children.computeIfAbsent(c, k -> new TrieNode());
+        int[] path = new int[norm.length() + 1];
+        if (!insertNormalized(norm, word, freq, path)) addOriginal(path, norm.length(), word, freq);
+    }
+
+    /**
+     * Cập nhật frequency của một từ gốc đã có (đúng dấu, không phân biệt hoa thường) và lan truyền lại max
+     * frequency dọc đường đi lên root, chi phí O(độ dài từ x số nhánh). Trả về false nếu trie chưa có từ gốc này.
+     */
+    public boolean updateFrequency(String word, long freq) {
+        if (word == null || word.isEmpty()) return false;
+        String norm = NormalizerUtil.normalize(word);
+        int[] path = new int[norm.length() + 1];
+        int depth = findPath(norm, path);
+        if (depth == NONE || !isTerminal(path[depth])) return false;
+        int t = term.get(path[depth]) - 1;
+        long old;
+        if (isPrimary(t, word)) {
+            old = termFrequency.get(t);
+            termFrequency.set(t, freq);
+        } else {
+            int v = variantOf(t, word);
+            if (v == NONE) return false;
+            old = variantFrequency.get(v);
+            variantFrequency.set(v, freq);
         }
-        node.isWord = true;
+        if (freq >= old) raiseMax(path, depth, freq);
+        else refreshMax(path, depth);
+        return true;
     }
 
-    public boolean search(String word) {
+    /**
+     * Xóa từ gốc word (đúng dấu, không phân biệt hoa thường). Nếu cùng dạng chuẩn hóa còn từ gốc khác thì
+     * node giữ nguyên (biến thể kế tiếp lên thay từ gốc đầu); ngược lại bỏ đánh dấu kết thúc, cắt các node
+     * không còn từ nào phía dưới. Sau đó cập nhật max frequency dọc đường lên root, chi phí O(độ dài từ x số nhánh).
+     */
+    public boolean remove(String word) {
         if (word == null || word.isEmpty()) return false;
         String norm = NormalizerUtil.normalize(word);
-        TrieNode node = root;
-        for (char c : norm.toCharArray()) {
-            node = node.children.get(c);
-            if (node == null) return false;
+        int[] path = new int[norm.length() + 1];
+        int depth = findPath(norm, path);
+        if (depth == NONE || !isTerminal(path[depth])) return false;
+        int node = path[depth];
+        int t = term.get(node) - 1;
+        if (!isPrimary(t, word)) {
+            int v = variantOf(t, word);
+            if (v == NONE) return false;
+            unlinkVariant(t, v);
+            refreshMax(path, depth);
+            return true;
+        }
+        int head = termVariantHead.get(t) - 1;
+        if (head != NONE) {
+            termOriginal.set(t, variantWords.get(head));
+            termFrequency.set(t, variantFrequency.get(head));
+            unlinkVariant(t, head);
+            refreshMax(path, depth);
+            return true;
+        }
+        freeTerminal(node);
+        while (depth > 0 && firstChild.get(node) == NONE && !isTerminal(node)) {
+            unlinkChild(path[depth - 1], node);
+            maxFrequency.set(node, EMPTY_MAX);
+            deadNodes++;
+            node = path[--depth];
         }
-        return node.isWord;
+        refreshMax(path, depth);
+        return true;
+    }
+
+    /**
+     * Frequency đang lưu của từ gốc word; nếu word không khớp dấu với từ gốc nào cùng dạng chuẩn hóa thì là
+     * frequency của từ gốc đầu tiên. Long.MIN_VALUE nếu không có.
+     */
+    public long frequencyOf(String word) {
+        if (word == null || word.isEmpty()) return Long.MIN_VALUE;
+        int node = find(NormalizerUtil.normalize(word));
+        if (node == NONE || !isTerminal(node)) return Long.MIN_VALUE;
+        int t = term.get(node) - 1;
+        int v = isPrimary(t, word) ? NONE : variantOf(t, word);
+        return v == NONE ? termFrequency.get(t) : variantFrequency.get(v);
+    }
+
+    /** Mọi từ gốc có dạng chuẩn hóa đúng bằng dạng chuẩn hóa của word, từ gốc đầu tiên trước. */
+    public List<String> originalsOf(String word) {
+        List<String> out = new ArrayList<>();
+        if (word == null || word.isEmpty()) return out;
+        int node = find(NormalizerUtil.normalize(word));
+        if (node == NONE || !isTerminal(node)) return out;
+        int t = term.get(node) - 1;
+        out.add(termOriginal.get(t));
+        for (int v = termVariantHead.get(t) - 1; v != NONE; v = variantNext.get(v) - 1) out.add(variantWords.get(v));
+        return out;
+    }
+
+    public boolean search(String word) {
+        if (word == null || word.isEmpty()) return false;
+        int node = find(NormalizerUtil.normalize(word));
+        return node != NONE && isTerminal(node);
     }
 
     public List<String> prefixSuggest(String prefix, int limit, boolean bfs) {
-        List<String> results = new ArrayList<>();
-        if (prefix == null) return results;
+        if (prefix == null || limit <= 0) return new ArrayList<>();
+        Set<String> results = new LinkedHashSet<>();
+        forEachTerminal(prefix, bfs, (node, path, length) -> {
+            int t = term.get(node) - 1;
+            results.add(termOriginal.get(t));
+            for (int v = termVariantHead.get(t) - 1; v != NONE && results.size() < limit; v = variantNext.get(v) - 1) {
+                results.add(variantWords.get(v));
+            }
+            return results.size() < limit;
+        });
+        return new ArrayList<>(results);
+    }
+
+    /**
+     * Duyệt các từ (đã chuẩn hóa) bắt đầu bằng prefix theo BFS hoặc DFS. Đường đi được ghi vào
+     * một buffer dùng chung nên không cấp phát chuỗi cho từng bước; visitor có thể dừng sớm.
+     */
+    public void forEachWithPrefix(String prefix, boolean bfs, WordVisitor visitor) {
+        forEachTerminal(prefix, bfs, (node, path, length) -> visitor.visit(path, length));
+    }
+
+    private void forEachTerminal(String prefix, boolean bfs, TerminalVisitor visitor) {
+        if (prefix == null) return;
         String normPrefix = NormalizerUtil.normalize(prefix);
-        TrieNode node = root;
-        for (char c : normPrefix.toCharArray()) {
-            node = node.children.get(c);
-            if (node == null) return results;
-        }
-        List<String> normalized = new ArrayList<>();
-        if (bfs) bfsCollect(normPrefix, node, limit, normalized);
-        else dfsCollect(normPrefix, node, limit, normalized);
-        for (String n : normalized) {
-            String orig = normalizedToOriginal.getOrDefault(n, n);
-            if (!results.contains(orig)) results.add(orig);
+        int node = find(normPrefix);
+        if (node == NONE) return;
+        char[] path = new char[normPrefix.length() + maxDepth];
+        normPrefix.getChars(0, normPrefix.length(), path, 0);
+        if (bfs) bfsCollect(node, path, normPrefix.length(), visitor);
+        else dfsCollect(node, path, normPrefix.length(), visitor);
+    }
+
+    /**
+     * Trả về tối đa k từ có frequency cao nhất bắt đầu bằng prefix. Tìm kiếm best-first theo
+     * max frequency của cây con nên chỉ mở rộng các node có thể lọt vào top-K.
+     */
+    public List<String> topKByFrequency(String prefix, int k) {
+        if (prefix == null || k <= 0) return new ArrayList<>();
+        return topKFrom(find(NormalizerUtil.normalize(prefix)), k);
+    }
+
+    /** Như {@link #topKByFrequency(String, int)} nhưng bắt đầu từ node mà cursor đã tìm sẵn. */
+    public List<String> topKByFrequency(Cursor cursor, int k) {
+        if (cursor.trie != this) throw new IllegalArgumentException("Cursor belongs to another trie");
+        if (k <= 0) return new ArrayList<>();
+        return topKFrom(cursor.node, k);
+    }
+
+    /**
+     * Tìm node của prefix (đã chuẩn hóa). Nếu from thuộc trie này và prefix kéo dài prefix của from thì
+     * chỉ đi tiếp các ký tự mới, nên một lần gõ thêm ký tự tốn O(1) bước thay vì đi lại từ root.
+     */
+    public Cursor cursor(String normalizedPrefix, Cursor from) {
+        int node = ROOT;
+        int i = 0;
+        if (from != null && from.trie == this && normalizedPrefix.startsWith(from.prefix)) {
+            node = from.node;
+            i = from.prefix.length();
+        }
+        for (; i < normalizedPrefix.length() && node != NONE; i++) node = child(node, normalizedPrefix.charAt(i));
+        return new Cursor(this, normalizedPrefix, node);
+    }
+
+    private List<String> topKFrom(int start, int k) {
+        List<String> results = new ArrayList<>();
+        if (start == NONE) return results;
+        PriorityQueue<Candidate> pq = new PriorityQueue<>();
+        pq.add(new Candidate(start, decodeMax(maxFrequency.get(start)), false, NONE));
+        while (!pq.isEmpty() && results.size() < k) {
+            Candidate c = pq.poll();
+            if (c.emit) {
+                results.add(c.variant != NONE ? variantWords.get(c.variant) : termOriginal.get(term.get(c.node) - 1));
+                continue;
+            }
+            // Mỗi từ gốc của node là một ứng viên riêng theo frequency của chính nó
+            if (isTerminal(c.node)) {
+                int t = term.get(c.node) - 1;
+                pq.add(new Candidate(c.node, termFrequency.get(t), true, NONE));
+                for (int v = termVariantHead.get(t) - 1; v != NONE; v = variantNext.get(v) - 1) {
+                    pq.add(new Candidate(c.node, variantFrequency.get(v), true, v));
+                }
+            }
+            for (int ch = firstChild.get(c.node); ch != NONE; ch = nextSibling.get(ch)) {
+                pq.add(new Candidate(ch, decodeMax(maxFrequency.get(ch)), false, NONE));
+            }
         }
         return results;
     }
 
-    private void bfsCollect(String prefix, TrieNode start, int limit, List<String> out) {
-        Deque<Pair> q = new ArrayDeque<>();
-        q.add(new Pair(prefix, start));
-        while (!q.isEmpty() && out.size() < limit) {
-            Pair p = q.poll();
-            if (p.node.isWord) out.add(p.word);
-            for (Map.Entry<Character, TrieNode> e : p.node.children.entrySet()) {
-                q.add(new Pair(p.word + e.getKey(), e.getValue()));
+    /**
+     * Tìm mọi từ có khoảng cách Levenshtein (trên dạng chuẩn hóa) tới query không quá maxDistance.
+     * Duyệt trie và tính từng hàng DP theo độ sâu; bỏ qua cả cây con khi giá trị nhỏ nhất
+     * của hàng đã vượt maxDistance, nên chi phí phụ thuộc vùng lân cận chứ không phụ thuộc kích thước từ điển.
+     */
+    public List<Match> fuzzySearch(String query, int maxDistance) {
+        List<Match> out = new ArrayList<>();
+        if (query == null || maxDistance < 0) return out;
+        String q = NormalizerUtil.normalize(query);
+        int m = q.length();
+        int width = m + 1;
+        int depthLimit = Math.min(maxDepth, m + maxDistance);
+        int[] rows = new int[(depthLimit + 1) * width];
+        for (int j = 0; j <= m; j++) rows[j] = j;
+        if (isTerminal(ROOT) && m <= maxDistance) {
+            out.add(new Match(termOriginal.get(term.get(ROOT) - 1), m));
+            addVariantMatches(out, ROOT, m);
+        }
+        int[] stack = new int[32];
+        int top = 0;
+        for (int ch = firstChild.get(ROOT); ch != NONE; ch = nextSibling.get(ch)) {
+            if (top + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+            stack[top++] = ch;
+            stack[top++] = 1;
+        }
+        while (top > 0) {
+            int depth = stack[--top];
+            int node = stack[--top];
+            if (depth > depthLimit) continue;
+            char c = labels.get(node);
+            int prev = (depth - 1) * width;
+            int cur = depth * width;
+            rows[cur] = depth;
+            int rowMin = depth;
+            for (int j = 1; j <= m; j++) {
+                int cost = q.charAt(j - 1) == c ? 0 : 1;
+                int v = Math.min(Math.min(rows[cur + j - 1] + 1, rows[prev + j] + 1), rows[prev + j - 1] + cost);
+                rows[cur + j] = v;
+                if (v < rowMin) rowMin = v;
+            }
+            if (rowMin > maxDistance) continue;
+            if (isTerminal(node) && rows[cur + m] <= maxDistance) {
+                out.add(new Match(termOriginal.get(term.get(node) - 1), rows[cur + m]));
+                addVariantMatches(out, node, rows[cur + m]);
+            }
+            for (int ch = firstChild.get(node); ch != NONE; ch = nextSibling.get(ch)) {
+                if (top + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                stack[top++] = ch;
+                stack[top++] = depth + 1;
             }
         }
+        return out;
     }
 
-    private void dfsCollect(String prefix, TrieNode start, int limit, List<String> out) {
-        Deque<Pair> st = new ArrayDeque<>();
-        st.push(new Pair(prefix, start));
-        while (!st.isEmpty() && out.size() < limit) {
-            Pair p = st.pop();
-            if (p.node.isWord) out.add(p.word);
-            for (Map.Entry<Character, TrieNode> e : p.node.children.entrySet()) {
-                st.push(new Pair(p.word + e.getKey(), e.getValue()));
+    /**
+     * Tìm kiếm mờ gia tăng: giữ tập node hoạt động, tức mọi node có khoảng cách Levenshtein giữa đường đi
+     * tới node và query không quá maxDistance, kèm khoảng cách đó. Khi query được gõ thêm ký tự, tập mới
+     * được suy từ tập cũ (bỏ ký tự, khớp/thay ở node con, rồi chèn xuống cây con) thay vì duyệt lại trie,
+     * nên chi phí mỗi phím chỉ phụ thuộc kích thước tập hoạt động. Kết quả giống hệt {@link #fuzzySearch}.
+     */
+    public FuzzyCursor fuzzyCursor(String normalizedQuery, int maxDistance, FuzzyCursor from) {
+        if (maxDistance < 0 || maxDistance > 0xFF) throw new IllegalArgumentException("maxDistance out of range: " + maxDistance);
+        long[] active;
+        int i;
+        if (from != null && from.trie == this && from.maxDistance == maxDistance && normalizedQuery.startsWith(from.query)) {
+            active = from.active;
+            i = from.query.length();
+        } else {
+            active = fuzzyRoot(maxDistance);
+            i = 0;
+        }
+        for (; i < normalizedQuery.length(); i++) active = fuzzyStep(active, normalizedQuery.charAt(i), maxDistance);
+        return new FuzzyCursor(this, normalizedQuery, maxDistance, active);
+    }
+
+    /** Các từ của tập hoạt động có khoảng cách không quá maxDistance (<= maxDistance của cursor). */
+    public List<Match> fuzzyMatches(FuzzyCursor cursor, int maxDistance) {
+        if (cursor.trie != this) throw new IllegalArgumentException("Cursor belongs to another trie");
+        List<Match> out = new ArrayList<>();
+        for (long a : cursor.active) {
+            int node = activeNode(a);
+            int d = activeDistance(a);
+            if (d <= maxDistance && isTerminal(node)) {
+                out.add(new Match(termOriginal.get(term.get(node) - 1), d));
+                addVariantMatches(out, node, d);
             }
         }
+        return out;
     }
 
-    private static class Pair {
-        final String word;
-        final TrieNode node;
-        Pair(String word, TrieNode node) { this.word = word; this.node = node; }
+    // Phần tử tập hoạt động: node << 8 | khoảng cách; sắp tăng theo node rồi khoảng cách
+    private static long active(int node, int distance) { return (long) node << 8 | distance; }
+    private static int activeNode(long a) { return (int) (a >>> 8); }
+    private static int activeDistance(long a) { return (int) (a & 0xFF); }
+
+    /** Query rỗng: mọi node ở độ sâu <= maxDistance, khoảng cách bằng độ sâu. */
+    private long[] fuzzyRoot(int maxDistance) {
+        long[] out = new long[16];
+        int n = 0;
+        out[n++] = active(ROOT, 0);
+        for (int i = 0; i < n; i++) {
+            int node = activeNode(out[i]);
+            int d = activeDistance(out[i]);
+            if (d == maxDistance) continue;
+            for (int ch = firstChild.get(node); ch != NONE; ch = nextSibling.get(ch)) {
+                if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                out[n++] = active(ch, d + 1);
+            }
+        }
+        Arrays.sort(out, 0, n);
+        return Arrays.copyOf(out, n);
+    }
+
+    private long[] fuzzyStep(long[] prev, char c, int maxDistance) {
+        long[] out = new long[Math.max(16, prev.length * 2)];
+        int n = 0;
+        for (long a : prev) {
+            int node = activeNode(a);
+            int d = activeDistance(a);
+            // Ký tự mới của query không khớp gì (xóa khỏi query)
+            if (d < maxDistance) {
+                if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                out[n++] = active(node, d + 1);
+            }
+            // Khớp hoặc thay ở node con
+            for (int ch = firstChild.get(node); ch != NONE; ch = nextSibling.get(ch)) {
+                int v = labels.get(ch) == c ? d : d + 1;
+                if (v > maxDistance) continue;
+                if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                out[n++] = active(ch, v);
+            }
+        }
+        n = dedupe(out, n);
+        // Chèn ký tự của từ: node con cách cha (trong tập mới) thêm 1
+        int base = n;
+        for (int i = 0; i < n; i++) {
+            int d = activeDistance(out[i]);
+            if (d == maxDistance) continue;
+            int node = activeNode(out[i]);
+            for (int ch = firstChild.get(node); ch != NONE; ch = nextSibling.get(ch)) {
+                if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                out[n++] = active(ch, d + 1);
+            }
+        }
+        if (n > base) n = dedupe(out, n);
+        return Arrays.copyOf(out, n);
+    }
+
+    /** Sắp xếp và giữ khoảng cách nhỏ nhất cho mỗi node; trả về số phần tử còn lại. */
+    private static int dedupe(long[] a, int n) {
+        Arrays.sort(a, 0, n);
+        int w = 0;
+        for (int i = 0; i < n; i++) {
+            if (w > 0 && activeNode(a[w - 1]) == activeNode(a[i])) continue;
+            a[w++] = a[i];
+        }
+        return w;
+    }
+
+    public int nodeCount() { return nodeCount; }
+
+    /** Số node đã bị {@link #remove} cắt mà chưa được {@link #compact()} thu hồi. */
+    public int deadNodeCount() { return deadNodes; }
+
+    /**
+     * Ước lượng số byte của các ô đang dùng (không tính bản thân các chuỗi từ gốc, tham chiếu tính 4 byte, phần
+     * trống của trang cuối mỗi mảng cũng không tính): 18 byte mỗi node, 16 byte mỗi ô kết thúc, 16 byte mỗi biến thể.
+     */
+    public long footprintBytes() {
+        return (long) nodeCount * (Character.BYTES + 4 * Integer.BYTES)
+            + (long) termCount * (Long.BYTES + Integer.BYTES + Integer.BYTES)
+            + (long) variantCount * (Integer.BYTES + Long.BYTES + Integer.BYTES);
+    }
+
+    private void addVariantMatches(List<Match> out, int node, int distance) {
+        for (int v = termVariantHead.get(term.get(node) - 1) - 1; v != NONE; v = variantNext.get(v) - 1) out.add(new Match(variantWords.get(v), distance));
+    }
+
+    private boolean isPrimary(int t, String word) {
+        return termOriginal.get(t).equalsIgnoreCase(word);
+    }
+
+    private int variantOf(int t, String word) {
+        for (int v = termVariantHead.get(t) - 1; v != NONE; v = variantNext.get(v) - 1) {
+            if (variantWords.get(v).equalsIgnoreCase(word)) return v;
+        }
+        return NONE;
+    }
+
+    /** Gắn word làm biến thể của node kết thúc path[depth] nếu node chưa có từ gốc này. */
+    private void addOriginal(int[] path, int depth, String word, long freq) {
+        int t = term.get(path[depth]) - 1;
+        if (isPrimary(t, word) || variantOf(t, word) != NONE) return;
+        appendVariant(t, word, freq);
+        raiseMax(path, depth, freq);
+    }
+
+    private void appendVariant(int t, String word, long freq) {
+        int v;
+        if (variantFree != 0) {
+            v = variantFree - 1;
+            variantFree = variantNext.get(v);
+        } else {
+            v = variantCount;
+            variantWords.ensureCapacity(v + 1);
+            variantFrequency.ensureCapacity(v + 1);
+            variantNext.ensureCapacity(v + 1);
+        }
+        variantCount++;
+        variantWords.set(v, word);
+        variantFrequency.set(v, freq);
+        variantNext.set(v, 0);
+        if (termVariantHead.get(t) == 0) {
+            termVariantHead.set(t, v + 1);
+        } else {
+            int last = termVariantHead.get(t) - 1;
+            while (variantNext.get(last) != 0) last = variantNext.get(last) - 1;
+            variantNext.set(last, v + 1);
+        }
+    }
+
+    private void unlinkVariant(int t, int v) {
+        if (termVariantHead.get(t) == v + 1) {
+            termVariantHead.set(t, variantNext.get(v));
+        } else {
+            int prev = termVariantHead.get(t) - 1;
+            while (variantNext.get(prev) != v + 1) prev = variantNext.get(prev) - 1;
+            variantNext.set(prev, variantNext.get(v));
+        }
+        variantWords.set(v, null);
+        variantNext.set(v, variantFree);
+        variantFree = v + 1;
+        variantCount--;
     }
-}
 
+    // path[0..depth] là đường đi từ root tới node đang sửa
+    private void raiseMax(int[] path, int depth, long freq) {
+        int encoded = encodeMax(freq);
+        for (int d = depth; d >= 0 && maxFrequency.get(path[d]) < encoded; d--) maxFrequency.set(path[d], encoded);
+    }
+
+    private void refreshMax(int[] path, int depth) {
+        for (int d = depth; d >= 0; d--) {
+            int recomputed = subtreeMax(path[d]);
+            if (recomputed == maxFrequency.get(path[d])) break;
+            maxFrequency.set(path[d], recomputed);
+        }
+    }
+
+    /**
+     * frequency -> max của cây con: giá trị ngoài khoảng int bị bão hòa lên phía trên (cận trên vẫn đúng nên top-K
+     * không sai), EMPTY_MAX dành cho cây con rỗng.
+     */
+    private static int encodeMax(long freq) {
+        if (freq >= Integer.MAX_VALUE) return Integer.MAX_VALUE;
+        if (freq <= EMPTY_MAX) return EMPTY_MAX + 1;
+        return (int) freq;
+    }
+
+    private static long decodeMax(int max) {
+        if (max == Integer.MAX_VALUE) return Long.MAX_VALUE;
+        if (max == EMPTY_MAX) return Long.MIN_VALUE;
+        return max;
+    }
+
+    /**
+     * Đi (và tạo nếu thiếu) đường tới norm, ghi vào path[0..norm.length()]. Node chưa kết thúc thì thành node
+     * kết thúc với từ gốc word; trả về false nếu node đã là node kết thúc (không đổi gì).
+     */
+    private boolean insertNormalized(String norm, String word, long freq, int[] path) {
+        int node = ROOT;
+        path[0] = ROOT;
+        for (int i = 0; i < norm.length(); i++) {
+            node = childOrCreate(node, norm.charAt(i));
+            path[i + 1] = node;
+        }
+        maxDepth = Math.max(maxDepth, norm.length());
+        if (isTerminal(node)) return false;
+        newTerminal(node, word, freq);
+        raiseMax(path, norm.length(), freq);
+        return true;
+    }
+
+    private int subtreeMax(int node) {
+        long max = Long.MIN_VALUE;
+        if (isTerminal(node)) {
+            int t = term.get(node) - 1;
+            max = termFrequency.get(t);
+            for (int v = termVariantHead.get(t) - 1; v != NONE; v = variantNext.get(v) - 1) max = Math.max(max, variantFrequency.get(v));
+        }
+        int encoded = max == Long.MIN_VALUE ? EMPTY_MAX : encodeMax(max);
+        for (int ch = firstChild.get(node); ch != NONE; ch = nextSibling.get(ch)) {
+            encoded = Math.max(encoded, maxFrequency.get(ch));
+        }
+        return encoded;
+    }
+
+    /** Gắn một ô kết thúc (dùng lại ô trống nếu có) cho node; trả về số thứ tự của ô. */
+    private int newTerminal(int node, String word, long freq) {
+        int t;
+        if (termFree != 0) {
+            t = termFree - 1;
+            termFree = termVariantHead.get(t);
+        } else {
+            ensureTerminalCapacity(termCount + 1);
+            t = termCount++;
+        }
+        termFrequency.set(t, freq);
+        termOriginal.set(t, word);
+        termVariantHead.set(t, 0);
+        term.set(node, t + 1);
+        return t;
+    }
 
+    private void freeTerminal(int node) {
+        int t = term.get(node) - 1;
+        term.set(node, 0);
+        termOriginal.set(t, null);
+        termFrequency.set(t, 0L);
+        termVariantHead.set(t, termFree);
+        termFree = t + 1;
+    }
+
+    private void ensureTerminalCapacity(int capacity) {
+        termFrequency.ensureCapacity(capacity);
+        termOriginal.ensureCapacity(capacity);
+        termVariantHead.ensureCapacity(capacity);
+    }
+
+    /** Đi theo norm từ root, ghi đường đi vào path[0..]; trả về độ sâu của node cuối (norm.length()) hoặc NONE. */
+    private int findPath(String norm, int[] path) {
+        int node = ROOT;
+        path[0] = ROOT;
+        for (int i = 0; i < norm.length(); i++) {
+            node = child(node, norm.charAt(i));
+            if (node == NONE) return NONE;
+            path[i + 1] = node;
+        }
+        return norm.length();
+    }
+
+    private int find(String norm) {
+        int node = ROOT;
+        for (int i = 0; i < norm.length() && node != NONE; i++) {
+            node = child(node, norm.charAt(i));
+        }
+        return node;
+    }
+
+    private int child(int node, char c) {
+        for (int ch = firstChild.get(node); ch != NONE; ch = nextSibling.get(ch)) {
+            char l = labels.get(ch);
+            if (l == c) return ch;
+            if (l > c) break;
+        }
+        return NONE;
+    }
+
+    private void unlinkChild(int node, int child) {
+        int prev = NONE;
+        for (int ch = firstChild.get(node); ch != child; ch = nextSibling.get(ch)) prev = ch;
+        if (prev == NONE) firstChild.set(node, nextSibling.get(child));
+        else nextSibling.set(prev, nextSibling.get(child));
+        nextSibling.set(child, NONE);
+    }
+
+    private int childOrCreate(int node, char c) {
+        int prev = NONE;
+        int ch = firstChild.get(node);
+        while (ch != NONE && labels.get(ch) < c) {
+            prev = ch;
+            ch = nextSibling.get(ch);
+        }
+        if (ch != NONE && labels.get(ch) == c) return ch;
+        int created = newNode(c);
+        nextSibling.set(created, ch);
+        if (prev == NONE) firstChild.set(node, created);
+        else nextSibling.set(prev, created);
+        return created;
+    }
+
+    private int newNode(char c) {
+        int id = nodeCount++;
+        ensureCapacity(nodeCount);
+        labels.set(id, c);
+        firstChild.set(id, NONE);
+        nextSibling.set(id, NONE);
+        maxFrequency.set(id, EMPTY_MAX);
+        term.set(id, 0);
+        return id;
+    }
+
+    private boolean isTerminal(int node) {
+        return term.get(node) != 0;
+    }
+
+    private void allocate(int capacity) {
+        labels = new PagedArray.Chars(capacity);
+        firstChild = new PagedArray.Ints(capacity);
+        nextSibling = new PagedArray.Ints(capacity);
+        maxFrequency = new PagedArray.Ints(capacity);
+        term = new PagedArray.Ints(capacity);
+    }
+
+    private void ensureCapacity(int capacity) {
+        labels.ensureCapacity(capacity);
+        firstChild.ensureCapacity(capacity);
+        nextSibling.ensureCapacity(capacity);
+        maxFrequency.ensureCapacity(capacity);
+        term.ensureCapacity(capacity);
+    }
+
+    private void bfsCollect(int start, char[] path, int prefixLength, TerminalVisitor visitor) {
+        // Không có node cha: mỗi phần tử hàng đợi nhớ vị trí của cha nó trong hàng đợi để dựng lại đường đi
+        int[] queue = new int[16];
+        int[] from = new int[16];
+        int head = 0, tail = 0;
+        queue[tail] = start;
+        from[tail++] = NONE;
+        while (head < tail) {
+            int at = head++;
+            int node = queue[at];
+            if (isTerminal(node)) {
+                int depth = 0;
+                for (int q = at; from[q] != NONE; q = from[q]) depth++;
+                int i = prefixLength + depth;
+                for (int q = at; from[q] != NONE; q = from[q]) path[--i] = labels.get(queue[q]);
+                if (!visitor.visit(node, path, prefixLength + depth)) return;
+            }
+            for (int ch = firstChild.get(node); ch != NONE; ch = nextSibling.get(ch)) {
+                if (tail == queue.length) {
+                    queue = Arrays.copyOf(queue, queue.length * 2);
+                    from = Arrays.copyOf(from, from.length * 2);
+                }
+                queue[tail] = ch;
+                from[tail++] = at;
+            }
+        }
+    }
+
+    private void dfsCollect(int start, char[] path, int prefixLength, TerminalVisitor visitor) {
+        // Mỗi phần tử stack gồm 2 ô: node và độ dài đường đi tới node đó
+        int[] stack = new int[32];
+        int top = 0;
+        stack[top++] = start;
+        stack[top++] = prefixLength;
+        while (top > 0) {
+            int length = stack[--top];
+            int node = stack[--top];
+            if (node != start) path[length - 1] = labels.get(node);
+            if (isTerminal(node) && !visitor.visit(node, path, length)) return;
+            for (int ch = firstChild.get(node); ch != NONE; ch = nextSibling.get(ch)) {
+                if (top + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                stack[top++] = ch;
+                stack[top++] = length + 1;
+            }
+        }
+    }
+
+    /** Như {@link WordVisitor} nhưng nhận cả node kết thúc mà lượt duyệt đang đứng, để khỏi tìm lại từ root. */
+    @FunctionalInterface
+    private interface TerminalVisitor {
+        boolean visit(int node, char[] path, int length);
+    }
+
+    /** Khóa sắp xếp: dạng chuẩn hóa, rồi vị trí trong đầu vào (để giữ từ đứng trước khi trùng). */
+    private static final class Key implements Comparable<Key> {
+        final String norm; final int index;
+        Key(String norm, int index) { this.norm = norm; this.index = index; }
+
+        @Override
+        public int compareTo(Key o) {
+            int c = norm.compareTo(o.norm);
+            return c != 0 ? c : Integer.compare(index, o.index);
+        }
+    }
+
+    /** Vị trí của một prefix trong trie; chỉ dùng được với đúng trie đã tạo ra nó. */
+    public static final class Cursor {
+        private final Trie trie;
+        private final String prefix;
+        private final int node;
+        private Cursor(Trie trie, String prefix, int node) { this.trie = trie; this.prefix = prefix; this.node = node; }
+        public String prefix() { return prefix; }
+    }
+
+    /** Tập node hoạt động của một query; chỉ dùng được với đúng trie đã tạo ra nó. */
+    public static final class FuzzyCursor {
+        private final Trie trie;
+        private final String query;
+        private final int maxDistance;
+        private final long[] active;
+        private FuzzyCursor(Trie trie, String query, int maxDistance, long[] active) {
+            this.trie = trie; this.query = query; this.maxDistance = maxDistance; this.active = active;
+        }
+        public String query() { return query; }
+        public int size() { return active.length; }
+    }
+
+    public static class Match {
+        public final String word; public final int distance;
+        public Match(String word, int distance) { this.word = word; this.distance = distance; }
+    }
+
+    private static class Candidate implements Comparable<Candidate> {
+        final int node;
+        final long priority;
+        final boolean emit;
+        // Chỉ số biến thể khi emit một từ gốc không phải từ đầu tiên, ngược lại NONE
+        final int variant;
+        Candidate(int node, long priority, boolean emit, int variant) {
+            this.node = node; this.priority = priority; this.emit = emit; this.variant = variant;
+        }
+
+        @Override
+        public int compareTo(Candidate o) {
+            if (priority != o.priority) return Long.compare(o.priority, priority);
+            if (emit != o.emit) return emit ? -1 : 1;
+            if (node != o.node) return Integer.compare(node, o.node);
+            return Integer.compare(variant, o.variant);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.dictionarysuggestionsystem.trie;
+
+/**
+ * Callback cho duyệt trie. {@code path[0..length)} là từ đã chuẩn hóa và chỉ hợp lệ trong
+ * lúc gọi (buffer được dùng lại); trả về false để dừng duyệt sớm.
+ */
+@FunctionalInterface
+public interface WordVisitor {
+    boolean visit(char[] path, int length);
+}
@@ -0,0 +1,53 @@
+package org.example.dictionarysuggestionsystem.utils;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Ghi/đọc mảng nguyên thủy cho định dạng snapshot nhị phân (big-endian). Bên đọc sao chép cả khối
+ * từ ByteBuffer (thường là vùng mmap) vào mảng thay vì giải mã từng phần tử.
+ */
+public final class BinaryIO {
+  private BinaryIO() {}
+
+  public static void writeInts(DataOutput out, int[] a, int n) throws IOException {
+    for (int i = 0; i < n; i++) out.writeInt(a[i]);
+  }
+
+  public static void writeChars(DataOutput out, PagedArray.Chars a, int n) throws IOException {
+    for (int i = 0; i < n; i++) out.writeChar(a.get(i));
+  }
+
+  public static void writeInts(DataOutput out, PagedArray.Ints a, int n) throws IOException {
+    for (int i = 0; i < n; i++) out.writeInt(a.get(i));
+  }
+
+  public static int[] readInts(ByteBuffer in, int n, int capacity) {
+    int[] a = new int[Math.max(n, capacity)];
+    in.asIntBuffer().get(a, 0, n);
+    in.position(in.position() + n * Integer.BYTES);
+    return a;
+  }
+
+  /** Đọc n ký tự, chép thẳng từng khối vào các trang thay vì giải mã từng phần tử. */
+  public static PagedArray.Chars readCharPages(ByteBuffer in, int n) {
+    PagedArray.Chars a = new PagedArray.Chars(n);
+    for (int from = 0; from < n; from += PagedArray.PAGE_SIZE) {
+      int len = Math.min(PagedArray.PAGE_SIZE, n - from);
+      in.asCharBuffer().get(a.pages[from >>> PagedArray.PAGE_SHIFT], 0, len);
+      in.position(in.position() + len * Character.BYTES);
+    }
+    return a;
+  }
+
+  public static PagedArray.Ints readIntPages(ByteBuffer in, int n) {
+    PagedArray.Ints a = new PagedArray.Ints(n);
+    for (int from = 0; from < n; from += PagedArray.PAGE_SIZE) {
+      int len = Math.min(PagedArray.PAGE_SIZE, n - from);
+      in.asIntBuffer().get(a.pages[from >>> PagedArray.PAGE_SHIFT], 0, len);
+      in.position(in.position() + len * Integer.BYTES);
+    }
+    return a;
+  }
+}
@@ -1,15 +1,108 @@
 package org.example.dictionarysuggestionsystem.utils;
 
 import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
+/**
+ * Chuẩn hóa để so khớp: chữ thường, bỏ dấu, đ/Đ thành d. Ký tự Latin (kể cả tiếng Việt) được gấp bằng
+ * bảng tra dựng sẵn; chuỗi ASCII thường trả về nguyên đối tượng; chỉ ký tự ngoài bảng mới phải qua NFD.
+ */
 public final class NormalizerUtil {
   private NormalizerUtil() {}
 
+  private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+  // Bảng phủ U+0000..U+1EFF; chỉ điền Latin-1, Latin Extended-A/B, dấu kết hợp và Latin Extended Additional
+  private static final char DROP = '\uFFFE';
+  private static final char FALLBACK = '\uFFFF';
+  private static final char[] FOLD = new char[0x1F00];
+
+  static {
+    Arrays.fill(FOLD, FALLBACK);
+    fill(0x0000, 0x024F);
+    for (int c = 0x0300; c <= 0x036F; c++) FOLD[c] = DROP;
+    fill(0x1E00, 0x1EFF);
+  }
+
+  private static void fill(int from, int to) {
+    for (int c = from; c <= to; c++) {
+      if (Character.isSurrogate((char) c)) continue;
+      String folded = slowNormalize(String.valueOf((char) c));
+      if (folded.isEmpty()) FOLD[c] = DROP;
+      else if (folded.length() == 1) FOLD[c] = folded.charAt(0);
+    }
+  }
+
   public static String normalize(String input) {
     if (input == null) return "";
-    String lower = input.toLowerCase();
+    int n = input.length();
+    int i = 0;
+    while (i < n) {
+      char c = input.charAt(i);
+      if (c >= 0x80 || (c >= 'A' && c <= 'Z')) break;
+      i++;
+    }
+    if (i == n) return input;
+    char[] out = new char[n];
+    int len = normalize(input, out);
+    if (len < 0) return slowNormalize(input);
+    return new String(out, 0, len);
+  }
+
+  /**
+   * Bản không cấp phát: ghi dạng chuẩn hóa của input vào out, trả về số ký tự đã ghi (không vượt quá
+   * input.length()). Trả về -1 nếu input có ký tự ngoài bảng tra; khi đó dùng {@link #normalize(String)}.
+   */
+  public static int normalize(CharSequence input, char[] out) {
+    if (input == null) return 0;
+    int n = input.length();
+    if (out.length < n) throw new IllegalArgumentException("Buffer too small: " + out.length + " < " + n);
+    int len = 0;
+    for (int i = 0; i < n; i++) {
+      char c = input.charAt(i);
+      char f;
+      if (c < 0x80) f = c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+      else if (c < FOLD.length) f = FOLD[c];
+      else return -1;
+      if (f == FALLBACK) return -1;
+      if (f != DROP) out[len++] = f;
+    }
+    return len;
+  }
+
+  /**
+   * Ký tự thuộc token: chữ hoặc số của mọi bảng chữ (Character.isLetterOrDigit), không chỉ a-z; nửa cặp
+   * surrogate cũng tính để chữ ngoài BMP không bị cắt đôi.
+   */
+  public static boolean isTokenChar(char c) {
+    if (c < 0x80) return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z');
+    return Character.isLetterOrDigit(c) || Character.isSurrogate(c);
+  }
+
+  /** Tách chuỗi (thường là dạng đã chuẩn hóa) thành các token liên tiếp gồm ký tự {@link #isTokenChar}. */
+  public static String[] tokenize(String text) {
+    if (text == null) return new String[0];
+    List<String> out = new ArrayList<>();
+    int start = -1;
+    int n = text.length();
+    for (int i = 0; i <= n; i++) {
+      boolean token = i < n && isTokenChar(text.charAt(i));
+      if (token && start < 0) {
+        start = i;
+      } else if (!token && start >= 0) {
+        out.add(text.substring(start, i));
+        start = -1;
+      }
+    }
+    return out.toArray(new String[0]);
+  }
+
+  private static String slowNormalize(String input) {
+    String lower = input.toLowerCase(Locale.ROOT);
     String norm = Normalizer.normalize(lower, Normalizer.Form.NFD);
-    return norm.replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+    return COMBINING_MARKS.matcher(norm).replaceAll("").replace('đ', 'd');
   }
 }
-
@@ -0,0 +1,158 @@
+package org.example.dictionarysuggestionsystem.utils;
+
+import java.util.Arrays;
+
+/**
+ * Mảng chia trang PAGE_SIZE phần tử, sao chép khi ghi theo từng trang: {@link #copy()} chỉ sao chép bảng trang
+ * (O(số phần tử / PAGE_SIZE)) và dùng chung mọi trang; lần ghi đầu vào một trang dùng chung sẽ sao chép riêng trang
+ * đó. copy() không ghi gì vào bản gốc (bản gốc thường đã công bố cho bên đọc): bản sao mang token sở hữu mới và
+ * chưa sở hữu trang nào. Vì bản gốc vẫn coi các trang là của mình, sau copy() chỉ được sửa bản sao. Như các chỉ
+ * mục dùng nó: một luồng ghi; bên đọc chỉ đọc bản đã công bố, không bao giờ bị ghi thêm.
+ */
+public abstract class PagedArray<P> {
+    public static final int PAGE_SHIFT = 10;
+    public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    P[] pages;
+    // owners[p] == owner: trang p thuộc riêng bản này, ghi tại chỗ được
+    private Object[] owners;
+    private final Object owner = new Object();
+
+    PagedArray(int capacity) {
+        int n = pagesFor(capacity);
+        pages = newDirectory(n);
+        owners = new Object[n];
+        for (int p = 0; p < n; p++) {
+            pages[p] = newPage();
+            owners[p] = owner;
+        }
+    }
+
+    abstract P[] newDirectory(int n);
+
+    abstract P newPage();
+
+    abstract P clonePage(P page);
+
+    /** Số phần tử có thể đánh chỉ số mà không cần nới. */
+    public final int capacity() { return pages.length << PAGE_SHIFT; }
+
+    /** Nới để chỉ số capacity - 1 dùng được; các ô mới mang giá trị mặc định. */
+    public final void ensureCapacity(int capacity) {
+        if (capacity <= capacity()) return;
+        int old = pages.length;
+        int n = Math.max(pagesFor(capacity), old + (old >> 1));
+        pages = Arrays.copyOf(pages, n);
+        owners = Arrays.copyOf(owners, n);
+        for (int p = old; p < n; p++) {
+            pages[p] = newPage();
+            owners[p] = owner;
+        }
+    }
+
+    /** Trang chứa chỉ số i, sao chép trước nếu đang dùng chung. */
+    final P writable(int i) {
+        int p = i >>> PAGE_SHIFT;
+        if (owners[p] != owner) {
+            pages[p] = clonePage(pages[p]);
+            owners[p] = owner;
+        }
+        return pages[p];
+    }
+
+    /** Cho c dùng chung các trang; c (token sở hữu riêng) sao chép trang trước khi ghi, bản này không đổi. */
+    final <A extends PagedArray<P>> A shareWith(A c) {
+        PagedArray<P> target = c;
+        target.pages = pages.clone();
+        target.owners = new Object[pages.length];
+        return c;
+    }
+
+    private static int pagesFor(int capacity) {
+        return (capacity + PAGE_MASK) >>> PAGE_SHIFT;
+    }
+
+    public static final class Ints extends PagedArray<int[]> {
+        public Ints(int capacity) { super(capacity); }
+
+        /** Bản chia trang của length phần tử đầu của a. */
+        public static Ints of(int[] a, int length) {
+            Ints out = new Ints(length);
+            for (int p = 0; p << PAGE_SHIFT < length; p++) {
+                System.arraycopy(a, p << PAGE_SHIFT, out.pages[p], 0, Math.min(PAGE_SIZE, length - (p << PAGE_SHIFT)));
+            }
+            return out;
+        }
+
+        public int get(int i) { return pages[i >>> PAGE_SHIFT][i & PAGE_MASK]; }
+
+        public void set(int i, int v) { writable(i)[i & PAGE_MASK] = v; }
+
+        public Ints copy() { return shareWith(new Ints(0)); }
+
+        @Override int[][] newDirectory(int n) { return new int[n][]; }
+        @Override int[] newPage() { return new int[PAGE_SIZE]; }
+        @Override int[] clonePage(int[] page) { return page.clone(); }
+    }
+
+    public static final class Longs extends PagedArray<long[]> {
+        public Longs(int capacity) { super(capacity); }
+
+        public static Longs of(long[] a, int length) {
+            Longs out = new Longs(length);
+            for (int p = 0; p << PAGE_SHIFT < length; p++) {
+                System.arraycopy(a, p << PAGE_SHIFT, out.pages[p], 0, Math.min(PAGE_SIZE, length - (p << PAGE_SHIFT)));
+            }
+            return out;
+        }
+
+        public long get(int i) { return pages[i >>> PAGE_SHIFT][i & PAGE_MASK]; }
+
+        public void set(int i, long v) { writable(i)[i & PAGE_MASK] = v; }
+
+        public Longs copy() { return shareWith(new Longs(0)); }
+
+        @Override long[][] newDirectory(int n) { return new long[n][]; }
+        @Override long[] newPage() { return new long[PAGE_SIZE]; }
+        @Override long[] clonePage(long[] page) { return page.clone(); }
+    }
+
+    public static final class Chars extends PagedArray<char[]> {
+        public Chars(int capacity) { super(capacity); }
+
+        public static Chars of(char[] a, int length) {
+            Chars out = new Chars(length);
+            for (int p = 0; p << PAGE_SHIFT < length; p++) {
+                System.arraycopy(a, p << PAGE_SHIFT, out.pages[p], 0, Math.min(PAGE_SIZE, length - (p << PAGE_SHIFT)));
+            }
+            return out;
+        }
+
+        public char get(int i) { return pages[i >>> PAGE_SHIFT][i & PAGE_MASK]; }
+
+        public void set(int i, char v) { writable(i)[i & PAGE_MASK] = v; }
+
+        public Chars copy() { return shareWith(new Chars(0)); }
+
+        @Override char[][] newDirectory(int n) { return new char[n][]; }
+        @Override char[] newPage() { return new char[PAGE_SIZE]; }
+        @Override char[] clonePage(char[] page) { return page.clone(); }
+    }
+
+    /** Tham chiếu; phần tử nên là đối tượng bất biến vì bên đọc các phiên bản cũ vẫn giữ chúng. */
+    public static final class Refs<T> extends PagedArray<Object[]> {
+        public Refs(int capacity) { super(capacity); }
+
+        @SuppressWarnings("unchecked")
+        public T get(int i) { return (T) pages[i >>> PAGE_SHIFT][i & PAGE_MASK]; }
+
+        public void set(int i, T v) { writable(i)[i & PAGE_MASK] = v; }
+
+        public Refs<T> copy() { return shareWith(new Refs<>(0)); }
+
+        @Override Object[][] newDirectory(int n) { return new Object[n][]; }
+        @Override Object[] newPage() { return new Object[PAGE_SIZE]; }
+        @Override Object[] clonePage(Object[] page) { return page.clone(); }
+    }
+}
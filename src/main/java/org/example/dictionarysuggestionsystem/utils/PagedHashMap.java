@@ -0,0 +1,135 @@
+package org.example.dictionarysuggestionsystem.utils;
+
+/**
+ * Bảng băm địa chỉ mở (dò tuyến tính, xóa bằng dịch lùi nên không có bia mộ) trên {@link PagedArray}: copy() chỉ
+ * chép bảng trang, put/remove chỉ chép các trang chạm tới. Khóa và giá trị không được null; giá trị nên bất biến
+ * vì các phiên bản dùng chung trang. Một luồng ghi, như các chỉ mục dùng nó. Duyệt theo ô:
+ * <pre>for (int s = 0; s &lt; m.slots(); s++) if (m.keyAt(s) != null) ...</pre>
+ */
+public final class PagedHashMap<K, V> {
+    private PagedArray.Refs<K> keys;
+    private PagedArray.Refs<V> values;
+    private int mask;
+    private int size;
+
+    public PagedHashMap() {
+        this(0);
+    }
+
+    /** Đủ chỗ cho expected khóa mà không phải băm lại. */
+    public PagedHashMap(int expected) {
+        allocate(tableSizeFor(expected));
+    }
+
+    private PagedHashMap(PagedHashMap<K, V> source) {
+        keys = source.keys.copy();
+        values = source.values.copy();
+        mask = source.mask;
+        size = source.size;
+    }
+
+    public PagedHashMap<K, V> copy() {
+        return new PagedHashMap<>(this);
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public V get(Object key) {
+        int i = find(key);
+        return keys.get(i) == null ? null : values.get(i);
+    }
+
+    public boolean containsKey(Object key) {
+        return keys.get(find(key)) != null;
+    }
+
+    /** Trả về giá trị cũ hoặc null. */
+    public V put(K key, V value) {
+        if (value == null) throw new NullPointerException("value");
+        int i = find(key);
+        if (keys.get(i) != null) {
+            V old = values.get(i);
+            if (old != value) values.set(i, value);
+            return old;
+        }
+        if ((size + 1) * 2 > mask + 1) {
+            rehash((mask + 1) * 2);
+            i = find(key);
+        }
+        keys.set(i, key);
+        values.set(i, value);
+        size++;
+        return null;
+    }
+
+    /** Trả về giá trị đã xóa hoặc null. */
+    public V remove(Object key) {
+        int i = find(key);
+        if (keys.get(i) == null) return null;
+        V old = values.get(i);
+        size--;
+        // Dịch lùi các khóa phía sau mà ô lý tưởng không nằm trong (i, j] để chuỗi dò không bị đứt
+        for (int j = (i + 1) & mask; ; j = (j + 1) & mask) {
+            K k = keys.get(j);
+            if (k == null) break;
+            int home = home(k);
+            if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+                keys.set(i, k);
+                values.set(i, values.get(j));
+                i = j;
+            }
+        }
+        keys.set(i, null);
+        values.set(i, null);
+        return old;
+    }
+
+    /** Số ô của bảng; ô s có khóa khi keyAt(s) khác null. */
+    public int slots() { return mask + 1; }
+
+    public K keyAt(int slot) { return keys.get(slot); }
+
+    public V valueAt(int slot) { return values.get(slot); }
+
+    // Ô chứa key, hoặc ô trống đầu tiên trên chuỗi dò nếu chưa có
+    private int find(Object key) {
+        for (int i = home(key); ; i = (i + 1) & mask) {
+            K k = keys.get(i);
+            if (k == null || k.equals(key)) return i;
+        }
+    }
+
+    private int home(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void rehash(int tableSize) {
+        PagedArray.Refs<K> oldKeys = keys;
+        PagedArray.Refs<V> oldValues = values;
+        int oldSlots = mask + 1;
+        allocate(tableSize);
+        for (int s = 0; s < oldSlots; s++) {
+            K k = oldKeys.get(s);
+            if (k == null) continue;
+            int i = find(k);
+            keys.set(i, k);
+            values.set(i, oldValues.get(s));
+        }
+    }
+
+    private void allocate(int tableSize) {
+        keys = new PagedArray.Refs<>(tableSize);
+        values = new PagedArray.Refs<>(tableSize);
+        mask = tableSize - 1;
+    }
+
+    // Bảng luôn thưa ít nhất một nửa để chuỗi dò tuyến tính ngắn
+    private static int tableSizeFor(int expected) {
+        int n = 16;
+        while (n < expected * 2) n <<= 1;
+        return n;
+    }
+}
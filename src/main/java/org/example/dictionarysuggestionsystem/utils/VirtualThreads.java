@@ -0,0 +1,27 @@
+package org.example.dictionarysuggestionsystem.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor mỗi tác vụ một virtual thread khi JDK có (21+), tìm qua reflection vì dự án vẫn biên dịch với
+ * release 17; với JDK cũ hơn là pool luồng daemon thường có giới hạn.
+ */
+public final class VirtualThreads {
+    private VirtualThreads() {}
+
+    /** fallbackName và fallbackThreads chỉ dùng cho pool luồng thường (luồng tên fallbackName-1, -2, ...). */
+    public static ExecutorService perTaskExecutor(String fallbackName, int fallbackThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threads = new AtomicInteger();
+            return Executors.newFixedThreadPool(fallbackThreads, r -> {
+                Thread t = new Thread(r, fallbackName + "-" + threads.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.dictionarysuggestionsystem.algorithms;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccentRankerTest {
+    @Test
+    void prefersWordsMatchingTypedDiacriticsOnly() {
+        List<String> words = List.of("ưng dung", "ứng dụng", "ung dung");
+        // Không dấu: giữ nguyên thứ tự (cùng đối tượng)
+        assertSame(words, AccentRanker.rerank("ung dung", words));
+        // Chỉ gõ dấu ở âm tiết sau: âm tiết đầu không dấu khớp mọi dấu
+        assertEquals(List.of("ứng dụng", "ưng dung", "ung dung"), AccentRanker.rerank("ung dụ", words));
+        // Dạng tổ hợp (NFD) và chữ hoa được so như dạng dựng sẵn
+        assertEquals(List.of("ứng dụng", "ưng dung", "ung dung"), AccentRanker.rerank("U\u031B\u0301", words));
+        assertEquals(List.of("đường", "dương"), AccentRanker.rerank("đ", List.of("dương", "đường")));
+    }
+
+    @Test
+    void comparesDiacriticsWhereTheQueryMatches() {
+        // Khớp chuỗi con: dấu được so tại "dụng" chứ không phải từ đầu từ
+        assertEquals(List.of("áp dụng", "ứng dung"), AccentRanker.rerank("dụng", List.of("ứng dung", "áp dụng")));
+        // Khớp theo âm tiết (không đúng thứ tự): mỗi âm tiết so tại âm tiết mà nó là tiền tố
+        assertEquals(List.of("ứng dụng", "ung dung"), AccentRanker.rerank("dụng ứ", List.of("ung dung", "ứng dụng")));
+        // Từ không căn được (gợi ý gần đúng) giữ vị trí, các từ còn lại đổi chỗ quanh nó
+        assertEquals(List.of("tạo", "tqo", "táo"), AccentRanker.rerank("tạo", List.of("táo", "tqo", "tạo")));
+        List<String> fuzzyOnly = List.of("tqo", "tso");
+        assertSame(fuzzyOnly, AccentRanker.rerank("tạo", fuzzyOnly));
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.dictionarysuggestionsystem.algorithms;
+
+import org.example.dictionarysuggestionsystem.utils.NormalizerUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeletionIndexTest {
+    @Test
+    void lookupFindsTyposWithinDistance() {
+        DeletionIndex index = DeletionIndex.build(List.of("táo", "tạo", "bàn", "bạn", "ngân hàng", "ứng dụng"), 2, 7);
+        assertEquals(List.of("táo", "tạo"), index.lookup("tao", 0, 10));
+        assertEquals(List.of(), index.lookup("tao", -1, 10));
+        assertEquals(List.of("bàn", "bạn"), index.lookup("bna", 2, 10));
+        assertEquals(List.of("ngân hàng"), index.lookup("ngan hnag", 2, 10));
+        assertTrue(index.lookup("xyz", 2, 10).isEmpty());
+    }
+
+    @Test
+    void parallelBuildMatchesSequentialBuild() {
+        Random rnd = new Random(9);
+        List<String> words = new ArrayList<>();
+        List<String> normalized = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder w = new StringBuilder();
+            for (int k = 3 + rnd.nextInt(6); k > 0; k--) w.append("aăbcdđeêgiot".charAt(rnd.nextInt(12)));
+            words.add(w.toString());
+            normalized.add(NormalizerUtil.normalize(w.toString()));
+        }
+        DeletionIndex sequential = DeletionIndex.build(words, normalized, 2, 7, false);
+        DeletionIndex parallel = DeletionIndex.build(words, normalized, 2, 7, true);
+        assertEquals(sequential.size(), parallel.size());
+        assertEquals(sequential.deleteKeyCount(), parallel.deleteKeyCount());
+        for (int i = 0; i < 5000; i += 37) {
+            String q = normalized.get(i).substring(1);
+            assertEquals(sequential.lookup(q, 2, 20), parallel.lookup(q, 2, 20), q);
+        }
+    }
+
+    @Test
+    void incrementalAddAndRemove() {
+        DeletionIndex index = new DeletionIndex(1, 7);
+        index.add("táo");
+        index.add("tạo");
+        index.remove("táo");
+        assertEquals(List.of("tạo"), index.lookup("tao", 1, 10));
+        index.remove("tạo");
+        assertTrue(index.lookup("tao", 1, 10).isEmpty());
+        assertEquals(0, index.deleteKeyCount());
+    }
+}
@@ -2,6 +2,8 @@ package org.example.dictionarysuggestionsystem.algorithms;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class LevenshteinTest {
@@ -12,6 +14,47 @@ class LevenshteinTest {
         assertEquals(1, Levenshtein.distance("book", "books"));
         assertEquals(2, Levenshtein.distance("intention", "execution"));
     }
-}
 
+    @Test
+    void boundedAndBitParallelAgreeWithFullDp() {
+        Random rnd = new Random(7);
+        String alphabet = "abcdeđươ ";
+        for (int iter = 0; iter < 5000; iter++) {
+            String a = randomWord(rnd, alphabet, 1 + rnd.nextInt(iter % 10 == 0 ? 90 : 12));
+            String b = rnd.nextBoolean() ? mutate(rnd, a, alphabet) : randomWord(rnd, alphabet, rnd.nextInt(12));
+            int expected = Levenshtein.distance(a, b);
+            assertEquals(expected, Levenshtein.distanceBitParallel(a, b), a + " / " + b);
+            for (int k = 0; k <= 3; k++) {
+                assertEquals(Math.min(expected, k + 1), Levenshtein.distanceAtMost(a, b, k), a + " / " + b + " k=" + k);
+            }
+        }
+        assertEquals(3, Levenshtein.distanceBitParallel("", "abc"));
+        assertEquals(2, Levenshtein.distanceAtMost("ab", "", 5));
+    }
 
+    @Test
+    void negativeBoundIsRejected() {
+        // Trước đây trả về 0, tức là trông như khớp hoàn toàn
+        assertThrows(IllegalArgumentException.class, () -> Levenshtein.distanceAtMost("abc", "xyz", -1));
+        assertThrows(IllegalArgumentException.class, () -> Levenshtein.distanceAtMost("abc", "abc", -3));
+    }
+
+    private static String randomWord(Random rnd, String alphabet, int len) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < len; i++) sb.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+        return sb.toString();
+    }
+
+    private static String mutate(Random rnd, String s, String alphabet) {
+        StringBuilder sb = new StringBuilder(s);
+        int edits = rnd.nextInt(4);
+        for (int e = 0; e < edits; e++) {
+            int op = rnd.nextInt(3);
+            char c = alphabet.charAt(rnd.nextInt(alphabet.length()));
+            if (op == 0 || sb.length() == 0) sb.insert(rnd.nextInt(sb.length() + 1), c);
+            else if (op == 1) sb.deleteCharAt(rnd.nextInt(sb.length()));
+            else sb.setCharAt(rnd.nextInt(sb.length()), c);
+        }
+        return sb.toString();
+    }
+}
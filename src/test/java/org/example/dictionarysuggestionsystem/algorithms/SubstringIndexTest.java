@@ -0,0 +1,81 @@
+package org.example.dictionarysuggestionsystem.algorithms;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubstringIndexTest {
+    @Test
+    void matchesBruteForceContains() {
+        Random rnd = new Random(11);
+        String[] words = new String[5000];
+        for (int i = 0; i < words.length; i++) {
+            // Chừa lỗ (null) như id đã xóa trong store
+            if (rnd.nextInt(20) == 0) continue;
+            StringBuilder w = new StringBuilder();
+            for (int k = 1 + rnd.nextInt(9); k > 0; k--) w.append("abn ".charAt(rnd.nextInt(4)));
+            words[i] = w.toString();
+        }
+        SubstringIndex sequential = SubstringIndex.build(words, false);
+        SubstringIndex parallel = SubstringIndex.build(words, true);
+        for (String q : List.of("a", "ab", "ba", "n n", "aaaa", "bnab", "x", " ")) {
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < words.length; i++) if (words[i] != null && words[i].contains(q)) expected.add(i);
+            assertEquals(expected, sequential.matchingIds(q), q);
+            assertEquals(expected, parallel.matchingIds(q), q);
+        }
+        assertEquals(0, sequential.search("", 10, id -> 0).length);
+    }
+
+    @Test
+    void longRunsOfOneCharacterDoNotOverflowTheStack() {
+        // Mỗi ký tự trùng nhau thêm một tầng cho phần "bằng pivot"; trước đây mỗi tầng là một lần đệ quy
+        String[] words = {"a".repeat(15_000), "b" + "a".repeat(10_000), "ab"};
+        SubstringIndex index = SubstringIndex.build(words, false);
+        assertEquals(List.of(0, 1), index.matchingIds("aaa"));
+        assertEquals(List.of(1), index.matchingIds("ba"));
+        assertEquals(List.of(2), index.matchingIds("ab"));
+    }
+
+    @Test
+    void addedWordsShareOneBufferWithoutDisturbingOlderVersions() {
+        SubstringIndex base = SubstringIndex.build(new String[]{"tao"}, false);
+        SubstringIndex a = base.withWord(1, "ban an");
+        SubstringIndex b = a.withWord(2, "an com");
+        // Thêm từ vào một phiên bản cũ: sao sang bộ đệm mới, bản mới hơn giữ nguyên
+        SubstringIndex c = a.withWord(3, "an nam");
+        SubstringIndex d = c.withWord(4, "nan");
+        assertEquals(List.of(1), a.matchingIds("an"));
+        assertEquals(List.of(1, 2), b.matchingIds("an"));
+        assertEquals(List.of(1, 3, 4), d.matchingIds("an"));
+        assertSame(d, d.withWord(1, "ban an"));
+        assertSame(b, b.withWord(2, "an com"));
+        assertNotSame(a, a.withWord(2, "an com"));
+        for (int id = 5; id < 200; id++) d = d.withWord(id, "x" + id);
+        assertEquals(198, d.pendingSize());
+        assertEquals(List.of(1, 2), b.matchingIds("an"));
+        assertEquals(List.of(199), d.matchingIds("x199"));
+    }
+
+    @Test
+    void ranksByFrequencySkipsDeletedAndScansAddedWords() {
+        String[] words = {"ung dung", "ap dung", "dung dich", "dung dung", "tao"};
+        long[] freq = {5, 9, 1, 3, 7, 8};
+        SubstringIndex index = SubstringIndex.build(words, false);
+        // "dung dung" chứa query hai lần nhưng chỉ được tính một lần
+        assertArrayEquals(new int[]{1, 0, 3, 2}, index.search("dung", 10, id -> freq[id]));
+        assertArrayEquals(new int[]{1, 0}, index.search("dung", 2, id -> freq[id]));
+        assertArrayEquals(new int[]{0, 3, 2}, index.search("dung", 10, id -> id == 1 ? Long.MIN_VALUE : freq[id]));
+
+        SubstringIndex more = index.withWord(5, "su dung").withWord(0, "ung dung");
+        assertEquals(1, more.pendingSize());
+        assertSame(more, more.withWord(5, "su dung"));
+        assertArrayEquals(new int[]{1, 5, 0, 3, 2}, more.search("dung", 10, id -> freq[id]));
+        assertEquals(0, index.pendingSize());
+        assertEquals(0, SubstringIndex.empty().search("a", 5, id -> 0).length);
+    }
+}
@@ -0,0 +1,206 @@
+package org.example.dictionarysuggestionsystem.algorithms;
+
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TfidfRankerTest {
+    private static List<String> words(List<DictionaryEntry> entries) {
+        return entries.stream().map(DictionaryEntry::getWord).collect(Collectors.toList());
+    }
+
+    @Test
+    void ranksByTermFrequencyAndRarity() {
+        TfidfRanker ranker = new TfidfRanker(List.of(
+            new DictionaryEntry("apple", "qua tao, tao do", 0, List.of("fruit")),
+            new DictionaryEntry("bank", "ngan hang", 0, List.of("finance")),
+            new DictionaryEntry("pear", "qua le", 0, List.of("fruit"))
+        ));
+        assertEquals(List.of("apple", "pear"), words(ranker.rankByQuery("qua tao", 5)));
+        assertEquals(List.of("apple"), words(ranker.rankByQuery("qua tao", 1)));
+        assertTrue(ranker.rankByQuery("xyz", 5).isEmpty());
+    }
+
+    @Test
+    void tokensKeepLettersOutsideAsciiAfterFolding() {
+        TfidfRanker ranker = new TfidfRanker(List.of(
+            new DictionaryEntry("café", "boisson chaude, кофе", 0, List.of()),
+            new DictionaryEntry("trà", "nước chè", 0, List.of())
+        ));
+        // Trước đây chữ ngoài a-z bị coi là dấu phân cách: "кофе" không thành token nào
+        assertEquals(List.of("café"), words(ranker.rankByQuery("кофе", 5)));
+        assertEquals(List.of("trà"), words(ranker.rankByQuery("chè", 5)));
+    }
+
+    @Test
+    void incrementalUpdatesReplaceAndRemoveDocuments() {
+        TfidfRanker ranker = new TfidfRanker(List.of(
+            new DictionaryEntry("apple", "qua tao", 0, List.of()),
+            new DictionaryEntry("bank", "ngan hang", 0, List.of())
+        ));
+        ranker.add(new DictionaryEntry("Apple", "trai cay", 3, List.of()));
+        assertTrue(ranker.rankByQuery("tao", 5).isEmpty());
+        assertEquals(List.of("Apple"), words(ranker.rankByQuery("cay", 5)));
+        ranker.remove("bank");
+        assertTrue(ranker.rankByQuery("hang", 5).isEmpty());
+        assertEquals(1, ranker.size());
+    }
+
+    @Test
+    void replacingADocumentKeepsItsScoreAndPostings() {
+        TfidfRanker ranker = new TfidfRanker(List.of(
+            new DictionaryEntry("apple", "qua tao", 0, List.of()),
+            new DictionaryEntry("pear", "qua le", 0, List.of())
+        ));
+        DictionaryEntry clicked = new DictionaryEntry("Apple", "qua tao", 7, List.of());
+        assertTrue(ranker.replaceDocument(clicked));
+        assertFalse(ranker.replaceDocument(new DictionaryEntry("plum", "qua man", 1, List.of())));
+        assertEquals(2, ranker.size());
+        assertSame(clicked, ranker.rankByQuery("tao", 5).get(0));
+        assertEquals(List.of("Apple", "pear"), words(ranker.rankByQuery("qua", 5)));
+        assertEquals(ranker.rankByQueryExhaustive("qua tao", 5), ranker.rankByQuery("qua tao", 5));
+    }
+
+    @Test
+    void savedIndexRenumbersLiveDocumentsDensely() throws Exception {
+        List<DictionaryEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 50; i++) entries.add(new DictionaryEntry("w" + i, "nghia " + (i % 5) + " chung", 0, List.of()));
+        TfidfRanker ranker = new TfidfRanker(entries);
+        for (int i = 0; i < 50; i += 3) ranker.remove("w" + i);
+        ranker.add(new DictionaryEntry("w1", "nghia moi chung", 0, List.of()));
+        List<DictionaryEntry> live = new ArrayList<>(ranker.rankByQuery("chung", 100));
+        List<String> strings = new ArrayList<>();
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        ranker.writeTo(new DataOutputStream(buf), live::indexOf, t -> {
+            if (!strings.contains(t)) strings.add(t);
+            return strings.indexOf(t);
+        });
+        ByteBuffer in = ByteBuffer.wrap(buf.toByteArray());
+        // Chỉ ghi tài liệu còn sống: không còn ô -1 của tài liệu đã xóa hay bản cũ của w1
+        assertEquals(ranker.size(), in.getInt(0));
+        TfidfRanker read = TfidfRanker.readFrom(in, live::get, strings::get);
+        assertEquals(ranker.size(), read.size());
+        for (String q : List.of("chung", "nghia 1", "moi", "nghia 0 chung")) {
+            assertEquals(words(ranker.rankByQuery(q, 100)), words(read.rankByQuery(q, 100)), q);
+        }
+    }
+
+    @Test
+    void wordKeysIgnoreTheDefaultLocale() {
+        Locale saved = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            // Với locale tr, "INDEX".toLowerCase() là "ındex" (i không chấm) nên remove("index") không tìm thấy
+            TfidfRanker ranker = new TfidfRanker(List.of(new DictionaryEntry("INDEX", "muc luc", 0, List.of())));
+            ranker.remove("index");
+            assertEquals(0, ranker.size());
+            assertTrue(ranker.rankByQuery("muc", 5).isEmpty());
+        } finally {
+            Locale.setDefault(saved);
+        }
+    }
+
+    @Test
+    void parallelBuildMatchesIncrementalIndexing() {
+        Random rnd = new Random(3);
+        String[] vocab = {"mot", "cua", "nha", "cay", "tao", "nuoc", "ban", "hoc", "sinh", "lam", "viec", "xe"};
+        List<DictionaryEntry> docs = new ArrayList<>();
+        for (int i = 0; i < 12_000; i++) {
+            StringBuilder meaning = new StringBuilder();
+            for (int j = rnd.nextInt(8); j >= 0; j--) meaning.append(vocab[rnd.nextInt(vocab.length)]).append(' ');
+            // Một số từ lặp lại (khác hoa thường): bản sau thay bản trước
+            String word = rnd.nextInt(10) == 0 ? "W" + rnd.nextInt(i + 1) : "w" + i;
+            docs.add(new DictionaryEntry(word, meaning.toString(), 0, List.of(vocab[rnd.nextInt(vocab.length)])));
+        }
+        TfidfRanker incremental = new TfidfRanker(docs);
+        TfidfRanker parallel = TfidfRanker.build(docs, true);
+        assertEquals(incremental.size(), parallel.size());
+        for (String q : List.of("mot", "cua nha", "xe viec lam", "tao tao hoc", "khong")) {
+            for (int limit : new int[]{1, 10, 100}) {
+                assertEquals(words(incremental.rankByQuery(q, limit)), words(parallel.rankByQuery(q, limit)), q);
+                assertEquals(words(incremental.rankByQueryExhaustive(q, limit)), words(parallel.rankByQueryExhaustive(q, limit)), q);
+            }
+        }
+    }
+
+    @Test
+    void wandMatchesExhaustiveScoring() {
+        Random rnd = new Random(11);
+        String[] vocab = {"mot", "cua", "nha", "cay", "tao", "nuoc", "ban", "hoc", "sinh", "lam", "viec", "xe"};
+        List<DictionaryEntry> docs = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            StringBuilder meaning = new StringBuilder();
+            int len = 1 + rnd.nextInt(12);
+            for (int j = 0; j < len; j++) {
+                int k = Math.min(vocab.length - 1, (int) Math.abs(rnd.nextGaussian() * 4));
+                meaning.append(vocab[k]).append(' ');
+            }
+            docs.add(new DictionaryEntry("w" + i, meaning.toString(), 0, List.of()));
+        }
+        TfidfRanker ranker = new TfidfRanker(docs);
+        for (int i = 0; i < 200; i += 7) ranker.remove("w" + i);
+        for (String q : List.of("mot", "mot cua", "cua nha xe", "xe viec lam", "mot mot tao", "khong")) {
+            for (int limit : new int[]{1, 5, 50}) {
+                assertEquals(words(ranker.rankByQueryExhaustive(q, limit)), words(ranker.rankByQuery(q, limit)), q + " limit=" + limit);
+            }
+        }
+    }
+
+    @Test
+    void editingACopyCopiesOnlyTheTouchedPostingsBlocks() {
+        int n = 20_000;
+        List<DictionaryEntry> docs = new ArrayList<>();
+        for (int i = 0; i < n; i++) docs.add(new DictionaryEntry("w" + i, "chung nghia", 0, List.of()));
+        TfidfRanker base = new TfidfRanker(docs);
+        TfidfRanker copy = base.copy();
+        copy.remove("w5000");
+        copy.add(new DictionaryEntry("moi", "chung", 0, List.of()));
+        // "chung" và "nghia" có df = n: chỉ bảng khối và vài khối 64 posting bị chép, không phải cả postings
+        assertTrue(copy.copiedSlots() < n / 4, "copied " + copy.copiedSlots());
+        assertEquals(0, base.copiedSlots());
+        assertEquals(n, base.size());
+        assertEquals(n, copy.size());
+        assertEquals(List.of("w5000"), words(base.rankByQuery("w5000", 5)));
+        assertTrue(copy.rankByQuery("w5000", 5).isEmpty());
+    }
+
+    @Test
+    void wandSkipsDeletedPostingsAcrossCompaction() throws Exception {
+        Random rnd = new Random(5);
+        List<DictionaryEntry> docs = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            docs.add(new DictionaryEntry("w" + i, "mot " + "cua ".repeat(1 + rnd.nextInt(4)) + (i % 3 == 0 ? "nha" : ""), 0, List.of()));
+        }
+        TfidfRanker ranker = new TfidfRanker(docs);
+        for (int round = 0; round < 3; round++) {
+            ranker = ranker.copy();
+            for (int i = 0; i < 2000; i++) {
+                if (rnd.nextInt(3) == 0) ranker.remove("w" + i);
+                else if (rnd.nextInt(4) == 0) ranker.add(docs.get(i));
+            }
+            for (String q : List.of("mot", "cua nha", "nha", "mot cua cua")) {
+                for (int limit : new int[]{1, 10, 500}) {
+                    assertEquals(words(ranker.rankByQueryExhaustive(q, limit)), words(ranker.rankByQuery(q, limit)), q + " limit=" + limit);
+                }
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        List<DictionaryEntry> table = new ArrayList<>(docs);
+        List<String> strings = new ArrayList<>();
+        ranker.writeTo(new DataOutputStream(bytes), e -> table.indexOf(e), t -> { strings.add(t); return strings.size() - 1; });
+        TfidfRanker loaded = TfidfRanker.readFrom(ByteBuffer.wrap(bytes.toByteArray()), table::get, strings::get);
+        for (String q : List.of("mot", "cua nha", "nha")) {
+            assertEquals(words(ranker.rankByQuery(q, 50)), words(loaded.rankByQuery(q, 50)), q);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.dictionarysuggestionsystem.algorithms;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenIndexTest {
+    @Test
+    void matchesBruteForceTokenPrefixes() {
+        Random rnd = new Random(23);
+        String[] words = new String[4000];
+        for (int i = 0; i < words.length; i++) {
+            // Chừa lỗ (null) như id đã xóa trong store
+            if (rnd.nextInt(20) == 0) continue;
+            StringBuilder w = new StringBuilder();
+            for (int k = 1 + rnd.nextInt(10); k > 0; k--) w.append("abn -".charAt(rnd.nextInt(5)));
+            words[i] = w.toString();
+        }
+        TokenIndex sequential = TokenIndex.build(words, false);
+        TokenIndex parallel = TokenIndex.build(words, true);
+        for (String q : List.of("a", "ab", "b a", "n n", "ba-nb", "aaa b", "x", "a x", "")) {
+            String[] query = q.split("[ -]+");
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < words.length; i++) {
+                if (words[i] != null && !q.isEmpty() && coversAll(words[i].split("[ -]+"), query)) expected.add(i);
+            }
+            assertEquals(expected, sequential.matchingIds(q), q);
+            assertEquals(expected, parallel.matchingIds(q), q);
+        }
+    }
+
+    private static boolean coversAll(String[] tokens, String[] query) {
+        for (String q : query) {
+            boolean found = false;
+            for (String t : tokens) found |= !t.isEmpty() && t.startsWith(q);
+            if (!q.isEmpty() && !found) return false;
+        }
+        return true;
+    }
+
+    @Test
+    void everyQuerySyllableMustPrefixSomeSyllable() {
+        String[] words = {"ung dung", "ap dung", "dung dich", "ngon thu", "su dung", "tao"};
+        long[] freq = {5, 9, 1, 3, 7, 8, 6};
+        TokenIndex index = TokenIndex.build(words, false);
+        assertEquals(8, index.tokenCount());
+        // Không cần đúng thứ tự, token cuối đang gõ dở vẫn khớp
+        assertArrayEquals(new int[]{0}, index.search("dung u", 10, id -> freq[id]));
+        assertArrayEquals(new int[]{4}, index.search("d s", 10, id -> freq[id]));
+        assertEquals(0, index.search("d u s", 10, id -> freq[id]).length);
+        assertArrayEquals(new int[]{1, 4, 0, 2}, index.search("dung", 10, id -> freq[id]));
+        assertArrayEquals(new int[]{1, 4}, index.search("d", 2, id -> freq[id]));
+        assertArrayEquals(new int[]{3}, index.search("ng th", 10, id -> freq[id]));
+        // "ung" là chuỗi con của "dung" nhưng không phải tiền tố của âm tiết nào trong "ap dung"
+        assertArrayEquals(new int[]{0}, index.search("ung", 10, id -> freq[id]));
+        assertArrayEquals(new int[]{4, 0, 2}, index.search("dung", 10, id -> id == 1 ? Long.MIN_VALUE : freq[id]));
+
+        TokenIndex more = index.withWord(6, "dung mao").withWord(0, "ung dung");
+        assertEquals(1, more.pendingSize());
+        assertSame(more, more.withWord(6, "dung mao"));
+        assertArrayEquals(new int[]{6}, more.search("d m", 10, id -> freq[id]));
+        assertArrayEquals(new int[]{1, 4, 6, 0, 2}, more.search("dung", 10, id -> freq[id]));
+        assertEquals(0, index.pendingSize());
+        assertEquals(0, TokenIndex.empty().search("a", 5, id -> 0).length);
+    }
+}
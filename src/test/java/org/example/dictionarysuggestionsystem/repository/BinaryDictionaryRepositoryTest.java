@@ -0,0 +1,89 @@
+package org.example.dictionarysuggestionsystem.repository;
+
+import org.example.dictionarysuggestionsystem.algorithms.TfidfRanker;
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.example.dictionarysuggestionsystem.trie.Trie;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryDictionaryRepositoryTest {
+    @TempDir
+    Path dir;
+
+    private static List<String> words(List<DictionaryEntry> entries) {
+        return entries.stream().map(DictionaryEntry::getWord).collect(Collectors.toList());
+    }
+
+    @Test
+    void roundTripKeepsEntriesAndIndexes() throws Exception {
+        File json = dir.resolve("dictionary.json").toFile();
+        List<DictionaryEntry> entries = new ArrayList<>(List.of(
+            new DictionaryEntry("táo", "quả táo đỏ", 7, List.of("fruit", "đồ ăn")),
+            new DictionaryEntry("tàu", "tàu thủy", 3, List.of()),
+            new DictionaryEntry("tam", null, 5, null),
+            new DictionaryEntry("bank", "ngân hàng", 1, List.of("finance"))
+        ));
+        Map<String, Long> freq = new LinkedHashMap<>();
+        for (DictionaryEntry e : entries) freq.put(e.getWord(), e.getFrequency());
+        Trie trie = Trie.build(freq);
+        TfidfRanker tfidf = new TfidfRanker(entries);
+        // Tạo docId đã xóa để kiểm tra khoảng trống trong postings
+        tfidf.remove("bank");
+        entries.remove(3);
+
+        BinaryDictionaryRepository repo = new BinaryDictionaryRepository(json);
+        assertNull(repo.load());
+        repo.save(entries, trie, tfidf);
+        BinaryDictionaryRepository.Snapshot loaded = repo.load();
+
+        assertEquals(words(entries), words(loaded.entries));
+        assertEquals(List.of("fruit", "đồ ăn"), loaded.entries.get(0).getTags());
+        assertNull(loaded.entries.get(2).getMeaning());
+        assertNull(loaded.entries.get(2).getTags());
+        assertEquals(trie.topKByFrequency("ta", 10), loaded.trie.topKByFrequency("ta", 10));
+        assertEquals(trie.prefixSuggest("t", 10, true), loaded.trie.prefixSuggest("t", 10, true));
+        assertEquals(trie.nodeCount(), loaded.trie.nodeCount());
+        assertEquals(words(tfidf.rankByQuery("qua tau", 10)), words(loaded.tfidf.rankByQuery("qua tau", 10)));
+        assertTrue(loaded.tfidf.rankByQuery("hang", 10).isEmpty());
+
+        // Chỉ mục nạp lại vẫn sửa tăng dần được
+        loaded.trie.insert("tao lao", 9);
+        loaded.tfidf.add(new DictionaryEntry("tao lao", "nói tào lao", 9, List.of()));
+        assertEquals("tao lao", loaded.trie.topKByFrequency("ta", 1).get(0));
+        assertEquals(List.of("tao lao"), words(loaded.tfidf.rankByQuery("noi", 5)));
+    }
+
+    @Test
+    void staleOrCorruptSnapshotIsNotUsed() throws Exception {
+        File json = dir.resolve("dictionary.json").toFile();
+        JsonDictionaryRepository jsonRepo = new JsonDictionaryRepository(json);
+        List<DictionaryEntry> entries = List.of(new DictionaryEntry("táo", "quả táo", 1, List.of()));
+        jsonRepo.saveAll(entries);
+        BinaryDictionaryRepository repo = new BinaryDictionaryRepository(json);
+        repo.save(entries, Trie.build(List.of("táo")), new TfidfRanker(entries));
+        assertTrue(repo.isCurrent());
+
+        // JSON bị sửa bên ngoài sau khi ghi snapshot
+        jsonRepo.saveAll(List.of(new DictionaryEntry("táo", "quả táo xanh", 1, List.of())));
+        assertTrue(json.setLastModified(json.lastModified() + 2000));
+        assertFalse(repo.isCurrent());
+        assertNull(repo.load());
+
+        repo.save(entries, Trie.build(List.of("táo")), new TfidfRanker(entries));
+        try (RandomAccessFile raf = new RandomAccessFile(repo.getFile(), "rw")) {
+            raf.setLength(raf.length() - 4);
+        }
+        assertThrows(java.io.IOException.class, repo::load);
+    }
+}
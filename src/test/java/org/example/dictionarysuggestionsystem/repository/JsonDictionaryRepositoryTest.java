@@ -0,0 +1,75 @@
+package org.example.dictionarysuggestionsystem.repository;
+
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonDictionaryRepositoryTest {
+    @TempDir
+    Path dir;
+
+    private static final List<DictionaryEntry> ENTRIES = List.of(
+        new DictionaryEntry("táo", "quả táo", 3, List.of("fruit", "đồ ăn")),
+        new DictionaryEntry("tàu", "tàu thủy", 2, List.of()),
+        new DictionaryEntry("tam", null, 1, null)
+    );
+
+    private static List<String> words(List<DictionaryEntry> entries) {
+        return entries.stream().map(DictionaryEntry::getWord).collect(Collectors.toList());
+    }
+
+    @Test
+    void writesCompactArrayWithOneEntryPerLine() throws Exception {
+        File file = dir.resolve("dictionary.json").toFile();
+        JsonDictionaryRepository repo = new JsonDictionaryRepository(file);
+        repo.saveAll(ENTRIES);
+
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(5, lines.size());
+        assertEquals("[", lines.get(0));
+        assertEquals("{\"word\":\"táo\",\"meaning\":\"quả táo\",\"frequency\":3,\"tags\":[\"fruit\",\"đồ ăn\"]},", lines.get(1));
+        assertEquals("]", lines.get(4));
+
+        List<DictionaryEntry> loaded = repo.loadAll();
+        assertEquals(words(ENTRIES), words(loaded));
+        assertEquals(List.of("fruit", "đồ ăn"), loaded.get(0).getTags());
+        assertNull(loaded.get(2).getTags());
+        assertEquals(2, repo.findByWord("TÀU").get().getFrequency());
+        assertFalse(repo.isEmpty());
+
+        repo.saveAll(List.of());
+        assertTrue(repo.isEmpty());
+        assertEquals("[]", Files.readString(file.toPath()).trim());
+    }
+
+    @Test
+    void readsAndWritesNdjsonIncrementally() throws Exception {
+        File file = dir.resolve("words.ndjson").toFile();
+        JsonDictionaryRepository repo = new JsonDictionaryRepository(file);
+        repo.write(file, ENTRIES);
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(2).startsWith("{\"word\":\"tam\""));
+
+        List<String> seen = new ArrayList<>();
+        repo.forEach(e -> {
+            seen.add(e.getWord());
+            return seen.size() < 2;
+        });
+        assertEquals(List.of("táo", "tàu"), seen);
+        assertEquals(words(ENTRIES), words(repo.loadAll()));
+
+        Files.writeString(file.toPath(), "{\"word\":\"a\",\"frequency\":1}\n42\n");
+        assertThrows(java.io.IOException.class, repo::loadAll);
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.dictionarysuggestionsystem.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dictionarysuggestionsystem.service.DictionaryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionServerTest {
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private String base;
+
+    private JsonNode json(String method, String path, String body, int status) throws Exception {
+        HttpURLConnection c = (HttpURLConnection) new URL(base + path).openConnection();
+        c.setRequestMethod(method);
+        if (body != null) {
+            c.setDoOutput(true);
+            try (OutputStream out = c.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(status, c.getResponseCode(), method + " " + path);
+        assertEquals("application/json; charset=utf-8", c.getContentType());
+        try (InputStream in = c.getResponseCode() < 400 ? c.getInputStream() : c.getErrorStream()) {
+            return mapper.readTree(in);
+        }
+    }
+
+    private static String q(String s) {
+        return URLEncoder.encode(s, StandardCharsets.UTF_8);
+    }
+
+    /** Trong đường dẫn, dấu cách phải là %20 ("+" chỉ có nghĩa trong query string). */
+    private static String seg(String s) {
+        return q(s).replace("+", "%20");
+    }
+
+    @Test
+    void servesSuggestionsAndCrudOverHttp() throws Exception {
+        File data = dir.resolve("dictionary.json").toFile();
+        Files.writeString(data.toPath(), "["
+            + "{\"word\":\"táo\",\"meaning\":\"quả táo\",\"frequency\":5,\"tags\":[]},"
+            + "{\"word\":\"tàu\",\"meaning\":\"tàu thủy\",\"frequency\":9,\"tags\":[]}]");
+        try (DictionaryService service = new DictionaryService(data, 0, 7);
+             SuggestionServer server = new SuggestionServer(service, new InetSocketAddress("127.0.0.1", 0))) {
+            server.start();
+            base = "http://127.0.0.1:" + server.port();
+
+            assertEquals("[\"tàu\",\"táo\"]", json("GET", "/suggest/prefix?q=ta", null, 200).get("words").toString());
+            JsonNode merged = json("GET", "/suggest?q=" + q("tao") + "&budgetMillis=5000", null, 200);
+            assertEquals("[\"táo\",\"tàu\"]", merged.get("words").toString());
+            assertTrue(merged.get("completed").has("fuzzy"));
+            assertEquals("tàu", json("GET", "/suggest/tfidf?q=" + q("thủy"), null, 200).at("/entries/0/word").asText());
+
+            JsonNode batch = json("POST", "/suggest/batch", "{\"queries\":[\"ta\",\"xyz\"],\"budgetMillis\":5000}", 200);
+            assertEquals(2, batch.get("results").size());
+            assertEquals(0, batch.at("/results/1/words").size());
+            assertEquals("ta", batch.at("/results/0/query").asText());
+            assertEquals("xyz", batch.at("/results/1/query").asText());
+
+            json("POST", "/entries", "{\"word\":\"tao nhã\",\"meaning\":\"thanh lịch\",\"frequency\":20}", 200);
+            assertEquals("tao nhã", json("GET", "/suggest/prefix?q=tao", null, 200).at("/words/0").asText());
+            assertEquals("[\"tao nhã\"]", json("GET", "/suggest/substring?q=" + q("nhã"), null, 200).get("words").toString());
+            assertEquals("[\"tao nhã\"]", json("GET", "/suggest/tokens?q=" + q("nh t"), null, 200).get("words").toString());
+            json("PUT", "/entries/" + seg("tao nhã"), "{\"word\":\"tao nhã\",\"meaning\":\"lịch sự\",\"frequency\":1}", 200);
+            assertEquals("lịch sự", json("GET", "/entries/" + seg("tao nhã"), null, 200).get("meaning").asText());
+            assertEquals(6, json("POST", "/entries/" + seg("táo") + "/click", null, 200).get("frequency").asLong());
+            json("DELETE", "/entries/" + seg("tao nhã"), null, 200);
+            json("GET", "/entries/" + seg("tao nhã"), null, 404);
+            assertEquals(2, json("GET", "/entries", null, 200).get("total").asInt());
+
+            json("GET", "/suggest/prefix?q=ta&limit=x", null, 400);
+            json("PUT", "/entries/" + seg("táo"), "{\"word\":\"tàu\"}", 400);
+            json("DELETE", "/suggest", null, 405);
+            json("GET", "/entriesx", null, 404);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.dictionarysuggestionsystem.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncSuggesterTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void onlyLatestQueryAfterDebounceIsPublished() throws Exception {
+        File data = dir.resolve("dictionary.json").toFile();
+        Files.writeString(data.toPath(), "["
+            + "{\"word\":\"táo\",\"meaning\":\"quả táo\",\"frequency\":5,\"tags\":[]},"
+            + "{\"word\":\"tàu\",\"meaning\":\"tàu thủy\",\"frequency\":9,\"tags\":[]}]");
+        try (DictionaryService service = new DictionaryService(data, 0, 7);
+             AsyncSuggester suggester = new AsyncSuggester(service.newSession(), 100, Runnable::run)) {
+            List<List<String>> published = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(1);
+            // Gõ liên tiếp trong cửa sổ debounce: chỉ query cuối được tính và giao
+            for (String q : List.of("t", "ta", "tao")) {
+                suggester.submit(q, r -> {
+                    published.add(r.words);
+                    done.countDown();
+                });
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            assertEquals(List.of(List.of("táo", "tàu")), published);
+
+            // Hủy trước khi hết debounce: không giao gì
+            published.clear();
+            suggester.submit("tau", r -> published.add(r.words));
+            suggester.cancel();
+            Thread.sleep(300);
+            assertTrue(published.isEmpty());
+        }
+    }
+}
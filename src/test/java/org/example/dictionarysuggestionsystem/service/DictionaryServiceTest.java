@@ -0,0 +1,289 @@
+package org.example.dictionarysuggestionsystem.service;
+
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.example.dictionarysuggestionsystem.repository.BinaryDictionaryRepository;
+import org.example.dictionarysuggestionsystem.repository.JsonDictionaryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DictionaryServiceTest {
+    @TempDir
+    Path dir;
+
+    private DictionaryService newService(List<DictionaryEntry> entries) throws Exception {
+        File file = dir.resolve("dictionary.json").toFile();
+        new JsonDictionaryRepository(file).saveAll(entries);
+        return new DictionaryService(file);
+    }
+
+    @Test
+    void crudUpdatesEveryIndex() throws Exception {
+        DictionaryService service = newService(List.of(
+            new DictionaryEntry("táo", "quả táo", 1, List.of("fruit")),
+            new DictionaryEntry("tàu", "tàu thủy", 2, List.of())
+        ));
+        long v0 = service.getIndexVersion();
+        service.add(new DictionaryEntry("tam", "số ba", 5, List.of()));
+        assertEquals(List.of("tam", "tàu", "táo"), service.suggestByPrefixRanked("ta", 10).value);
+        service.delete("tàu");
+        assertEquals(List.of("tam", "táo"), service.suggestByPrefixRanked("ta", 10).value);
+        assertTrue(service.suggestByTfidf("thuy", 5).value.isEmpty());
+        service.incrementFrequency("táo");
+        service.incrementFrequency("táo");
+        service.incrementFrequency("táo");
+        service.incrementFrequency("táo");
+        service.incrementFrequency("táo");
+        assertEquals(List.of("táo", "tam"), service.suggestByPrefixRanked("ta", 10).value);
+        assertEquals(List.of("táo"), service.suggestBySymSpell("tao", 5, 1).value.subList(0, 1));
+        assertTrue(service.getIndexVersion() > v0);
+    }
+
+    @Test
+    void substringAndTokenSearchFollowEditsAndAreRebuiltFromBinarySnapshot() throws Exception {
+        DictionaryService service = newService(List.of(
+            new DictionaryEntry("ứng dụng", "áp dụng vào thực tế", 5, List.of()),
+            new DictionaryEntry("áp dụng", "đem dùng", 9, List.of()),
+            new DictionaryEntry("dung dịch", "chất lỏng", 1, List.of())
+        ));
+        assertEquals(List.of("áp dụng", "ứng dụng", "dung dịch"), service.suggestBySubstring("dụng", 10).value);
+        service.delete("áp dụng");
+        service.add(new DictionaryEntry("sử dụng", "dùng", 7, List.of()));
+        assertEquals(List.of("sử dụng", "ứng dụng"), service.suggestBySubstring("dụng", 2).value);
+        assertEquals(List.of("ứng dụng"), service.suggestByTokens("dụng ư", 10).value);
+        assertEquals(List.of("sử dụng"), service.suggestByTokens("s d", 10).value);
+
+        // Danh sách phụ đầy (ngưỡng tuyệt đối) thì được dựng lại ở luồng nền, kết quả không đổi
+        int added = DictionaryService.SEARCH_INDEX_MAX_PENDING;
+        for (int i = 0; i < added; i++) service.add(new DictionaryEntry("từ " + i, "", 0, List.of()));
+        assertTrue(service.currentSnapshot().substring.pendingSize() <= added + 1);
+        service.rebuildSearchIndexesIfStale();
+        long rebuilt = System.nanoTime() + 10_000_000_000L;
+        while ((service.currentSnapshot().substring.pendingSize() > 0 || service.currentSnapshot().tokens.pendingSize() > 0)
+            && System.nanoTime() < rebuilt) Thread.sleep(10);
+        assertEquals(0, service.currentSnapshot().substring.pendingSize());
+        assertEquals(0, service.currentSnapshot().tokens.pendingSize());
+        assertEquals(List.of("từ 299"), service.suggestByTokens("299 t", 10).value);
+        assertEquals(List.of("từ 299"), service.suggestBySubstring("u 299", 10).value);
+        assertEquals(List.of("sử dụng", "ứng dụng"), service.suggestBySubstring("dụng", 2).value);
+        service.close();
+
+        // Nạp từ snapshot nhị phân: chỉ mục chuỗi con và âm tiết được dựng ở luồng nền
+        DictionaryService reopened = new DictionaryService(dir.resolve("dictionary.json").toFile());
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (reopened.currentSnapshot().tokens == null && System.nanoTime() < deadline) Thread.sleep(10);
+        assertEquals(List.of("sử dụng", "ứng dụng"), reopened.suggestBySubstring("dung", 2).value);
+        assertEquals(List.of("ứng dụng"), reopened.suggestByTokens("u dung", 2).value);
+        reopened.close();
+    }
+
+    @Test
+    void deleteRemovesFromTrieInPlaceAndCompactsInBackground() throws Exception {
+        List<DictionaryEntry> seed = new ArrayList<>();
+        seed.add(new DictionaryEntry("táo", "quả táo", 1, List.of()));
+        seed.add(new DictionaryEntry("tạo", "tạo ra", 2, List.of()));
+        for (int i = 0; i < 100; i++) seed.add(new DictionaryEntry("tu" + i, "nghia " + i, i, List.of()));
+        DictionaryService service = newService(seed);
+        assertEquals(List.of("tạo", "táo"), service.suggestByPrefixRanked("tao", 10).value);
+        // táo/tạo cùng node trong trie: xóa táo thì tạo vẫn còn
+        service.delete("táo");
+        assertEquals(List.of("tạo"), service.suggestByPrefixRanked("tao", 10).value);
+        assertTrue(service.find("táo").isEmpty());
+
+        int before = service.currentSnapshot().trie.nodeCount();
+        for (int i = 0; i < 100; i++) service.delete("tu" + i);
+        assertTrue(service.suggestByPrefixRanked("tu", 10).value.isEmpty());
+        assertEquals(before, service.currentSnapshot().trie.nodeCount());
+        service.compactTrieIfSparse();
+        assertEquals(0, service.currentSnapshot().trie.deadNodeCount());
+        assertTrue(service.currentSnapshot().trie.nodeCount() < before / 4);
+        assertEquals(List.of("tạo"), service.suggestByPrefixRanked("ta", 10).value);
+        service.close();
+    }
+
+    @Test
+    void readersNeverSeeTornStateDuringWrites() throws Exception {
+        List<DictionaryEntry> seed = new ArrayList<>();
+        for (int i = 0; i < 200; i++) seed.add(new DictionaryEntry("tu" + i, "nghia " + i, i, List.of()));
+        DictionaryService service = newService(seed);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                for (int i = 0; i < 2000; i++) {
+                    service.suggestByPrefixRanked("tu", 10);
+                    service.suggestByLevenshteinFiltered("tu1", 10, 2);
+                    service.suggestByTfidf("nghia", 5);
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 50; i++) {
+            service.add(new DictionaryEntry("moi" + i, "nghia moi", 0, List.of()));
+            service.delete("tu" + i);
+        }
+        reader.join();
+        assertNull(failure.get());
+        assertEquals(200, service.getAllEntries().size());
+    }
+
+    @Test
+    void mutationsAreLoggedAndReplayedThenCompacted() throws Exception {
+        DictionaryService service = newService(List.of(new DictionaryEntry("táo", "quả táo", 1, List.of())));
+        File file = dir.resolve("dictionary.json").toFile();
+        long before = file.length();
+        service.add(new DictionaryEntry("tàu", "tàu thủy", 2, List.of()));
+        service.incrementFrequency("táo");
+        service.flushFrequencies();
+        service.delete("tàu");
+        service.add(new DictionaryEntry("tam", "số ba", 3, List.of()));
+        assertEquals(before, file.length());
+
+        // Không đóng service: giống như tiến trình bị dừng đột ngột, chỉ còn nhật ký trên đĩa
+        DictionaryService recovered = new DictionaryService(file);
+        assertEquals(List.of("tam", "táo"), recovered.suggestByPrefixRanked("ta", 10).value);
+        assertEquals(2, recovered.getAllEntries().stream().filter(e -> e.getWord().equals("táo")).findFirst().get().getFrequency());
+        recovered.close();
+
+        assertEquals(2, new JsonDictionaryRepository(file).loadAll().size());
+        try (var files = java.nio.file.Files.list(dir)) {
+            assertEquals(1, files.filter(p -> p.getFileName().toString().startsWith("dictionary.json.wal.")).count());
+        }
+    }
+
+    @Test
+    void concurrentWritersShareLogSyncs() throws Exception {
+        DictionaryService service = newService(List.of(new DictionaryEntry("táo", "quả táo", 1, List.of())));
+        long before = service.logSyncCount();
+        int writers = 8, perWriter = 50;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[writers];
+        for (int t = 0; t < writers; t++) {
+            int w = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < perWriter; i++) service.add(new DictionaryEntry("tu" + w + "x" + i, "nghia", i, List.of()));
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+        assertNull(failure.get());
+        // fsync được chờ ngoài khóa nên các bên ghi đồng thời dùng chung một lần fsync
+        long syncs = service.logSyncCount() - before;
+        assertTrue(syncs < writers * perWriter, "syncs = " + syncs);
+        assertEquals(1 + writers * perWriter, service.getAllEntries().size());
+
+        DictionaryService recovered = new DictionaryService(dir.resolve("dictionary.json").toFile());
+        assertEquals(1 + writers * perWriter, recovered.getAllEntries().size());
+        recovered.close();
+    }
+
+    @Test
+    void backgroundCompactionKeepsTheLogUntilJsonIsExported() throws Exception {
+        DictionaryService service = newService(List.of(new DictionaryEntry("táo", "quả táo", 1, List.of())));
+        service.add(new DictionaryEntry("tam", "số ba", 3, List.of()));
+        service.compact();
+        assertTrue(new BinaryDictionaryRepository(dir.resolve("dictionary.json").toFile()).isCurrent());
+
+        // JSON bị chạm vào sau lần compact (sao lưu, đồng bộ...): snapshot nhị phân bị coi là cũ,
+        // dữ liệu phải khôi phục được từ JSON + nhật ký
+        Path json = dir.resolve("dictionary.json");
+        java.nio.file.Files.setLastModifiedTime(json,
+            java.nio.file.attribute.FileTime.fromMillis(java.nio.file.Files.getLastModifiedTime(json).toMillis() + 5_000));
+        DictionaryService recovered = new DictionaryService(json.toFile());
+        assertEquals(List.of("tam", "táo"), recovered.suggestByPrefixRanked("ta", 10).value);
+        recovered.close();
+        assertEquals(2, new JsonDictionaryRepository(json.toFile()).loadAll().size());
+    }
+
+    @Test
+    void concurrentClicksAreCoalescedIntoOneFlush() throws Exception {
+        DictionaryService service = newService(List.of(
+            new DictionaryEntry("táo", "quả táo", 1, List.of()),
+            new DictionaryEntry("tàu", "tàu thủy", 2, List.of())
+        ));
+        Thread[] clickers = new Thread[4];
+        for (int t = 0; t < clickers.length; t++) {
+            clickers[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) service.incrementFrequency("táo");
+            });
+            clickers[t].start();
+        }
+        for (Thread t : clickers) t.join();
+        assertEquals(4001, service.getFrequency("táo"));
+        assertEquals(List.of("táo", "tàu"), service.suggestByPrefixRanked("ta", 10).value);
+
+        service.flushFrequencies();
+        assertEquals(4001, service.getFrequency("táo"));
+        assertEquals(4001, service.getAllEntries().stream().filter(e -> e.getWord().equals("táo")).findFirst().get().getFrequency());
+        assertEquals(List.of("táo", "tàu"), service.suggestByPrefixRanked("ta", 10).value);
+        long v1 = service.getIndexVersion();
+        service.flushFrequencies();
+        assertEquals(v1, service.getIndexVersion());
+        service.close();
+        assertEquals(4001, new JsonDictionaryRepository(dir.resolve("dictionary.json").toFile()).findByWord("táo").get().getFrequency());
+    }
+
+    @Test
+    void restartsFromBinarySnapshotAfterCleanClose() throws Exception {
+        DictionaryService service = newService(List.of(
+            new DictionaryEntry("táo", "quả táo", 1, List.of()),
+            new DictionaryEntry("tàu", "tàu thủy", 2, List.of())
+        ));
+        service.add(new DictionaryEntry("tam", "số ba", 3, List.of()));
+        service.close();
+        File file = dir.resolve("dictionary.json").toFile();
+        assertTrue(new BinaryDictionaryRepository(file).isCurrent());
+
+        DictionaryService restarted = new DictionaryService(file);
+        assertEquals(List.of("tam", "tàu", "táo"), restarted.suggestByPrefixRanked("ta", 10).value);
+        assertEquals(List.of("tàu"), restarted.suggestByTfidf("thuy", 5).value.stream().map(DictionaryEntry::getWord).collect(java.util.stream.Collectors.toList()));
+        restarted.delete("tàu");
+        restarted.add(new DictionaryEntry("tao", "dao", 0, List.of()));
+        // Chỉ mục SymSpell được dựng ở luồng nền sau khi nạp snapshot nhị phân
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (restarted.suggestBySymSpell("tam", 5, 1).value.isEmpty() && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertEquals(List.of("tam", "táo", "tao"), restarted.suggestBySymSpell("tam", 5, 1).value);
+        restarted.close();
+    }
+
+    @Test
+    void importsNdjsonAndExportsJson() throws Exception {
+        DictionaryService service = newService(List.of(
+            new DictionaryEntry("táo", "quả táo", 1, List.of()),
+            new DictionaryEntry("tàu", "tàu thủy", 2, List.of())
+        ));
+        File source = dir.resolve("more.ndjson").toFile();
+        java.nio.file.Files.writeString(source.toPath(),
+            "{\"word\":\"TÁO\",\"meaning\":\"táo tây\",\"frequency\":9,\"tags\":[]}\n"
+            + "{\"word\":\"tam\",\"meaning\":\"số ba\",\"frequency\":5,\"tags\":[]}\n");
+
+        assertEquals(2, service.importFrom(source, false));
+        assertEquals(List.of("TÁO", "tam", "tàu"), service.suggestByPrefixRanked("ta", 10).value);
+        assertEquals("TÁO", service.suggestByTfidf("tay", 5).value.get(0).getWord());
+
+        File exported = dir.resolve("export.json").toFile();
+        service.exportTo(exported);
+        assertEquals(3, new JsonDictionaryRepository(exported).loadAll().size());
+
+        assertEquals(2, service.importFrom(source, true));
+        assertEquals(2, service.getAllEntries().size());
+        assertTrue(service.suggestByTfidf("thuy", 5).value.isEmpty());
+
+        // Nhập được ghi thẳng vào snapshot nhị phân: khởi động lại (như khi sập) vẫn thấy
+        DictionaryService restarted = new DictionaryService(dir.resolve("dictionary.json").toFile());
+        assertEquals(List.of("TÁO", "tam"), restarted.suggestByPrefixRanked("ta", 10).value);
+        restarted.close();
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.dictionarysuggestionsystem.service;
+
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntryStoreTest {
+    private static DictionaryEntry entry(String word, long frequency) {
+        return new DictionaryEntry(word, null, frequency, List.of());
+    }
+
+    private static List<String> words(EntryStore s) {
+        return s.toList().stream().map(DictionaryEntry::getWord).collect(Collectors.toList());
+    }
+
+    @Test
+    void idsStayStableAcrossEditsDeletesAndReAdds() {
+        EntryStore s = EntryStore.of(List.of(entry("táo", 1), entry("tàu", 2), entry("Tạo", 3)));
+        assertEquals(3, s.size());
+        assertEquals(0, s.idOf("TÁO"));
+        assertEquals(2, s.idOf("tạo"));
+        assertEquals(EntryStore.NONE, s.idOf("tao"));
+
+        assertEquals(1, s.put(entry("TÀU", 7)));
+        assertEquals(7, s.find("tàu").get().getFrequency());
+        assertEquals(List.of("táo", "TÀU", "Tạo"), words(s));
+
+        assertEquals("táo", s.remove("táo").getWord());
+        assertNull(s.remove("táo"));
+        assertEquals(EntryStore.NONE, s.idOf("táo"));
+        assertNull(s.get(0));
+        assertEquals(2, s.size());
+        assertEquals(3, s.idLimit());
+        assertEquals(0, s.put(entry("táo", 4)));
+        assertEquals(List.of("táo", "TÀU", "Tạo"), words(s));
+    }
+
+    @Test
+    void copiesAreIndependentAndGrowPastInitialCapacity() {
+        List<DictionaryEntry> many = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) many.add(entry("w" + i, i));
+        EntryStore base = EntryStore.of(many);
+        EntryStore copy = base.copy();
+        for (int i = 1000; i < 3000; i++) assertEquals(i, copy.put(entry("w" + i, i)));
+        copy.remove("w5");
+
+        assertEquals(1000, base.size());
+        assertEquals(5, base.idOf("w5"));
+        assertEquals(EntryStore.NONE, base.idOf("w1500"));
+        assertEquals(2999, copy.size());
+        assertEquals(EntryStore.NONE, copy.idOf("w5"));
+        for (int i = 0; i < 3000; i += 7) {
+            if (i != 5) assertEquals(i, copy.find("W" + i).get().getFrequency());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.dictionarysuggestionsystem.service;
+
+import org.example.dictionarysuggestionsystem.model.DictionaryEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchSessionTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void extendsPreviousKeystrokeAndCachesUntilIndexChanges() throws Exception {
+        File data = dir.resolve("dictionary.json").toFile();
+        Files.writeString(data.toPath(), "["
+            + "{\"word\":\"táo\",\"meaning\":\"quả táo\",\"frequency\":5,\"tags\":[]},"
+            + "{\"word\":\"tàu\",\"meaning\":\"tàu thủy\",\"frequency\":9,\"tags\":[]},"
+            + "{\"word\":\"tạo\",\"meaning\":\"tạo ra\",\"frequency\":1,\"tags\":[]},"
+            + "{\"word\":\"đường\",\"meaning\":\"con đường\",\"frequency\":3,\"tags\":[]}]");
+        try (DictionaryService service = new DictionaryService(data, 0, 7)) {
+            SearchSession session = service.newSession();
+            assertEquals(List.of("tàu", "táo", "tạo"), session.suggest("ta").words);
+            SearchSession.Result tao = session.suggest("tao");
+            assertFalse(tao.cached);
+            // táo/tạo cùng dạng chuẩn hóa và đều có trong trie; Levenshtein thêm tàu (1 thay thế)
+            assertEquals(List.of("táo", "tạo", "tàu"), tao.words);
+            // Query có dấu: dùng lại cache của "tao" nhưng từ đúng dấu đã gõ lên trước
+            SearchSession.Result accented = session.suggest("tạo");
+            assertTrue(accented.cached);
+            assertEquals(List.of("tạo", "táo", "tàu"), accented.words);
+            // tàu chỉ là gợi ý gần đúng của "tào" (không căn được theo vị trí) nên giữ chỗ, không được kéo lên vì trùng dấu
+            assertEquals(List.of("táo", "tạo", "tàu"), session.suggest("Tào").words);
+            assertEquals(List.of("tạo", "tàu", "táo"), session.suggest("tạ").words);
+            assertTrue(session.suggest("ta").cached);
+
+            // Gõ lệch một ký tự: tìm kiếm mờ đi tiếp từ tập của "du" (đ gấp thành d)
+            assertEquals(List.of("đường"), session.suggest("duo").words);
+            assertEquals(List.of("đường"), session.suggest("duomg").words);
+            // TF-IDF với query có dấu khớp nghĩa đã chuẩn hóa
+            assertTrue(session.suggest("thủy").words.contains("tàu"));
+
+            // Truy vấn song song cho cùng kết quả khi mọi engine kịp hạn
+            for (String q : List.of("ta", "tao", "duomg", "thủy", "xyz")) {
+                DictionaryService.FederatedResult f = service.suggestFederated(q, SearchSession.LIMIT, 5_000);
+                assertEquals(session.suggest(q).words, f.words, q);
+                assertTrue(f.timedOut.isEmpty(), q);
+            }
+            assertEquals(List.of("prefix", "substring", "fuzzy", "tfidf"), List.copyOf(service.suggestFederated("thủy", 10, 5_000).completed.keySet()));
+            // Hết ngân sách ngay: mỗi engine đã chạy được báo là xong hoặc quá hạn, không chờ thêm
+            DictionaryService.FederatedResult rushed = service.suggestFederated("thủy", 10, 0);
+            assertEquals(4, rushed.completed.size() + rushed.timedOut.size());
+            for (String engine : rushed.timedOut) assertFalse(rushed.completed.containsKey(engine));
+
+            service.add(new DictionaryEntry("tao nhã", "thanh lịch", 20, List.of()));
+            SearchSession.Result fresh = session.suggest("tao");
+            assertFalse(fresh.cached);
+            assertEquals("tao nhã", fresh.words.get(0));
+            // Âm tiết giữa từ: chỉ chỉ mục chuỗi con tìm được
+            SearchSession.Result infix = session.suggest("nhã");
+            assertEquals(List.of("tao nhã"), infix.words);
+            assertTrue(infix.substringMicros >= 0);
+            // Nhiều âm tiết không liền nhau, không đúng thứ tự: chỉ mục âm tiết, trước cả chuỗi con và tìm mờ
+            SearchSession.Result syllables = session.suggest("nhã t");
+            assertEquals(List.of("tao nhã"), syllables.words);
+            assertTrue(syllables.tokenMicros >= 0);
+            assertEquals(List.of("prefix", "tokens", "substring", "fuzzy", "tfidf"),
+                List.copyOf(service.suggestFederated("nhã t", 10, 5_000).completed.keySet()));
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package org.example.dictionarysuggestionsystem.trie;
 
+import org.example.dictionarysuggestionsystem.algorithms.Levenshtein;
+import org.example.dictionarysuggestionsystem.utils.NormalizerUtil;
 import org.junit.jupiter.api.Test;
 
-import java.util.List;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,6 +25,290 @@ class TrieTest {
         assertTrue(s.contains("apple"));
         assertTrue(s.contains("ape"));
     }
-}
 
+    @Test
+    void buildMatchesIncrementalInsert() {
+        List<String> words = List.of("táo", "tạo", "tao nhã", "ứng dụng", "ứng viên", "apple", "app");
+        Trie built = Trie.build(words);
+        Trie inserted = new Trie();
+        for (String w : words) inserted.insert(w);
+        assertEquals(inserted.nodeCount(), built.nodeCount());
+        for (String p : List.of("t", "ta", "ung", "ap", "x")) {
+            assertEquals(inserted.prefixSuggest(p, 10, true), built.prefixSuggest(p, 10, true));
+            assertEquals(inserted.prefixSuggest(p, 10, false), built.prefixSuggest(p, 10, false));
+        }
+        assertTrue(built.search("ung dung"));
+        assertFalse(built.search("ung"));
+    }
+
+    @Test
+    void parallelBuildIsIdenticalToSequentialBuild() throws Exception {
+        Random rnd = new Random(5);
+        String[] syllables = {"ta", "tá", "tạo", "ng", "ân", "hàng", "ứng", "dụng", "b", "an", "x"};
+        int n = 20_000;
+        String[] words = new String[n];
+        String[] normalized = new String[n];
+        long[] freq = new long[n];
+        Trie inserted = new Trie();
+        for (int i = 0; i < n; i++) {
+            StringBuilder w = new StringBuilder();
+            for (int k = 1 + rnd.nextInt(3); k > 0; k--) w.append(syllables[rnd.nextInt(syllables.length)]);
+            words[i] = w.toString();
+            normalized[i] = NormalizerUtil.normalize(words[i]);
+            freq[i] = rnd.nextInt(1000) * (long) n + i; // không trùng tần suất để thứ tự top-K xác định
+            // Cùng từ gốc xuất hiện lại thì insert giữ frequency lần đầu, như build
+            inserted.insert(words[i], freq[i]);
+        }
+        Trie sequential = Trie.build(words, normalized, freq, false);
+        Trie parallel = Trie.build(words, normalized, freq, true);
+        assertArrayEquals(bytes(sequential), bytes(parallel));
+        assertEquals(inserted.nodeCount(), parallel.nodeCount());
+        for (String p : List.of("", "t", "ta", "tao", "ung", "hang", "b", "x")) {
+            assertEquals(inserted.topKByFrequency(p, 20), parallel.topKByFrequency(p, 20), p);
+            assertEquals(inserted.prefixSuggest(p, 20, true), parallel.prefixSuggest(p, 20, true), p);
+        }
+    }
 
+    private static byte[] bytes(Trie trie) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        trie.writeTo(new DataOutputStream(buf), Objects::hashCode);
+        return buf.toByteArray();
+    }
+
+    @Test
+    void cursorsContinueFromPreviousKeystroke() {
+        Random rnd = new Random(21);
+        Trie trie = new Trie();
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            StringBuilder w = new StringBuilder();
+            for (int k = 1 + rnd.nextInt(7); k > 0; k--) w.append("aăbcdđeiot".charAt(rnd.nextInt(10)));
+            words.add(w.toString());
+            trie.insert(w.toString(), rnd.nextInt(100) * 10_000L + i);
+        }
+        Comparator<Trie.Match> order = Comparator.comparingInt((Trie.Match m) -> m.distance).thenComparing(m -> m.word);
+        for (int q = 0; q < 60; q++) {
+            String query = NormalizerUtil.normalize(words.get(rnd.nextInt(words.size())) + "xa".substring(0, rnd.nextInt(3)));
+            Trie.Cursor cursor = null;
+            Trie.FuzzyCursor fuzzy = null;
+            for (int len = 0; len <= query.length(); len++) {
+                String typed = query.substring(0, len);
+                cursor = trie.cursor(typed, cursor);
+                assertEquals(trie.topKByFrequency(typed, 10), trie.topKByFrequency(cursor, 10), typed);
+                fuzzy = trie.fuzzyCursor(typed, 2, fuzzy);
+                for (int d = 0; d <= 2; d++) {
+                    List<Trie.Match> expected = trie.fuzzySearch(typed, d);
+                    List<Trie.Match> actual = trie.fuzzyMatches(fuzzy, d);
+                    expected.sort(order);
+                    actual.sort(order);
+                    assertEquals(expected.stream().map(m -> m.word + ":" + m.distance).toList(),
+                        actual.stream().map(m -> m.word + ":" + m.distance).toList(), typed + " d=" + d);
+                }
+            }
+        }
+        // Cursor của trie khác không dùng được
+        assertThrows(IllegalArgumentException.class, () -> new Trie().topKByFrequency(trie.cursor("a", null), 5));
+    }
+
+    @Test
+    void removePrunesBranchesAndCompactReclaimsNodes() {
+        Trie trie = new Trie();
+        trie.insert("tao", 1);
+        trie.insert("taom", 9);
+        trie.insert("ta", 3);
+        assertFalse(trie.remove("tam"));
+        assertTrue(trie.remove("TAOM"));
+        assertFalse(trie.search("taom"));
+        assertEquals(1, trie.deadNodeCount());
+        assertEquals(List.of("ta", "tao"), trie.topKByFrequency("t", 10));
+        assertTrue(trie.remove("ta"));
+        // "ta" vẫn còn con "tao" nên không bị cắt
+        assertEquals(1, trie.deadNodeCount());
+        assertEquals(List.of("tao"), trie.prefixSuggest("t", 10, false));
+
+        // Thêm/xóa liên tục rồi nén: giống hệt trie dựng từ các từ còn lại
+        Random rnd = new Random(3);
+        Map<String, Long> live = new LinkedHashMap<>(Map.of("tao", 1L));
+        for (int i = 0; i < 5000; i++) {
+            String w = Integer.toString(rnd.nextInt(3000), 7);
+            if (live.containsKey(w)) {
+                assertTrue(trie.remove(w));
+                live.remove(w);
+            } else {
+                trie.insert(w, i);
+                live.put(w, (long) i);
+            }
+        }
+        assertTrue(trie.deadNodeCount() > 0);
+        Trie compacted = trie.compact();
+        Trie rebuilt = Trie.build(live);
+        assertEquals(0, compacted.deadNodeCount());
+        assertEquals(rebuilt.nodeCount(), compacted.nodeCount());
+        for (String p : List.of("", "1", "12", "3", "60", "tao")) {
+            assertEquals(rebuilt.topKByFrequency(p, 20), compacted.topKByFrequency(p, 20));
+            assertEquals(rebuilt.topKByFrequency(p, 20), trie.topKByFrequency(p, 20));
+            assertEquals(new HashSet<>(rebuilt.prefixSuggest(p, 5000, true)), new HashSet<>(compacted.prefixSuggest(p, 5000, false)));
+        }
+        assertEquals(rebuilt.fuzzySearch("1234", 1).size(), compacted.fuzzySearch("1234", 1).size());
+    }
+
+    @Test
+    void keepsEveryOriginalSharingANormalizedForm() throws IOException {
+        Map<String, Long> words = new LinkedHashMap<>();
+        words.put("táo", 5L);
+        words.put("tạo", 8L);
+        words.put("tao", 1L);
+        words.put("ứng dụng", 4L);
+        words.put("ưng dung", 2L);
+        Trie built = Trie.build(words);
+        Trie inserted = new Trie();
+        words.forEach(inserted::insert);
+        for (Trie t : List.of(built, inserted)) {
+            assertEquals(List.of("táo", "tạo", "tao"), t.originalsOf("TAO"));
+            assertEquals(List.of("tạo", "táo", "tao"), t.topKByFrequency("ta", 3));
+            assertEquals(List.of("táo", "tạo", "tao", "ứng dụng", "ưng dung"), t.prefixSuggest("", 10, true));
+            assertEquals(Set.of("táo", "tạo", "tao"), t.fuzzySearch("tap", 1).stream().map(m -> m.word).collect(java.util.stream.Collectors.toSet()));
+            assertEquals(4, t.frequencyOf("Ứng Dụng"));
+            assertEquals(2, t.frequencyOf("ưng dung"));
+        }
+        assertArrayEquals(bytes(inserted), bytes(built));
+
+        // Mỗi từ gốc có frequency riêng; xóa từ gốc đầu thì biến thể kế tiếp lên thay, node chỉ bị bỏ khi hết từ
+        assertTrue(built.updateFrequency("tao", 9));
+        assertFalse(built.updateFrequency("tảo", 9));
+        assertEquals(List.of("tao", "tạo", "táo"), built.topKByFrequency("t", 3));
+        assertTrue(built.remove("táo"));
+        assertFalse(built.remove("táo"));
+        assertEquals(List.of("tạo", "tao"), built.originalsOf("tao"));
+        assertTrue(built.remove("tao"));
+        assertEquals(List.of("tạo"), built.topKByFrequency("ta", 10));
+        assertEquals(8, built.frequencyOf("tạo"));
+        built.insert("tào", 3);
+        assertTrue(built.remove("tạo"));
+        assertTrue(built.search("tao"));
+        assertTrue(built.remove("tào"));
+        assertFalse(built.search("tao"));
+        assertEquals(List.of("ứng dụng", "ưng dung"), built.compact().prefixSuggest("u", 10, false));
+
+        Map<Integer, String> table = new HashMap<>();
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        inserted.writeTo(new DataOutputStream(buf), w -> { table.put(w == null ? 0 : w.hashCode(), w); return w == null ? 0 : w.hashCode(); });
+        Trie read = Trie.readFrom(java.nio.ByteBuffer.wrap(buf.toByteArray()), table::get);
+        assertEquals(inserted.topKByFrequency("", 10), read.topKByFrequency("", 10));
+        assertEquals(List.of("ứng dụng", "ưng dung"), read.originalsOf("ung dung"));
+    }
+
+    @Test
+    void topKByFrequencyFollowsUpdates() {
+        Map<String, Long> words = new LinkedHashMap<>();
+        words.put("tao", 1L);
+        words.put("táo", 5L);
+        words.put("tạp chí", 3L);
+        words.put("tam", 9L);
+        words.put("bàn", 100L);
+        Trie trie = Trie.build(words);
+        // táo không bị tao che khuất dù cùng dạng chuẩn hóa
+        assertEquals(List.of("tam", "táo", "tạp chí"), trie.topKByFrequency("ta", 3));
+        assertEquals(List.of("tam"), trie.topKByFrequency("ta", 1));
+        assertTrue(trie.updateFrequency("tạp chí", 50L));
+        assertEquals(List.of("tạp chí", "tam"), trie.topKByFrequency("ta", 2));
+        assertTrue(trie.updateFrequency("tạp chí", 0L));
+        assertEquals(List.of("tam", "táo", "tao", "tạp chí"), trie.topKByFrequency("ta", 4));
+        assertFalse(trie.updateFrequency("ta", 7L));
+    }
+
+    @Test
+    void frequenciesOutsideIntRangeKeepTopKOrder() {
+        Map<String, Long> words = new LinkedHashMap<>();
+        words.put("tam", 3L << 40);
+        words.put("tao", (3L << 40) + 1);
+        words.put("tai", Integer.MAX_VALUE + 5L);
+        words.put("tay", -(1L << 40));
+        words.put("tat", 7L);
+        Trie trie = Trie.build(words);
+        assertEquals(List.of("tao", "tam", "tai", "tat", "tay"), trie.topKByFrequency("ta", 5));
+        assertTrue(trie.updateFrequency("tay", Long.MAX_VALUE));
+        assertEquals(List.of("tay", "tao"), trie.topKByFrequency("t", 2));
+        assertTrue(trie.remove("tay"));
+        assertTrue(trie.remove("tao"));
+        assertEquals(List.of("tam", "tai", "tat"), trie.topKByFrequency("ta", 5));
+    }
+
+    @Test
+    void dataOfAWordLivesOnlyOnItsTerminalNode() {
+        List<String> words = new ArrayList<>();
+        Random rnd = new Random(9);
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder w = new StringBuilder();
+            for (int k = 2 + rnd.nextInt(8); k > 0; k--) w.append((char) ('a' + rnd.nextInt(6)));
+            words.add(w.toString());
+        }
+        Trie trie = Trie.build(words);
+        long distinct = words.stream().distinct().count();
+        // 18 byte mỗi node (nhãn, con đầu, anh em kế, max, số thứ tự kết thúc) và 16 byte mỗi từ
+        assertEquals(18L * trie.nodeCount() + 16L * distinct, trie.footprintBytes());
+    }
+
+    @Test
+    void editingACopyLeavesThePublishedTrieUntouched() {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) words.add("tu" + i);
+        Trie base = Trie.build(words);
+        Trie copy = base.copy();
+        copy.remove("tu7");
+        copy.insert("tú7", 50);
+        copy.updateFrequency("tu8", 40);
+        copy.insert("moi", 1);
+
+        assertTrue(base.search("tu7"));
+        assertEquals(List.of("tu7"), base.originalsOf("tu7"));
+        assertEquals(0L, base.frequencyOf("tu8"));
+        assertFalse(base.search("moi"));
+        assertEquals(List.of("tú7"), copy.originalsOf("tu7"));
+        assertEquals(List.of("tú7", "tu8"), copy.topKByFrequency("tu", 2));
+        assertTrue(copy.search("moi"));
+    }
+
+    @Test
+    void traversalReusesBufferAndStopsEarly() {
+        Trie trie = Trie.build(List.of("an", "anh", "ang", "anh em", "ao"));
+        List<String> seen = new ArrayList<>();
+        trie.forEachWithPrefix("an", true, (path, length) -> {
+            seen.add(new String(path, 0, length));
+            return seen.size() < 3;
+        });
+        assertEquals(List.of("an", "ang", "anh"), seen);
+        seen.clear();
+        trie.forEachWithPrefix("a", false, (path, length) -> seen.add(new String(path, 0, length)));
+        assertEquals(List.of("ao", "an", "anh", "anh em", "ang"), seen);
+    }
+
+    @Test
+    void fuzzySearchMatchesBruteForce() {
+        Random rnd = new Random(42);
+        String alphabet = "abcdeghiklmnou ";
+        Set<String> words = new TreeSet<>();
+        while (words.size() < 2000) {
+            int len = 1 + rnd.nextInt(9);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < len; i++) sb.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+            words.add(sb.toString().trim());
+        }
+        words.remove("");
+        Trie trie = Trie.build(words);
+        List<String> queries = new ArrayList<>(List.of("a", "ban", "tao", "nguoi", "khong co"));
+        for (int i = 0; i < 50; i++) queries.add(new ArrayList<>(words).get(rnd.nextInt(words.size())));
+        for (String q : queries) {
+            for (int max = 0; max <= 2; max++) {
+                Map<String, Integer> expected = new TreeMap<>();
+                for (String w : words) {
+                    int d = Levenshtein.distance(q, w);
+                    if (d <= max) expected.put(w, d);
+                }
+                Map<String, Integer> actual = new TreeMap<>();
+                for (Trie.Match m : trie.fuzzySearch(q, max)) assertNull(actual.put(m.word, m.distance));
+                assertEquals(expected, actual, "query=" + q + " max=" + max);
+            }
+        }
+    }
+}
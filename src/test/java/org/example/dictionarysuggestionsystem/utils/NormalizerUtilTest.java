@@ -0,0 +1,56 @@
+package org.example.dictionarysuggestionsystem.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NormalizerUtilTest {
+    private static String reference(String s) {
+        String nfd = Normalizer.normalize(s.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return nfd.replaceAll("\\p{InCombiningDiacriticalMarks}+", "").replace('đ', 'd');
+    }
+
+    @Test
+    void foldsVietnameseAndKeepsAsciiAsIs() {
+        assertEquals("duong di", NormalizerUtil.normalize("Đường đi"));
+        assertEquals("ung dung", NormalizerUtil.normalize("Ứng Dụng"));
+        assertEquals("", NormalizerUtil.normalize(null));
+        String ascii = "tao nha 123";
+        assertSame(ascii, NormalizerUtil.normalize(ascii));
+
+        char[] buf = new char[16];
+        int len = NormalizerUtil.normalize("Tiếng Việt", buf);
+        assertEquals("tieng viet", new String(buf, 0, len));
+        assertEquals(-1, NormalizerUtil.normalize("Ωmega", buf));
+        assertThrows(IllegalArgumentException.class, () -> NormalizerUtil.normalize("quá dài", new char[2]));
+    }
+
+    @Test
+    void tableMatchesNfdReference() {
+        Random rnd = new Random(1);
+        String alphabet = "aăâbcdđeêghiklmnoôơpqrstuưvxyAĂÂĐÊÔƠƯ áàảãạấầẩẫậếềểễệốồổỗộớờởỡợứừửữựíìỉĩịýỳỷỹỵ"
+            + "ÀÁÂÃÄÅÇÈÉÑÖØÜßĳŁœŸǅȘİΣж中̣́-";
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder s = new StringBuilder();
+            for (int k = rnd.nextInt(12); k >= 0; k--) s.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+            assertEquals(reference(s.toString()), NormalizerUtil.normalize(s.toString()), s.toString());
+        }
+        for (char c = 0; c < 0x1F00; c++) {
+            if (Character.isSurrogate(c)) continue;
+            assertEquals(reference(String.valueOf(c)), NormalizerUtil.normalize(String.valueOf(c)), Integer.toHexString(c));
+        }
+    }
+
+    @Test
+    void tokenizeSplitsOnNonLettersAndKeepsEveryScript() {
+        assertArrayEquals(new String[]{"ung", "dung", "4g"}, NormalizerUtil.tokenize("ung-dung, 4g"));
+        assertArrayEquals(new String[]{"кофе", "ø", "中文"}, NormalizerUtil.tokenize(" кофе ø/中文 "));
+        assertArrayEquals(new String[]{"a\uD835\uDC9Cb"}, NormalizerUtil.tokenize("a\uD835\uDC9Cb"));
+        assertEquals(0, NormalizerUtil.tokenize(" .,").length);
+        assertEquals(0, NormalizerUtil.tokenize(null).length);
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.dictionarysuggestionsystem.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedArrayTest {
+    @Test
+    void writesToACopyNeverReachItsSource() {
+        int n = 3 * PagedArray.PAGE_SIZE + 7;
+        PagedArray.Ints base = new PagedArray.Ints(n);
+        for (int i = 0; i < n; i++) base.set(i, i);
+        PagedArray.Ints copy = base.copy();
+        copy.set(5, -1);
+        copy.set(6, -2);
+        PagedArray.Ints second = copy.copy();
+        second.set(5, -4);
+        second.set(PagedArray.PAGE_SIZE + 1, -3);
+
+        assertEquals(5, base.get(5));
+        assertEquals(6, base.get(6));
+        assertEquals(-1, copy.get(5));
+        assertEquals(-2, copy.get(6));
+        assertEquals(PagedArray.PAGE_SIZE + 1, copy.get(PagedArray.PAGE_SIZE + 1));
+        assertEquals(-4, second.get(5));
+        assertEquals(-2, second.get(6));
+        assertEquals(-3, second.get(PagedArray.PAGE_SIZE + 1));
+    }
+
+    @Test
+    void growingKeepsValuesAndSharesNothingNew() {
+        PagedArray.Refs<String> base = new PagedArray.Refs<>(1);
+        base.set(0, "a");
+        PagedArray.Refs<String> copy = base.copy();
+        copy.ensureCapacity(5 * PagedArray.PAGE_SIZE);
+        copy.set(4 * PagedArray.PAGE_SIZE, "b");
+        copy.set(0, "c");
+
+        assertEquals(PagedArray.PAGE_SIZE, base.capacity());
+        assertEquals("a", base.get(0));
+        assertEquals("c", copy.get(0));
+        assertEquals("b", copy.get(4 * PagedArray.PAGE_SIZE));
+        assertNull(copy.get(3 * PagedArray.PAGE_SIZE));
+
+        PagedArray.Ints empty = new PagedArray.Ints(0);
+        assertEquals(0, empty.capacity());
+        empty.ensureCapacity(1);
+        empty.set(0, 4);
+        assertEquals(4, empty.get(0));
+    }
+
+    @Test
+    void ofSlicesThePrefixIntoPages() {
+        long[] a = new long[2 * PagedArray.PAGE_SIZE + 3];
+        for (int i = 0; i < a.length; i++) a[i] = (long) i << 33;
+        PagedArray.Longs paged = PagedArray.Longs.of(a, a.length - 1);
+        for (int i = 0; i < a.length - 1; i++) assertEquals(a[i], paged.get(i));
+        assertEquals(0, paged.get(a.length - 1));
+        assertEquals('x', PagedArray.Chars.of(new char[]{'x'}, 1).get(0));
+        assertEquals(9, PagedArray.Ints.of(new int[]{9, 8}, 1).get(0));
+    }
+}
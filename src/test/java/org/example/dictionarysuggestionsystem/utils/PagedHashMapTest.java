@@ -0,0 +1,63 @@
+package org.example.dictionarysuggestionsystem.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedHashMapTest {
+    private static void assertMatches(Map<String, Integer> expected, PagedHashMap<String, Integer> actual) {
+        assertEquals(expected.size(), actual.size());
+        expected.forEach((k, v) -> assertEquals(v, actual.get(k), k));
+        int seen = 0;
+        for (int s = 0; s < actual.slots(); s++) {
+            if (actual.keyAt(s) == null) continue;
+            assertEquals(expected.get(actual.keyAt(s)), actual.valueAt(s));
+            seen++;
+        }
+        assertEquals(expected.size(), seen);
+    }
+
+    @Test
+    void matchesHashMapThroughPutsRemovesAndCopies() {
+        Random rnd = new Random(3);
+        Map<String, Integer> expected = new HashMap<>();
+        PagedHashMap<String, Integer> map = new PagedHashMap<>();
+        Map<String, Integer> frozenExpected = null;
+        PagedHashMap<String, Integer> frozen = null;
+        for (int i = 0; i < 20_000; i++) {
+            String k = "k" + rnd.nextInt(3000);
+            if (rnd.nextInt(3) == 0) assertEquals(expected.remove(k), map.remove(k));
+            else assertEquals(expected.put(k, i), map.put(k, i));
+            if (i == 10_000) {
+                // Từ đây chỉ sửa bản sao, bản cũ phải giữ nguyên
+                frozenExpected = new HashMap<>(expected);
+                frozen = map;
+                map = map.copy();
+            }
+        }
+        assertMatches(expected, map);
+        assertMatches(frozenExpected, frozen);
+        assertFalse(map.containsKey("missing"));
+        assertNull(map.remove("missing"));
+    }
+
+    @Test
+    void editingACopyLeavesTheSourceIntact() {
+        PagedHashMap<String, Integer> base = new PagedHashMap<>(5000);
+        for (int i = 0; i < 5000; i++) base.put("w" + i, i);
+        PagedHashMap<String, Integer> copy = base.copy();
+        for (int i = 0; i < 5000; i += 2) copy.remove("w" + i);
+        copy.put("w1", -1);
+
+        assertEquals(5000, base.size());
+        assertEquals(2500, copy.size());
+        assertEquals(0, base.get("w0"));
+        assertNull(copy.get("w0"));
+        assertEquals(-1, copy.get("w1"));
+        assertEquals(1, base.get("w1"));
+    }
+}